@@ -239,3 +239,14 @@ CREATE OR REPLACE PACKAGE BODY pckTestEasyJDBC AS
 
 END pckTestEasyJDBC;
 /
+
+-- Staging of key sets (KeySets); rows are private to the session
+CREATE GLOBAL TEMPORARY TABLE EASY_KEY_SET
+(
+  SET_ID   NUMBER NOT NULL,
+  KEY_NUM  NUMBER,
+  KEY_STR  VARCHAR2(4000 BYTE)
+)
+ON COMMIT PRESERVE ROWS;
+
+CREATE INDEX EASY_KEY_SET_IX ON EASY_KEY_SET (SET_ID);
@@ -0,0 +1,344 @@
+package ds.made.jdbc.easy;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ds.made.jdbc.easy.model.EasyBatchException;
+import ds.made.jdbc.easy.model.EasyBatchResult;
+import ds.made.jdbc.easy.model.Enums;
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+import ds.made.jdbc.easy.utility.DBClosingManager;
+import ds.made.jdbc.easy.utility.NamedParameterPreparedStatement;
+import ds.made.jdbc.easy.utility.Parameter;
+
+/**
+ * Batch DML (insert / update / delete) with named parameters.<br/>
+ * Rows are added to one prepared statement and sent every batchSize rows with executeBatch;
+ * with commitEvery the connection is committed every commitEvery batches (when it is not in auto commit).
+ * <pre>
+ *	try (EasyBatchStatement batch = new EasyBatchStatement("Insert Into MY_TABLE (ID, NAME) Values (:id, :name)", connection).setBatchSize(1000))
+ *	{
+ *		for (...)
+ *			batch.addRow(OracleParameterFactory.longParameter("id", id), OracleParameterFactory.stringParameter("name").setValue(name));
+ *		EasyBatchResult result = batch.execute();
+ *	}
+ * </pre>
+ * Not thread safe. Rows not yet sent are discarded by {@link #close()}.<br/>
+ * Rows can still be added after an {@link EasyBatchException}: the rows of the failed batch count as sent, the failed and
+ * the unknown ones with update count {@link Statement#EXECUTE_FAILED}, so row indexes keep matching the update counts.
+ * @author ds
+ */
+public class EasyBatchStatement implements AutoCloseable
+{
+
+	private static final Logger MYLOGGER = Logger.getLogger(EasyBatchStatement.class.getName());
+
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
+	private final Connection connection;
+	private final String command;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private int commitEvery = 0;
+	private boolean keepUpdateCounts = true;
+
+	private NamedParameterPreparedStatement statement = null;
+	private Boolean autoCommit = null;
+	/** Rows sent */
+	private long sent = 0;
+	/** Rows added but not sent */
+	private int pending = 0;
+	private int batches = 0;
+	private int commits = 0;
+	private long updated = 0;
+	private int[] updateCounts = new int[16];
+	/** Update counts collected */
+	private int kept = 0;
+
+	public EasyBatchStatement(String command, Connection connection)
+	{
+		this.command = command;
+		this.connection = connection;
+	}
+
+	/**
+	 * @param batchSize rows per executeBatch (at least 1)
+	 * @return this
+	 */
+	public EasyBatchStatement setBatchSize(int batchSize)
+	{
+		if (batchSize < 1)
+			throw new IllegalArgumentException("Batch size must be at least 1!");
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	/**
+	 * @param batches commit after every n batches; 0 = no commits (the caller commits)
+	 * @return this
+	 */
+	public EasyBatchStatement setCommitEvery(int batches)
+	{
+		if (batches < 0)
+			throw new IllegalArgumentException("Commit interval must not be negative!");
+		this.commitEvery = batches;
+		return this;
+	}
+
+	/**
+	 * @param keep false = do not collect the update count of each row (only totals), for very large loads
+	 * @return this
+	 */
+	public EasyBatchStatement setKeepUpdateCounts(boolean keep)
+	{
+		this.keepUpdateCounts = keep;
+		return this;
+	}
+
+	/**
+	 * Adds one row; sends the batch when it is full.
+	 * @param row IN parameters of the row; every parameter of the SQL (values are not kept from the previous row)
+	 * @return this
+	 * @throws SomethingJustWrong {@link EasyBatchException} when a batch fails
+	 */
+	public EasyBatchStatement addRow(Parameter... row) throws SomethingJustWrong
+	{
+		try
+		{
+			if (statement == null)
+				statement = new NamedParameterPreparedStatement(connection, command);
+
+			// a parameter left out of the row must not keep the value of the previous row
+			statement.getStatement().clearParameters();
+			if (row != null)
+			{
+				for (Parameter p : row)
+				{
+					if (p.getDirection() != Enums.PARAMETER_DIRECTION.IN)
+						throw new SomethingJustWrong("Wrong parameter direction : " + p.name + " !");
+					statement.bind(p.name, p.getBinder(), p.getValueForBind());
+				}
+			}
+			statement.getStatement().addBatch();
+			pending++;
+		}
+		catch (SQLException se)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error adding batch row " + (sent + pending) + "!", se);
+			throw new SomethingJustWrong(se);
+		}
+
+		if (pending >= batchSize)
+			flush();
+		return this;
+	}
+
+	/**
+	 * Adds one row of positional values (SQL with ? placeholders); sends the batch when it is full.
+	 * @param values value of each ?, as given to setObject
+	 * @param nullTypes SQL type of each ? for setNull of null values; null = setObject(null)
+	 * @return this
+	 * @throws SomethingJustWrong {@link EasyBatchException} when a batch fails
+	 */
+	public EasyBatchStatement addValues(Object[] values, int[] nullTypes) throws SomethingJustWrong
+	{
+		try
+		{
+			if (statement == null)
+				statement = new NamedParameterPreparedStatement(connection, command);
+
+			PreparedStatement ps = statement.getStatement();
+			for (int i = 0; i < values.length; i++)
+			{
+				if (values[i] == null && nullTypes != null)
+					ps.setNull(i + 1, nullTypes[i]);
+				else
+					ps.setObject(i + 1, values[i]);
+			}
+			ps.addBatch();
+			pending++;
+		}
+		catch (SQLException se)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error adding batch row " + (sent + pending) + "!", se);
+			throw new SomethingJustWrong(se);
+		}
+
+		if (pending >= batchSize)
+			flush();
+		return this;
+	}
+
+	/**
+	 * Adds rows, see {@link #addRow(Parameter...)}.
+	 * @param rows IN parameters of each row
+	 * @return this
+	 * @throws SomethingJustWrong
+	 */
+	public EasyBatchStatement addRows(Iterable<Parameter[]> rows) throws SomethingJustWrong
+	{
+		for (Parameter[] row : rows)
+			addRow(row);
+		return this;
+	}
+
+	/**
+	 * Sends the added rows (if any).
+	 * @throws SomethingJustWrong {@link EasyBatchException} when a row fails
+	 */
+	public void flush() throws SomethingJustWrong
+	{
+		if (pending == 0)
+			return;
+
+		long first = sent;
+		try
+		{
+			int[] counts = statement.getStatement().executeBatch();
+			record(counts);
+			sent += pending;
+			pending = 0;
+			batches++;
+			if (commitEvery > 0 && batches % commitEvery == 0 && !autoCommit())
+			{
+				connection.commit();
+				commits++;
+			}
+		}
+		catch (BatchUpdateException bue)
+		{
+			int[] counts = bue.getUpdateCounts();
+			int failed = counts == null ? -1 : counts.length;
+			if (counts != null)
+			{
+				for (int i = 0; i < counts.length; i++)
+				{
+					if (counts[i] == Statement.EXECUTE_FAILED)
+					{
+						failed = i;
+						break;
+					}
+				}
+				record(Arrays.copyOf(counts, failed));
+			}
+			long failedRow = failed < 0 ? -1 : first + failed;
+			int[] before = updateCounts();
+			failed(Math.max(failed, 0));
+			MYLOGGER.log(Level.SEVERE, "Critical error executing batch, row " + failedRow + "!", bue);
+			throw new EasyBatchException("Batch row " + failedRow + " failed!", bue, failedRow, before);
+		}
+		catch (SQLException se)
+		{
+			int[] before = updateCounts();
+			failed(0);
+			MYLOGGER.log(Level.SEVERE, "Critical error executing batch from row " + first + "!", se);
+			throw new EasyBatchException("Batch from row " + first + " failed!", se, -1, before);
+		}
+	}
+
+	/**
+	 * Sends the remaining rows and commits them when commits are enabled.
+	 * @return result of all rows sent by this statement
+	 * @throws SomethingJustWrong {@link EasyBatchException} when a row fails
+	 */
+	public EasyBatchResult execute() throws SomethingJustWrong
+	{
+		flush();
+		try
+		{
+			if (commitEvery > 0 && batches % commitEvery != 0 && !autoCommit())
+			{
+				connection.commit();
+				commits++;
+			}
+		}
+		catch (SQLException se)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error committing batch!", se);
+			throw new SomethingJustWrong(se);
+		}
+		return new EasyBatchResult(sent, batches, commits, updated, updateCounts());
+	}
+
+	/**
+	 * Closes the statement; rows not sent are discarded.
+	 */
+	@Override
+	public void close()
+	{
+		if (pending > 0)
+		{
+			MYLOGGER.log(Level.WARNING, pending + " batch rows not executed!");
+			discard();
+		}
+		DBClosingManager.closeAndContinue(statement);
+		statement = null;
+	}
+
+	private boolean autoCommit() throws SQLException
+	{
+		if (autoCommit == null)
+			autoCommit = connection.getAutoCommit();
+		return autoCommit;
+	}
+
+	private void record(int[] counts)
+	{
+		for (int c : counts)
+		{
+			if (c > 0)
+				updated += c;
+		}
+		if (!keepUpdateCounts)
+			return;
+
+		if (kept + counts.length > updateCounts.length)
+			updateCounts = Arrays.copyOf(updateCounts, Math.max(updateCounts.length * 2, kept + counts.length));
+		System.arraycopy(counts, 0, updateCounts, kept, counts.length);
+		kept += counts.length;
+	}
+
+	private int[] updateCounts()
+	{
+		return keepUpdateCounts ? Arrays.copyOf(updateCounts, kept) : null;
+	}
+
+	/**
+	 * Failed batch: the rows count as sent, the rows without a recorded update count as {@link Statement#EXECUTE_FAILED}.
+	 * @param recorded update counts recorded of the batch
+	 */
+	private void failed(int recorded)
+	{
+		int batch = pending;
+		if (recorded < batch)
+		{
+			int[] rest = new int[batch - recorded];
+			Arrays.fill(rest, Statement.EXECUTE_FAILED);
+			record(rest);
+		}
+		sent += batch;
+		discard();
+	}
+
+	/**
+	 * Drops the rows not sent.
+	 */
+	private void discard()
+	{
+		pending = 0;
+		try
+		{
+			statement.getStatement().clearBatch();
+		}
+		catch (SQLException e)
+		{
+			MYLOGGER.log(Level.WARNING, "Error clearing batch!", e);
+		}
+	}
+
+}
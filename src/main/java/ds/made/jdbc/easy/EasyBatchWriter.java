@@ -0,0 +1,356 @@
+package ds.made.jdbc.easy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import ds.made.jdbc.easy.annotations.BeanWriter;
+import ds.made.jdbc.easy.annotations.EasyColumn;
+import ds.made.jdbc.easy.annotations.EasyRow;
+import ds.made.jdbc.easy.model.EasyBatchException;
+import ds.made.jdbc.easy.model.EasyBatchResult;
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+ * Bulk insert / update of {@link EasyRow} beans with {@link EasyBatchStatement}.<br/>
+ * The SQL is generated from the {@link EasyColumn} names, values are read with the cached getters of {@link BeanWriter}.
+ * <pre>
+ *	EasyBatchResult r = new EasyBatchWriter&lt;&gt;(TestEntity.class, connection).setBatchSize(1000).insertAll("MY_TABLE", list);
+ * </pre>
+ * With {@link #setParallel(DataSource, Executor, int)} chunks of rows are written at the same time, each on its own connection
+ * and committed on its own: when a chunk fails, the other chunks stay written.
+ * @author ds
+ *
+ * @param <T> {@link EasyRow} annotated class
+ */
+public class EasyBatchWriter<T>
+{
+
+	private static final Logger MYLOGGER = Logger.getLogger(EasyBatchWriter.class.getName());
+
+	private final Class<T> clazz;
+	private final Connection connection;
+	private int batchSize = EasyBatchStatement.DEFAULT_BATCH_SIZE;
+	private int commitEvery = 0;
+	private DataSource dataSource = null;
+	private Executor executor = null;
+	private int chunkSize = 0;
+
+	/**
+	 * @param clazz {@link EasyRow} annotated class
+	 * @param connection connection to write on; may be null with {@link #setParallel(DataSource, Executor, int)}
+	 */
+	public EasyBatchWriter(Class<T> clazz, Connection connection)
+	{
+		this.clazz = clazz;
+		this.connection = connection;
+	}
+
+	/**
+	 * @param batchSize rows per executeBatch (at least 1)
+	 * @return this
+	 */
+	public EasyBatchWriter<T> setBatchSize(int batchSize)
+	{
+		if (batchSize < 1)
+			throw new IllegalArgumentException("Batch size must be at least 1!");
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	/**
+	 * @param batches commit after every n batches; 0 = no commits (the caller commits); not used for parallel chunks
+	 * @return this
+	 */
+	public EasyBatchWriter<T> setCommitEvery(int batches)
+	{
+		if (batches < 0)
+			throw new IllegalArgumentException("Commit interval must not be negative!");
+		this.commitEvery = batches;
+		return this;
+	}
+
+	/**
+	 * Writes chunks of rows in parallel, each on its own connection of the data source, committed at the end of the chunk.
+	 * @param dataSource connections of the chunks
+	 * @param executor runs the chunks; null = {@link ForkJoinPool#commonPool()}
+	 * @param chunkSize rows per chunk (at least 1)
+	 * @return this
+	 */
+	public EasyBatchWriter<T> setParallel(DataSource dataSource, Executor executor, int chunkSize)
+	{
+		if (dataSource == null)
+			throw new IllegalArgumentException("Data source must not be null!");
+		if (chunkSize < 1)
+			throw new IllegalArgumentException("Chunk size must be at least 1!");
+		this.dataSource = dataSource;
+		this.executor = executor != null ? executor : ForkJoinPool.commonPool();
+		this.chunkSize = chunkSize;
+		return this;
+	}
+
+	/**
+	 * Insert Into table (columns) Values (?, ...) for each row.
+	 * @param table table name
+	 * @param rows beans
+	 * @return update counts
+	 * @throws SomethingJustWrong {@link EasyBatchException} with the index of the failing row
+	 */
+	public EasyBatchResult insertAll(String table, List<? extends T> rows) throws SomethingJustWrong
+	{
+		BeanWriter writer = BeanWriter.of(clazz);
+		String[] columns = writer.getColumns();
+		StringBuilder sql = new StringBuilder("Insert Into ").append(table).append(" (");
+		StringBuilder values = new StringBuilder(") Values (");
+		int[] order = new int[columns.length];
+		for (int i = 0; i < columns.length; i++)
+		{
+			if (i > 0)
+			{
+				sql.append(", ");
+				values.append(", ");
+			}
+			sql.append(columns[i]);
+			values.append('?');
+			order[i] = i;
+		}
+		sql.append(values).append(')');
+		return write(sql.toString(), writer, order, rows);
+	}
+
+	/**
+	 * Update table Set column = ?, ... Where keyColumn = ? And ... for each row.
+	 * @param table table name
+	 * @param keyColumns {@link EasyColumn} names that identify a row
+	 * @param rows beans
+	 * @return update counts (0 for rows not found)
+	 * @throws SomethingJustWrong {@link EasyBatchException} with the index of the failing row
+	 */
+	public EasyBatchResult updateAll(String table, String[] keyColumns, List<? extends T> rows) throws SomethingJustWrong
+	{
+		if (keyColumns == null || keyColumns.length == 0)
+			throw new SomethingJustWrong("Update of " + table + " needs key columns!");
+
+		BeanWriter writer = BeanWriter.of(clazz);
+		String[] columns = writer.getColumns();
+		int[] keys = new int[keyColumns.length];
+		boolean[] isKey = new boolean[columns.length];
+		for (int k = 0; k < keyColumns.length; k++)
+		{
+			keys[k] = writer.indexOf(keyColumns[k]);
+			if (keys[k] < 0)
+				throw new SomethingJustWrong("Key column " + keyColumns[k] + " is not an @EasyColumn of " + clazz.getName() + "!");
+			isKey[keys[k]] = true;
+		}
+		if (keys.length == columns.length)
+			throw new SomethingJustWrong("Update of " + table + " has no columns to set!");
+
+		int[] order = new int[columns.length];
+		int n = 0;
+		StringBuilder sql = new StringBuilder("Update ").append(table).append(" Set ");
+		for (int i = 0; i < columns.length; i++)
+		{
+			if (isKey[i])
+				continue;
+			if (n > 0)
+				sql.append(", ");
+			sql.append(columns[i]).append(" = ?");
+			order[n++] = i;
+		}
+		sql.append(" Where ");
+		for (int k = 0; k < keys.length; k++)
+		{
+			if (k > 0)
+				sql.append(" And ");
+			sql.append(columns[keys[k]]).append(" = ?");
+			order[n++] = keys[k];
+		}
+		return write(sql.toString(), writer, order, rows);
+	}
+
+	/**
+	 * @param order bean column of each ?
+	 */
+	private EasyBatchResult write(final String sql, final BeanWriter writer, final int[] order, final List<? extends T> rows) throws SomethingJustWrong
+	{
+		int[] types = writer.getSqlTypes();
+		final int[] nullTypes = new int[order.length];
+		for (int i = 0; i < order.length; i++)
+			nullTypes[i] = types[order[i]];
+
+		if (dataSource == null)
+		{
+			if (connection == null)
+				throw new SomethingJustWrong("Connection must not be null!");
+			return chunk(connection, sql, writer, order, nullTypes, rows, 0, rows.size(), commitEvery);
+		}
+		if (rows.size() <= chunkSize)
+			return parallelChunk(sql, writer, order, nullTypes, rows, 0, rows.size());
+
+		List<CompletableFuture<EasyBatchResult>> futures = new ArrayList<CompletableFuture<EasyBatchResult>>();
+		for (int from = 0; from < rows.size(); from += chunkSize)
+		{
+			final int start = from;
+			final int end = Math.min(rows.size(), from + chunkSize);
+			futures.add(CompletableFuture.supplyAsync(() ->
+			{
+				try
+				{
+					return parallelChunk(sql, writer, order, nullTypes, rows, start, end);
+				}
+				catch (SomethingJustWrong e)
+				{
+					throw new CompletionException(e);
+				}
+			}, executor));
+		}
+
+		List<EasyBatchResult> results = new ArrayList<EasyBatchResult>(futures.size());
+		SomethingJustWrong failure = null;
+		for (CompletableFuture<EasyBatchResult> f : futures)
+		{
+			try
+			{
+				results.add(f.join());
+			}
+			catch (CompletionException e)
+			{
+				if (failure == null)
+					failure = e.getCause() instanceof SomethingJustWrong ? (SomethingJustWrong) e.getCause() : new SomethingJustWrong(e.getCause());
+			}
+		}
+		if (failure != null)
+			throw failure;
+		return merge(results);
+	}
+
+	/**
+	 * One chunk on its own connection, committed (or rolled back) at the end.
+	 */
+	private EasyBatchResult parallelChunk(String sql, BeanWriter writer, int[] order, int[] nullTypes, List<? extends T> rows, int from, int to) throws SomethingJustWrong
+	{
+		Connection c = null;
+		boolean autoCommit = false;
+		boolean done = false;
+		try
+		{
+			c = dataSource.getConnection();
+			autoCommit = c.getAutoCommit();
+			if (autoCommit)
+				c.setAutoCommit(false);
+			EasyBatchResult r = chunk(c, sql, writer, order, nullTypes, rows, from, to, 0);
+			c.commit();
+			done = true;
+			return new EasyBatchResult(r.getRows(), r.getBatches(), 1, r.getUpdated(), r.getUpdateCounts());
+		}
+		catch (SQLException se)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error writing rows " + from + " - " + (to - 1) + "!", se);
+			throw new SomethingJustWrong(se);
+		}
+		finally
+		{
+			if (c != null)
+			{
+				if (!done)
+				{
+					try
+					{
+						c.rollback();
+					}
+					catch (SQLException e)
+					{
+						MYLOGGER.log(Level.WARNING, "Error rolling back rows " + from + " - " + (to - 1) + "!", e);
+					}
+				}
+				if (autoCommit)
+				{
+					try
+					{
+						c.setAutoCommit(true);
+					}
+					catch (SQLException e)
+					{
+						MYLOGGER.log(Level.WARNING, "Error restoring auto commit!", e);
+					}
+				}
+				try
+				{
+					c.close();
+				}
+				catch (SQLException e)
+				{
+					MYLOGGER.log(Level.WARNING, "Error closing connection!", e);
+				}
+			}
+		}
+	}
+
+	private EasyBatchResult chunk(Connection c, String sql, BeanWriter writer, int[] order, int[] nullTypes, List<? extends T> rows, int from, int to, int commits) throws SomethingJustWrong
+	{
+		EasyBatchStatement batch = new EasyBatchStatement(sql, c).setBatchSize(batchSize).setCommitEvery(commits);
+		try
+		{
+			Object[] values = new Object[order.length];
+			for (int r = from; r < to; r++)
+			{
+				T bean = rows.get(r);
+				for (int i = 0; i < order.length; i++)
+					values[i] = writer.value(bean, order[i]);
+				batch.addValues(values, nullTypes);
+			}
+			return batch.execute();
+		}
+		catch (EasyBatchException e)
+		{
+			if (from == 0 || e.getFailedRow() < 0)
+				throw e;
+			throw new EasyBatchException("Batch row " + (from + e.getFailedRow()) + " failed!", e.getCause(), from + e.getFailedRow(), e.getUpdateCounts());
+		}
+		finally
+		{
+			batch.close();
+		}
+	}
+
+	private static EasyBatchResult merge(List<EasyBatchResult> results)
+	{
+		long rows = 0;
+		int batches = 0;
+		int commits = 0;
+		long updated = 0;
+		int counts = 0;
+		for (EasyBatchResult r : results)
+		{
+			rows += r.getRows();
+			batches += r.getBatches();
+			commits += r.getCommits();
+			updated += r.getUpdated();
+			counts += r.getUpdateCounts().length;
+		}
+		int[] all = new int[counts];
+		int at = 0;
+		for (EasyBatchResult r : results)
+		{
+			System.arraycopy(r.getUpdateCounts(), 0, all, at, r.getUpdateCounts().length);
+			at += r.getUpdateCounts().length;
+		}
+		return new EasyBatchResult(rows, batches, commits, updated, all);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "EasyBatchWriter [class=" + clazz.getName() + ", batchSize=" + batchSize + ", parallel=" + (dataSource != null) + "]";
+	}
+
+}
@@ -4,6 +4,9 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -13,11 +16,15 @@ import ds.made.jdbc.easy.annotations.MapResultSet;
 import ds.made.jdbc.easy.model.AnalysisBroke;
 import ds.made.jdbc.easy.model.EasyColumnClassField;
 import ds.made.jdbc.easy.model.EasyColumnFieldData;
+import ds.made.jdbc.easy.model.EasyStreamException;
 import ds.made.jdbc.easy.model.Enums;
+import ds.made.jdbc.easy.model.RowHandler;
 import ds.made.jdbc.easy.model.SomethingJustWrong;
 import ds.made.jdbc.easy.utility.DBClosingManager;
+import ds.made.jdbc.easy.utility.FetchSizePolicy;
 import ds.made.jdbc.easy.utility.NamedParameterCallableStatement;
 import ds.made.jdbc.easy.utility.Parameter;
+import ds.made.jdbc.easy.utility.RowCountHistory;
 
 /**
  * Simple stored procedure (cursor/out parameters) to List<T> mapper.<br/>
@@ -45,6 +52,9 @@ public class EasyCallForStoredProcedure<T>
 	private EasyColumnClassField[] nonAnnotatedFileds;
 	private boolean nonAnnotated = false;
 	private Integer rowLimit = null;
+	private FetchSizePolicy fetchSize = null;
+	private Executor parallel = null;
+	private boolean parallelOrdered = true;
 	
 	/**
 	 * No mapping! Use setOtherClassFields method. Made for stored with no cursor output.
@@ -113,6 +123,37 @@ public class EasyCallForStoredProcedure<T>
 		return this;
 	}
 	
+	/**
+	 * Rows per database round trip (cursor); {@link FetchSizePolicy#getDefault()} when not set.
+	 * @param policy
+	 */
+	public EasyCallForStoredProcedure<T> setFetchSize(FetchSizePolicy policy)
+	{
+		this.fetchSize = policy;
+		return this;
+	}
+	
+	/**
+	 * Parallel mapping in the common fork-join pool: this thread fetches, workers convert (LOB content, enums, instances).
+	 * @param ordered keep the result set order
+	 */
+	public EasyCallForStoredProcedure<T> setParallel(boolean ordered)
+	{
+		return setParallel(ForkJoinPool.commonPool(), ordered);
+	}
+	
+	/**
+	 * Parallel mapping; see {@link MapResultSet#mapParallel(Integer, Integer, Executor, boolean)}.
+	 * @param executor conversion workers; null = sequential mapping
+	 * @param ordered keep the result set order
+	 */
+	public EasyCallForStoredProcedure<T> setParallel(Executor executor, boolean ordered)
+	{
+		this.parallel = executor;
+		this.parallelOrdered = ordered;
+		return this;
+	}
+	
 	/**
 	 * {@link NamedParameterCallableStatement} (CallableStatement) execute.
 	 * @return CallableStatement.execute()
@@ -144,23 +185,7 @@ public class EasyCallForStoredProcedure<T>
 	 */
 	public List<T> executeCursorAsList() throws SomethingJustWrong
 	{
-		Parameter cursor = null;
-		if (parameters != null)
-		{
-			for (Parameter p : parameters)
-			{
-				if (p.getDirection() == Enums.PARAMETER_DIRECTION.RETURN)
-				{
-					cursor = p;
-					break;
-				}
-			}
-		}
-
-		if (cursor == null)
-			throw new SomethingJustWrong("Cannot find cursor parameter!");
-
-		return executeAsList(cursor,null,null);
+		return executeAsList(returnCursor(),null,null);
 	}
 
 	/**
@@ -201,6 +226,10 @@ public class EasyCallForStoredProcedure<T>
 		EasyColumnFieldData[] annotations = aMapper.propertiesList();
 		if (annotations.length <= 0)
 			throw new SomethingJustWrong("Class " + clazz.getName() + " must have @EasyColumn properties!");
+
+		boolean aggregate = MapEasyAnnotations.hasCollections(clazz);
+		if (aggregate && offset != null && count != null)
+			throw new SomethingJustWrong("Class " + clazz.getName() + " has @EasyCollection properties; pagination of joined rows is not supported!");
 		
 		NamedParameterCallableStatement call = null;
 		ResultSet rs = null;
@@ -208,14 +237,21 @@ public class EasyCallForStoredProcedure<T>
 		try
 		{
 			call = new NamedParameterCallableStatement(connection,command);
-			executeInternal(call);
-			rs = (ResultSet)cursor.getValue();
+			rs = executeCursor(call, cursor);
 			mapper = new MapResultSet<T>(clazz, annotations, rs);
 			mapper.setRowLimit(rowLimit);
-			if (offset != null && count != null)
-				return mapper.map(offset, count);
+			mapper.setExpectedRows(RowCountHistory.expectedRows(command));
+			List<T> lst;
+			if (aggregate)
+				lst = mapper.mapAggregated();
+			else if (parallel != null)
+				lst = mapper.mapParallel(offset != null && count != null ? offset : null, count, parallel, parallelOrdered);
+			else if (offset != null && count != null)
+				lst = mapper.map(offset, count);
 			else
-				return mapper.map();
+				lst = mapper.map();
+			RowCountHistory.record(command, lst.size());
+			return lst;
 		}
 		catch (AnalysisBroke ab)
 		{
@@ -244,6 +280,184 @@ public class EasyCallForStoredProcedure<T>
 		}
 	}
 	
+	/**
+	 * Push style reading of a cursor parameter: each mapped row is handed to the handler, nothing is collected.<br/>
+	 * When the handler returns false the cursor is closed and the statement cancelled.
+	 * @param cursor Cursor parameter
+	 * @param handler row callback
+	 * @return true when the handler stopped reading before the end
+	 * @throws SomethingJustWrong
+	 */
+	public boolean executeForEach(Parameter cursor, RowHandler<? super T> handler) throws SomethingJustWrong
+	{
+		if (cursor == null)
+			throw new SomethingJustWrong("No cursor to read from!");
+
+		if (clazz == null)
+			throw new SomethingJustWrong("No class definition! Use full constructor!");
+		
+		EasyColumnFieldData[] annotations = null;
+		if (nonAnnotated)
+		{
+			if (nonAnnotatedFileds == null || nonAnnotatedFileds.length <= 0)
+				throw new SomethingJustWrong("Definition " + clazz.getName() + " demands setOtherClassFields() method configuration!");
+		}
+		else
+		{
+			if (!clazz.isAnnotationPresent(EasyRow.class))
+				throw new SomethingJustWrong("Class " + clazz.getName() + " must be @EasyRow annotatated!");
+			
+			annotations = new MapEasyAnnotations(clazz).propertiesList();
+			if (annotations.length <= 0)
+				throw new SomethingJustWrong("Class " + clazz.getName() + " must have @EasyColumn properties!");
+			if (MapEasyAnnotations.hasCollections(clazz))
+				throw new SomethingJustWrong("Class " + clazz.getName() + " has @EasyCollection properties; use executeAsList!");
+		}
+		
+		NamedParameterCallableStatement call = null;
+		ResultSet rs = null;
+		MapResultSet<T> mapper = null;
+		try
+		{
+			call = new NamedParameterCallableStatement(connection,command);
+			rs = executeCursor(call, cursor);
+			mapper = nonAnnotated ? new MapResultSet<T>(clazz, nonAnnotatedFileds, rs) : new MapResultSet<T>(clazz, annotations, rs);
+			mapper.setRowLimit(rowLimit);
+			boolean stopped = mapper.forEach(handler);
+			if (stopped)
+				DBClosingManager.cancelAndContinue(call.getStatement());
+			return stopped;
+		}
+		catch (AnalysisBroke ab)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error analyzing!", ab);
+			throw new SomethingJustWrong(ab);
+		}
+		catch (SomethingJustWrong sjw)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error executing or reading cursor: " + (mapper == null ? "" : mapper.getLastFieldName()), sjw);
+			throw sjw;
+		}
+		catch (Exception e)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error executing or reading cursor: " + (mapper == null ? "" : mapper.getLastFieldName()), e);
+			throw new SomethingJustWrong(e);
+		}
+		finally
+		{
+			DBClosingManager.closeAndContinue(rs);
+			DBClosingManager.closeAndContinue(call);
+		}
+	}
+
+	/**
+	 * Push style reading of the first cursor (RETURN) parameter, see {@link #executeForEach(Parameter, RowHandler)}.
+	 */
+	public boolean executeCursorForEach(RowHandler<? super T> handler) throws SomethingJustWrong
+	{
+		return executeForEach(returnCursor(), handler);
+	}
+
+	/**
+	 * First cursor parameter to lazy Stream<T>.
+	 * @return Stream<T> of class instances; close it to close the cursor and the statement
+	 * @throws SomethingJustWrong
+	 */
+	public Stream<T> executeCursorAsStream() throws SomethingJustWrong
+	{
+		return executeCursorAsStream(returnCursor());
+	}
+
+	/**
+	 * @return first RETURN direction parameter
+	 */
+	private Parameter returnCursor() throws SomethingJustWrong
+	{
+		if (parameters != null)
+		{
+			for (Parameter p : parameters)
+			{
+				if (p.getDirection() == Enums.PARAMETER_DIRECTION.RETURN)
+					return p;
+			}
+		}
+		throw new SomethingJustWrong("Cannot find cursor parameter!");
+	}
+
+	/**
+	 * {@link NamedParameterCallableStatement} (CallableStatement) execute; cursor result to lazy Stream<T>.<br/>
+	 * Rows are mapped while the stream is consumed, so memory does not grow with the cursor size.
+	 * Close the stream (try-with-resources) to close the cursor and the statement. Reading errors are thrown as {@link EasyStreamException}.
+	 * @param cursor Cursor parameter
+	 * @return Stream<T> of class instances
+	 * @throws SomethingJustWrong
+	 */
+	public Stream<T> executeCursorAsStream(Parameter cursor) throws SomethingJustWrong
+	{
+		if (cursor == null)
+			throw new SomethingJustWrong("No cursor to read from!");
+
+		if (clazz == null)
+			throw new SomethingJustWrong("No class definition! Use full constructor!");
+		
+		EasyColumnFieldData[] annotations = null;
+		if (nonAnnotated)
+		{
+			if (nonAnnotatedFileds == null || nonAnnotatedFileds.length <= 0)
+				throw new SomethingJustWrong("Definition " + clazz.getName() + " demands setOtherClassFields() method configuration!");
+		}
+		else
+		{
+			if (!clazz.isAnnotationPresent(EasyRow.class))
+				throw new SomethingJustWrong("Class " + clazz.getName() + " must be @EasyRow annotatated!");
+			
+			annotations = new MapEasyAnnotations(clazz).propertiesList();
+			if (annotations.length <= 0)
+				throw new SomethingJustWrong("Class " + clazz.getName() + " must have @EasyColumn properties!");
+			if (MapEasyAnnotations.hasCollections(clazz))
+				throw new SomethingJustWrong("Class " + clazz.getName() + " has @EasyCollection properties; use executeAsList!");
+		}
+		
+		NamedParameterCallableStatement call = null;
+		ResultSet rs = null;
+		boolean streaming = false;
+		try
+		{
+			call = new NamedParameterCallableStatement(connection,command);
+			rs = executeCursor(call, cursor);
+			MapResultSet<T> mapper = nonAnnotated ? new MapResultSet<T>(clazz, nonAnnotatedFileds, rs) : new MapResultSet<T>(clazz, annotations, rs);
+			mapper.setRowLimit(rowLimit);
+			
+			final ResultSet result = rs;
+			final NamedParameterCallableStatement owner = call;
+			Stream<T> stream = mapper.stream().onClose(() ->
+			{
+				DBClosingManager.closeAndContinue(result);
+				DBClosingManager.closeAndContinue(owner);
+			});
+			streaming = true;
+			return stream;
+		}
+		catch (AnalysisBroke ab)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error analyzing!", ab);
+			throw new SomethingJustWrong(ab);
+		}
+		catch (SQLException se)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error executing or reading cursor!", se);
+			throw new SomethingJustWrong(se);
+		}
+		finally
+		{
+			if (!streaming)
+			{
+				DBClosingManager.closeAndContinue(rs);
+				DBClosingManager.closeAndContinue(call);
+			}
+		}
+	}
+	
 	/**
 	 * Single row means one object.
 	 * @param cursor Cursor parameter
@@ -282,10 +496,12 @@ public class EasyCallForStoredProcedure<T>
 		try
 		{
 			call = new NamedParameterCallableStatement(connection,command);
-			executeInternal(call);
-			rs = (ResultSet)cursor.getValue();
+			rs = executeCursor(call, cursor);
 			mapper = new MapResultSet<T>(clazz, rs);
-			return mapper.mapSingleColumn();
+			mapper.setExpectedRows(RowCountHistory.expectedRows(command));
+			List<T> lst = mapper.mapSingleColumn();
+			RowCountHistory.record(command, lst.size());
+			return lst;
 		}
 		catch (AnalysisBroke ab)
 		{
@@ -325,11 +541,13 @@ public class EasyCallForStoredProcedure<T>
 		try
 		{
 			call = new NamedParameterCallableStatement(connection,command);
-			executeInternal(call);
-			rs = (ResultSet)cursor.getValue();
+			rs = executeCursor(call, cursor);
 			mapper = new MapResultSet<T>(clazz, nonAnnotatedFileds, rs);
 			mapper.setRowLimit(rowLimit);
-			return mapper.map();
+			mapper.setExpectedRows(RowCountHistory.expectedRows(command));
+			List<T> lst = parallel != null ? mapper.mapParallel(null, null, parallel, parallelOrdered) : mapper.map();
+			RowCountHistory.record(command, lst.size());
+			return lst;
 		}
 		catch (AnalysisBroke ab)
 		{
@@ -359,6 +577,19 @@ public class EasyCallForStoredProcedure<T>
 	}
 	
 	
+	/**
+	 * Execution with the fetch size policy; cursor parameter result.
+	 */
+	private ResultSet executeCursor(NamedParameterCallableStatement call, Parameter cursor) throws SQLException
+	{
+		FetchSizePolicy policy = fetchSize != null ? fetchSize : FetchSizePolicy.getDefault();
+		policy.beforeExecute(call.getStatement(), command, null);
+		executeInternal(call);
+		ResultSet rs = (ResultSet)cursor.getValue();
+		policy.afterExecute(rs, command, null);
+		return rs;
+	}
+
 	private boolean executeInternal(NamedParameterCallableStatement call) throws SQLException
 	{
 		if (parameters != null)
@@ -369,7 +600,7 @@ public class EasyCallForStoredProcedure<T>
 				{
 					case IN:
 
-						call.setObject(p.name, p.getValueForExecute());
+						call.bind(p.name, p.getBinder(), p.getValueForBind());
 						break;
 
 					case OUT:
@@ -378,7 +609,7 @@ public class EasyCallForStoredProcedure<T>
 						
 					case IN_OUT:
 						call.registerOutParameter(p.name, p.type);
-						call.setObject(p.name, p.getValueForExecute());
+						call.bind(p.name, p.getBinder(), p.getValueForBind());
 						break;
 						
 					case RETURN:
@@ -5,6 +5,9 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -13,10 +16,16 @@ import ds.made.jdbc.easy.annotations.EasyRow;
 import ds.made.jdbc.easy.annotations.MapEasyAnnotations;
 import ds.made.jdbc.easy.annotations.MapResultSet;
 import ds.made.jdbc.easy.annotations.MapScalar;
+import ds.made.jdbc.easy.annotations.MappingPlanCache;
 import ds.made.jdbc.easy.model.*;
 import ds.made.jdbc.easy.utility.DBClosingManager;
+import ds.made.jdbc.easy.utility.FetchSizePolicy;
+import ds.made.jdbc.easy.utility.InLists;
+import ds.made.jdbc.easy.utility.KeySets;
 import ds.made.jdbc.easy.utility.NamedParameterPreparedStatement;
+import ds.made.jdbc.easy.utility.Pagination;
 import ds.made.jdbc.easy.utility.Parameter;
+import ds.made.jdbc.easy.utility.RowCountHistory;
 
 /**
  * Simple Select to List<T> mapper.<br/>
@@ -36,6 +45,14 @@ public class EasyPreparedStatement<T>
 	private EasyColumnClassField[] nonAnnotatedFileds;
 	private boolean nonAnnotated = false;
 	private Integer rowLimit = null;
+	private Executor parallel = null;
+	private boolean parallelOrdered = true;
+	private Enums.SQL_DIALECT dialect = null;
+	private FetchSizePolicy fetchSize = null;
+	/** Parameters of the current execution (list parameters expanded) */
+	private Parameter[] bound = null;
+	/** Key sets staged for the current execution */
+	private KeySets.Staged staged = null;
 	
 	/**
 	 * 
@@ -88,6 +105,47 @@ public class EasyPreparedStatement<T>
 		return this;
 	}
 	
+	/**
+	 * Parallel mapping in the common fork-join pool: this thread fetches, workers convert (LOB content, enums, instances).
+	 * @param ordered keep the result set order
+	 */
+	public EasyPreparedStatement<T> setParallel(boolean ordered)
+	{
+		return setParallel(ForkJoinPool.commonPool(), ordered);
+	}
+	
+	/**
+	 * Parallel mapping; see {@link MapResultSet#mapParallel(Integer, Integer, Executor, boolean)}.
+	 * @param executor conversion workers; null = sequential mapping
+	 * @param ordered keep the result set order
+	 */
+	public EasyPreparedStatement<T> setParallel(Executor executor, boolean ordered)
+	{
+		this.parallel = executor;
+		this.parallelOrdered = ordered;
+		return this;
+	}
+	
+	/**
+	 * Rows per database round trip; {@link FetchSizePolicy#getDefault()} when not set.
+	 * @param policy
+	 */
+	public EasyPreparedStatement<T> setFetchSize(FetchSizePolicy policy)
+	{
+		this.fetchSize = policy;
+		return this;
+	}
+	
+	/**
+	 * SQL dialect for database side pagination (see {@link Pagination}); detected from the connection when not set.
+	 * @param dialect
+	 */
+	public EasyPreparedStatement<T> setDialect(Enums.SQL_DIALECT dialect)
+	{
+		this.dialect = dialect;
+		return this;
+	}
+	
 	/**
 	 * Just one single object; e.g. Select F(?) From DUAL
 	 * @return T class instance
@@ -100,7 +158,7 @@ public class EasyPreparedStatement<T>
 		ResultSet rs = null;
 		try
 		{
-			statement = new NamedParameterPreparedStatement(connection,command);
+			statement = new NamedParameterPreparedStatement(connection,command());
 			fillParameters(statement);
 			rs = statement.executeQuery();
 			MapScalar<T> map = new MapScalar<T>(clazz,rs);
@@ -115,6 +173,103 @@ public class EasyPreparedStatement<T>
 		{
 			DBClosingManager.closeAndContinue(rs);
 			DBClosingManager.closeAndContinue(statement);
+			release();
+		}
+	}
+	
+	/**
+	 * Just one single long value without boxing; e.g. Select count(*) From DUAL.<br/>
+	 * SQL NULL follows {@link MappingPlanCache#getPrimitiveNull()}.
+	 * @return value
+	 * @throws SomethingJustWrong
+	 * @throws EasyStatementNoSingleObject
+	 */
+	public long longScalar() throws SomethingJustWrong, EasyStatementNoSingleObject
+	{
+		NamedParameterPreparedStatement statement = null;
+		ResultSet rs = null;
+		try
+		{
+			statement = new NamedParameterPreparedStatement(connection,command());
+			fillParameters(statement);
+			rs = statement.executeQuery();
+			MapScalar<T> map = new MapScalar<T>(clazz,rs);
+			return map.mapLong();
+		}
+		catch (SQLException se)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error executing scalar query!", se);
+			throw new SomethingJustWrong(se);
+		}
+		finally
+		{
+			DBClosingManager.closeAndContinue(rs);
+			DBClosingManager.closeAndContinue(statement);
+			release();
+		}
+	}
+	
+	/**
+	 * Just one single int value without boxing; e.g. Select count(*) From DUAL.<br/>
+	 * SQL NULL follows {@link MappingPlanCache#getPrimitiveNull()}.
+	 * @return value
+	 * @throws SomethingJustWrong
+	 * @throws EasyStatementNoSingleObject
+	 */
+	public int intScalar() throws SomethingJustWrong, EasyStatementNoSingleObject
+	{
+		NamedParameterPreparedStatement statement = null;
+		ResultSet rs = null;
+		try
+		{
+			statement = new NamedParameterPreparedStatement(connection,command());
+			fillParameters(statement);
+			rs = statement.executeQuery();
+			MapScalar<T> map = new MapScalar<T>(clazz,rs);
+			return map.mapInt();
+		}
+		catch (SQLException se)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error executing scalar query!", se);
+			throw new SomethingJustWrong(se);
+		}
+		finally
+		{
+			DBClosingManager.closeAndContinue(rs);
+			DBClosingManager.closeAndContinue(statement);
+			release();
+		}
+	}
+	
+	/**
+	 * Just one single double value without boxing; e.g. Select count(*) From DUAL.<br/>
+	 * SQL NULL follows {@link MappingPlanCache#getPrimitiveNull()}.
+	 * @return value
+	 * @throws SomethingJustWrong
+	 * @throws EasyStatementNoSingleObject
+	 */
+	public double doubleScalar() throws SomethingJustWrong, EasyStatementNoSingleObject
+	{
+		NamedParameterPreparedStatement statement = null;
+		ResultSet rs = null;
+		try
+		{
+			statement = new NamedParameterPreparedStatement(connection,command());
+			fillParameters(statement);
+			rs = statement.executeQuery();
+			MapScalar<T> map = new MapScalar<T>(clazz,rs);
+			return map.mapDouble();
+		}
+		catch (SQLException se)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error executing scalar query!", se);
+			throw new SomethingJustWrong(se);
+		}
+		finally
+		{
+			DBClosingManager.closeAndContinue(rs);
+			DBClosingManager.closeAndContinue(statement);
+			release();
 		}
 	}
 	
@@ -130,7 +285,7 @@ public class EasyPreparedStatement<T>
 		ResultSet rs = null;
 		try
 		{
-			statement = new NamedParameterPreparedStatement(connection,command);
+			statement = new NamedParameterPreparedStatement(connection,command());
 			fillParameters(statement);
 			rs = statement.executeQuery();
 			MapScalar<T> map = new MapScalar<T>(clazz,rs);
@@ -150,6 +305,7 @@ public class EasyPreparedStatement<T>
 		{
 			DBClosingManager.closeAndContinue(rs);
 			DBClosingManager.closeAndContinue(statement);
+			release();
 		}
 	}
 	
@@ -165,7 +321,7 @@ public class EasyPreparedStatement<T>
 		ResultSet rs = null;
 		try
 		{
-			statement = new NamedParameterPreparedStatement(connection,command);
+			statement = new NamedParameterPreparedStatement(connection,command());
 			fillParameters(statement);
 			rs = statement.executeQuery();
 			MapScalar<T> map = new MapScalar<T>(clazz,rs);
@@ -185,6 +341,7 @@ public class EasyPreparedStatement<T>
 		{
 			DBClosingManager.closeAndContinue(rs);
 			DBClosingManager.closeAndContinue(statement);
+			release();
 		}
 	}
 	
@@ -237,7 +394,7 @@ public class EasyPreparedStatement<T>
 	public List<T> executeAsList(Integer offset, Integer count) throws SomethingJustWrong
 	{
 		if (nonAnnotated)
-			return executeAsListForNonAnnotatedClass();
+			return executeAsListForNonAnnotatedClass(offset, count);
 		
 		if (!clazz.isAnnotationPresent(EasyRow.class))
 			throw new SomethingJustWrong("Class " + clazz.getName() + " must be @EasyRow annotatated!");
@@ -247,20 +404,35 @@ public class EasyPreparedStatement<T>
 		if (annotations.length <= 0)
 			throw new SomethingJustWrong("Class " + clazz.getName() + " must have @EasyColumn properties!");
 
+		boolean aggregate = MapEasyAnnotations.hasCollections(clazz);
+		if (aggregate && offset != null && count != null)
+			throw new SomethingJustWrong("Class " + clazz.getName() + " has @EasyCollection properties; pagination of joined rows is not supported!");
+
 		NamedParameterPreparedStatement statement = null;
 		ResultSet rs = null;
 		MapResultSet<T> mapper = null;
 		try
 		{
-			statement = new NamedParameterPreparedStatement(connection,command);
+			Pagination page = pagination(offset, count);
+			String sql = page.rewrite(command());
+			statement = new NamedParameterPreparedStatement(connection,sql);
 			fillParameters(statement);
-			rs = statement.executeQuery();
+			page.bind(statement);
+			rs = executeQuery(statement, page, sql);
 			mapper = new MapResultSet<T>(clazz, annotations, rs);
 			mapper.setRowLimit(rowLimit);
-			if (offset != null && count != null)
-				return mapper.map(offset, count);
+			mapper.setExpectedRows(RowCountHistory.expectedRows(sql));
+			List<T> lst;
+			if (aggregate)
+				lst = mapper.mapAggregated();
+			else if (parallel != null)
+				lst = mapper.mapParallel(offset != null && count != null ? page.getClientOffset() : null, count, parallel, parallelOrdered);
+			else if (offset != null && count != null)
+				lst = mapper.map(page.getClientOffset(), count);
 			else
-				return mapper.map();
+				lst = mapper.map();
+			RowCountHistory.record(sql, lst.size());
+			return lst;
 		}
 		catch (AnalysisBroke ab)
 		{
@@ -286,15 +458,18 @@ public class EasyPreparedStatement<T>
 		{
 			DBClosingManager.closeAndContinue(rs);
 			DBClosingManager.closeAndContinue(statement);
+			release();
 		}
 	}	
 	
 	/**
-	 * List of mapped rows.
+	 * List of mapped rows. Pagination.
+	 * @param offset start row index (zero based)
+	 * @param count number of rows
 	 * @return List<T> class instances
 	 * @throws SomethingJustWrong
 	 */
-	private List<T> executeAsListForNonAnnotatedClass() throws SomethingJustWrong
+	private List<T> executeAsListForNonAnnotatedClass(Integer offset, Integer count) throws SomethingJustWrong
 	{
 		if (nonAnnotatedFileds == null || nonAnnotatedFileds.length <= 0)
 			throw new SomethingJustWrong("Definition " + clazz.getName() + " demands setOtherClassFields() method configuration!");
@@ -304,12 +479,24 @@ public class EasyPreparedStatement<T>
 		MapResultSet<T> mapper = null;
 		try
 		{
-			statement = new NamedParameterPreparedStatement(connection,command);
+			Pagination page = pagination(offset, count);
+			String sql = page.rewrite(command());
+			statement = new NamedParameterPreparedStatement(connection,sql);
 			fillParameters(statement);
-			rs = statement.executeQuery();
+			page.bind(statement);
+			rs = executeQuery(statement, page, sql);
 			mapper = new MapResultSet<T>(clazz, nonAnnotatedFileds, rs);
 			mapper.setRowLimit(rowLimit);
-			return mapper.map();
+			mapper.setExpectedRows(RowCountHistory.expectedRows(sql));
+			List<T> lst;
+			if (parallel != null)
+				lst = mapper.mapParallel(offset != null && count != null ? page.getClientOffset() : null, count, parallel, parallelOrdered);
+			else if (offset != null && count != null)
+				lst = mapper.map(page.getClientOffset(), count);
+			else
+				lst = mapper.map();
+			RowCountHistory.record(sql, lst.size());
+			return lst;
 		}
 		catch (AnalysisBroke ab)
 		{
@@ -335,6 +522,199 @@ public class EasyPreparedStatement<T>
 		{
 			DBClosingManager.closeAndContinue(rs);
 			DBClosingManager.closeAndContinue(statement);
+			release();
+		}
+	}
+
+	/**
+	 * Lazy stream of mapped rows; memory does not grow with the result size.<br/>
+	 * Rows are mapped while the stream is consumed, so the statement stays open: close the stream (try-with-resources)
+	 * to close the result set and the statement. Reading errors are thrown as {@link EasyStreamException}.
+	 * @return Stream<T> of class instances
+	 * @throws SomethingJustWrong
+	 */
+	public Stream<T> executeAsStream() throws SomethingJustWrong
+	{
+		EasyColumnFieldData[] annotations = null;
+		if (nonAnnotated)
+		{
+			if (nonAnnotatedFileds == null || nonAnnotatedFileds.length <= 0)
+				throw new SomethingJustWrong("Definition " + clazz.getName() + " demands setOtherClassFields() method configuration!");
+		}
+		else
+		{
+			if (!clazz.isAnnotationPresent(EasyRow.class))
+				throw new SomethingJustWrong("Class " + clazz.getName() + " must be @EasyRow annotatated!");
+			
+			annotations = new MapEasyAnnotations(clazz).propertiesList();
+			if (annotations.length <= 0)
+				throw new SomethingJustWrong("Class " + clazz.getName() + " must have @EasyColumn properties!");
+			if (MapEasyAnnotations.hasCollections(clazz))
+				throw new SomethingJustWrong("Class " + clazz.getName() + " has @EasyCollection properties; use executeAsList!");
+		}
+
+		NamedParameterPreparedStatement statement = null;
+		ResultSet rs = null;
+		boolean streaming = false;
+		try
+		{
+			Pagination page = pagination(null, null);
+			String sql = page.rewrite(command());
+			statement = new NamedParameterPreparedStatement(connection,sql);
+			fillParameters(statement);
+			page.bind(statement);
+			rs = executeQuery(statement, page, sql);
+			MapResultSet<T> mapper = nonAnnotated ? new MapResultSet<T>(clazz, nonAnnotatedFileds, rs) : new MapResultSet<T>(clazz, annotations, rs);
+			mapper.setRowLimit(rowLimit);
+			
+			final ResultSet cursor = rs;
+			final NamedParameterPreparedStatement owner = statement;
+			final KeySets.Staged keys = staged;
+			staged = null;
+			Stream<T> stream = mapper.stream().onClose(() ->
+			{
+				DBClosingManager.closeAndContinue(cursor);
+				DBClosingManager.closeAndContinue(owner);
+				keys.release();
+			});
+			streaming = true;
+			return stream;
+		}
+		catch (AnalysisBroke ab)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error analyzing!", ab);
+			throw new SomethingJustWrong(ab);
+		}
+		catch (SQLException se)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error executing query!", se);
+			throw new SomethingJustWrong(se);
+		}
+		finally
+		{
+			if (!streaming)
+			{
+				DBClosingManager.closeAndContinue(rs);
+				DBClosingManager.closeAndContinue(statement);
+				release();
+			}
+		}
+	}
+
+	/**
+	 * Push style reading: each mapped row is handed to the handler, nothing is collected.<br/>
+	 * When the handler returns false the statement is cancelled and closed, the rest of the result is not fetched.
+	 * @param handler row callback
+	 * @return true when the handler stopped reading before the end
+	 * @throws SomethingJustWrong
+	 */
+	public boolean executeForEach(RowHandler<? super T> handler) throws SomethingJustWrong
+	{
+		EasyColumnFieldData[] annotations = null;
+		if (nonAnnotated)
+		{
+			if (nonAnnotatedFileds == null || nonAnnotatedFileds.length <= 0)
+				throw new SomethingJustWrong("Definition " + clazz.getName() + " demands setOtherClassFields() method configuration!");
+		}
+		else
+		{
+			if (!clazz.isAnnotationPresent(EasyRow.class))
+				throw new SomethingJustWrong("Class " + clazz.getName() + " must be @EasyRow annotatated!");
+			
+			annotations = new MapEasyAnnotations(clazz).propertiesList();
+			if (annotations.length <= 0)
+				throw new SomethingJustWrong("Class " + clazz.getName() + " must have @EasyColumn properties!");
+			if (MapEasyAnnotations.hasCollections(clazz))
+				throw new SomethingJustWrong("Class " + clazz.getName() + " has @EasyCollection properties; use executeAsList!");
+		}
+
+		NamedParameterPreparedStatement statement = null;
+		ResultSet rs = null;
+		MapResultSet<T> mapper = null;
+		try
+		{
+			Pagination page = pagination(null, null);
+			String sql = page.rewrite(command());
+			statement = new NamedParameterPreparedStatement(connection,sql);
+			fillParameters(statement);
+			page.bind(statement);
+			rs = executeQuery(statement, page, sql);
+			mapper = nonAnnotated ? new MapResultSet<T>(clazz, nonAnnotatedFileds, rs) : new MapResultSet<T>(clazz, annotations, rs);
+			mapper.setRowLimit(rowLimit);
+			boolean stopped = mapper.forEach(handler);
+			if (stopped)
+				DBClosingManager.cancelAndContinue(statement.getStatement());
+			return stopped;
+		}
+		catch (AnalysisBroke ab)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error analyzing!", ab);
+			throw new SomethingJustWrong(ab);
+		}
+		catch (SomethingJustWrong sjw)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error executing or reading query: " + (mapper == null ? "" : mapper.getLastFieldName()), sjw);
+			throw sjw;
+		}
+		catch (Exception e)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error executing or reading query: " + (mapper == null ? "" : mapper.getLastFieldName()), e);
+			throw new SomethingJustWrong(e);
+		}
+		finally
+		{
+			DBClosingManager.closeAndContinue(rs);
+			DBClosingManager.closeAndContinue(statement);
+			release();
+		}
+	}
+
+	/**
+	 * Push style reading of raw rows, see {@link EasyDataTable#executeForEach(RowHandler)}.<br/>
+	 * When the handler returns false the statement is cancelled and closed.
+	 * @param handler row callback; the row object and its data array are reused
+	 * @return true when the handler stopped reading before the end
+	 * @throws SomethingJustWrong
+	 */
+	public boolean dataTableForEach(RowHandler<? super EasyDataRow> handler) throws SomethingJustWrong
+	{
+		NamedParameterPreparedStatement statement = null;
+		ResultSet rs = null;
+		try
+		{
+			Pagination page = pagination(null, null);
+			String sql = page.rewrite(command());
+			statement = new NamedParameterPreparedStatement(connection,sql);
+			fillParameters(statement);
+			page.bind(statement);
+			rs = executeQuery(statement, page, sql);
+			EasyDataTable dt = new EasyDataTable(rs, page.hasRowNumberColumn());
+			dt.setRowLimit(rowLimit);
+			boolean stopped = dt.executeForEach(handler);
+			if (stopped)
+				DBClosingManager.cancelAndContinue(statement.getStatement());
+			return stopped;
+		}
+		catch (AnalysisBroke ab)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error analyzing!", ab);
+			throw new SomethingJustWrong(ab);
+		}
+		catch (SomethingJustWrong sjw)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error executing or reading query!", sjw);
+			throw sjw;
+		}
+		catch (Exception e)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error executing or reading query!", e);
+			throw new SomethingJustWrong(e);
+		}
+		finally
+		{
+			DBClosingManager.closeAndContinue(rs);
+			DBClosingManager.closeAndContinue(statement);
+			release();
 		}
 	}
 
@@ -349,15 +729,20 @@ public class EasyPreparedStatement<T>
 		ResultSet rs = null;
 		try
 		{
-			statement = new NamedParameterPreparedStatement(connection,command);
+			Pagination page = pagination(offset, count);
+			String sql = page.rewrite(command());
+			statement = new NamedParameterPreparedStatement(connection,sql);
 			fillParameters(statement);
-			rs = statement.executeQuery();
-			EasyDataTable dt = new EasyDataTable(rs);
+			page.bind(statement);
+			rs = executeQuery(statement, page, sql);
+			EasyDataTable dt = new EasyDataTable(rs, page.hasRowNumberColumn());
 			dt.setRowLimit(rowLimit);
+			dt.setExpectedRows(RowCountHistory.expectedRows(sql));
 			if (offset != null && count != null)
-				dt.read(offset, count);
+				dt.read(page.getClientOffset(), count);
 			else
 				dt.read();
+			RowCountHistory.record(sql, dt.size());
 			return dt;
 		}
 		catch (AnalysisBroke ab)
@@ -379,19 +764,72 @@ public class EasyPreparedStatement<T>
 		{
 			DBClosingManager.closeAndContinue(rs);
 			DBClosingManager.closeAndContinue(statement);
+			release();
+		}
+	}
+
+	/**
+	 * Page (offset / count) and row limit for this execution.
+	 */
+	private Pagination pagination(Integer offset, Integer count)
+	{
+		if (offset == null || count == null)
+		{
+			offset = null;
+			count = null;
+		}
+		if (count == null && rowLimit == null)
+			return new Pagination(Enums.SQL_DIALECT.NONE, null, null, null);
+		if (dialect == null)
+			dialect = Pagination.detect(connection);
+		return new Pagination(dialect, offset, count, rowLimit);
+	}
+	
+	/**
+	 * Query execution with the fetch size policy.
+	 */
+	private ResultSet executeQuery(NamedParameterPreparedStatement statement, Pagination page, String sql) throws SQLException
+	{
+		FetchSizePolicy policy = fetchSize != null ? fetchSize : FetchSizePolicy.getDefault();
+		policy.beforeExecute(statement.getStatement(), sql, page.getMaxRows());
+		ResultSet rs = statement.executeQuery();
+		policy.afterExecute(rs, sql, page.getMaxRows());
+		return rs;
+	}
+	
+	/**
+	 * Command of the current execution: collection parameters expanded to IN lists ({@link InLists}), key sets staged ({@link KeySets}).
+	 */
+	private String command() throws SomethingJustWrong
+	{
+		InLists.Expanded e = InLists.expand(command, parameters);
+		staged = KeySets.stage(connection, e.command, e.parameters);
+		bound = staged.parameters;
+		return staged.command;
+	}
+
+	/**
+	 * Deletes the keys staged by {@link #command()}.
+	 */
+	private void release()
+	{
+		if (staged != null)
+		{
+			staged.release();
+			staged = null;
 		}
 	}
 
 	private void fillParameters(NamedParameterPreparedStatement statement) throws SQLException, SomethingJustWrong
 	{
-		if (parameters != null)
+		if (bound != null)
 		{
-			for (Parameter p : parameters)
+			for (Parameter p : bound)
 			{
 				switch (p.getDirection())
 				{
 					case IN:
-						statement.setObject(p.name, p.getValueForExecute());
+						statement.bind(p.name, p.getBinder(), p.getValueForBind());
 						break;
 						
 					default:
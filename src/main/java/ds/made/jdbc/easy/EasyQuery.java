@@ -0,0 +1,354 @@
+package ds.made.jdbc.easy;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ds.made.jdbc.easy.annotations.EasyColumn;
+import ds.made.jdbc.easy.annotations.EasyRow;
+import ds.made.jdbc.easy.annotations.MapEasyAnnotations;
+import ds.made.jdbc.easy.annotations.MapResultSet;
+import ds.made.jdbc.easy.annotations.MapScalar;
+import ds.made.jdbc.easy.model.*;
+import ds.made.jdbc.easy.utility.DBClosingManager;
+import ds.made.jdbc.easy.utility.FetchSizePolicy;
+import ds.made.jdbc.easy.utility.NamedParameterUtils;
+import ds.made.jdbc.easy.utility.Parameter;
+import ds.made.jdbc.easy.utility.ParameterBinder;
+import ds.made.jdbc.easy.utility.ParsedSql;
+import ds.made.jdbc.easy.utility.RowCountHistory;
+import ds.made.jdbc.easy.utility.TypeConverters;
+
+/**
+ * Query definition prepared once and executed many times (immutable, thread safe).<br/>
+ * Holds the parsed SQL, the annotated properties of the target class and the parameter slots.
+ * Values are bound by position: one value per distinct parameter name, in order of first appearance in the SQL.
+ * <pre>
+ *	private static final EasyQuery&lt;TestEntity&gt; BY_NAME = EasyQuery.of("Select * From MY_TABLE Where NAME = :name And CODE = :code", TestEntity.class);
+ *	...
+ *	List&lt;TestEntity&gt; lst = BY_NAME.bind("A", 5).executeAsList(connection);
+ * </pre>
+ * Combine with {@link ds.made.jdbc.easy.utility.StatementCache} to also reuse the JDBC statements.
+ * @author ds
+ *
+ * @param <T> {@link EasyRow} / {@link EasyColumn} annotated class; for {@link Binding#executeAsScalar(Connection)} a scalar type
+ */
+public final class EasyQuery<T>
+{
+
+	private static final Logger MYLOGGER = Logger.getLogger(EasyQuery.class.getName());
+
+	private final String command;
+	private final Class<T> clazz;
+	private final ParsedSql parsed;
+	/** Slot names (distinct parameter names) */
+	private final String[] names;
+	/** ? indexes of each slot */
+	private final int[][] slots;
+	/** null for scalar types */
+	private final EasyColumnFieldData[] annotations;
+	private final boolean aggregate;
+	private final FetchSizePolicy fetchSize;
+
+	private EasyQuery(String command, Class<T> clazz, ParsedSql parsed, String[] names, int[][] slots, EasyColumnFieldData[] annotations, boolean aggregate, FetchSizePolicy fetchSize)
+	{
+		this.command = command;
+		this.clazz = clazz;
+		this.parsed = parsed;
+		this.names = names;
+		this.slots = slots;
+		this.annotations = annotations;
+		this.aggregate = aggregate;
+		this.fetchSize = fetchSize;
+	}
+
+	/**
+	 * @param command SQL with :named parameters
+	 * @param clazz {@link EasyRow} annotated class or a scalar type
+	 * @return query definition
+	 * @throws SomethingJustWrong when an annotated class has no {@link EasyColumn} properties
+	 */
+	public static <T> EasyQuery<T> of(String command, Class<T> clazz) throws SomethingJustWrong
+	{
+		if (command == null || clazz == null)
+			throw new SomethingJustWrong("Command and class must not be null!");
+
+		EasyColumnFieldData[] annotations = null;
+		boolean aggregate = false;
+		if (clazz.isAnnotationPresent(EasyRow.class))
+		{
+			annotations = new MapEasyAnnotations(clazz).propertiesList();
+			if (annotations.length <= 0)
+				throw new SomethingJustWrong("Class " + clazz.getName() + " must have @EasyColumn properties!");
+			aggregate = MapEasyAnnotations.hasCollections(clazz);
+		}
+
+		ParsedSql parsed = NamedParameterUtils.parse(command);
+		Set<String> distinct = new LinkedHashSet<String>(Arrays.asList(parsed.getParameterOrder()));
+		String[] names = distinct.toArray(new String[distinct.size()]);
+		int[][] slots = new int[names.length][];
+		for (int i = 0; i < names.length; i++)
+			slots[i] = parsed.getIndexes(names[i]);
+
+		return new EasyQuery<T>(command, clazz, parsed, names, slots, annotations, aggregate, null);
+	}
+
+	/**
+	 * @param policy fetch size policy of this query (null = {@link FetchSizePolicy#getDefault()})
+	 * @return new query definition
+	 */
+	public EasyQuery<T> withFetchSize(FetchSizePolicy policy)
+	{
+		return new EasyQuery<T>(command, clazz, parsed, names, slots, annotations, aggregate, policy);
+	}
+
+	/**
+	 * @return parameter names in binding order (a copy)
+	 */
+	public String[] getParameterNames()
+	{
+		return names.clone();
+	}
+
+	public String getCommand()
+	{
+		return command;
+	}
+
+	/**
+	 * @param values one value per parameter name ({@link #getParameterNames()} order); a {@link Parameter} is bound with its
+	 * execute value and typed binder, other values through the registered {@link ds.made.jdbc.easy.utility.TypeConverter}s
+	 * @return execution of this query with the values
+	 * @throws IllegalArgumentException when the number of values does not match the parameters
+	 */
+	public Binding<T> bind(Object... values)
+	{
+		int n = values == null ? 0 : values.length;
+		if (n != names.length)
+			throw new IllegalArgumentException("Query needs " + names.length + " values " + Arrays.toString(names) + ", got " + n + "!");
+		return new Binding<T>(this, n == 0 ? values : values.clone());
+	}
+
+	/**
+	 * Query definition with bound values.
+	 */
+	public static final class Binding<T>
+	{
+		private final EasyQuery<T> query;
+		private final Object[] values;
+
+		private Binding(EasyQuery<T> query, Object[] values)
+		{
+			this.query = query;
+			this.values = values;
+		}
+
+		/**
+		 * List of mapped rows.
+		 * @param connection connection to execute on
+		 * @return List<T> class instances
+		 * @throws SomethingJustWrong
+		 */
+		public List<T> executeAsList(Connection connection) throws SomethingJustWrong
+		{
+			return query.list(connection, values, null);
+		}
+
+		/**
+		 * Single row means one object.
+		 * @param connection connection to execute on
+		 * @return T class instance; null when there is no row or more than one
+		 * @throws SomethingJustWrong
+		 */
+		public T executeSingleResult(Connection connection) throws SomethingJustWrong
+		{
+			List<T> lst = query.list(connection, values, query.aggregate ? null : 2);
+			return lst.size() != 1 ? null : lst.get(0);
+		}
+
+		/**
+		 * Just one single object; e.g. Select F(?) From DUAL
+		 * @param connection connection to execute on
+		 * @return T value
+		 * @throws SomethingJustWrong
+		 * @throws EasyStatementNoSingleObject
+		 */
+		public T executeAsScalar(Connection connection) throws SomethingJustWrong, EasyStatementNoSingleObject
+		{
+			return query.scalar(connection, values);
+		}
+
+		/**
+		 * Push style reading, see {@link EasyPreparedStatement#executeForEach(RowHandler)}.
+		 * @param connection connection to execute on
+		 * @param handler row callback
+		 * @return true when the handler stopped reading before the end
+		 * @throws SomethingJustWrong
+		 */
+		public boolean executeForEach(Connection connection, RowHandler<? super T> handler) throws SomethingJustWrong
+		{
+			return query.forEach(connection, values, handler);
+		}
+	}
+
+	private List<T> list(Connection connection, Object[] values, Integer maxRows) throws SomethingJustWrong
+	{
+		checkAnnotated();
+
+		String sql = parsed.getSql();
+		PreparedStatement statement = null;
+		ResultSet rs = null;
+		MapResultSet<T> mapper = null;
+		try
+		{
+			statement = connection.prepareStatement(sql);
+			if (maxRows != null)
+				statement.setMaxRows(maxRows);
+			bind(statement, values);
+			rs = executeQuery(statement, sql, maxRows);
+			mapper = new MapResultSet<T>(clazz, annotations, rs);
+			mapper.setExpectedRows(RowCountHistory.expectedRows(sql));
+			List<T> lst = aggregate ? mapper.mapAggregated() : mapper.map();
+			if (maxRows == null)
+				RowCountHistory.record(sql, lst.size());
+			return lst;
+		}
+		catch (AnalysisBroke ab)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error analyzing!", ab);
+			throw new SomethingJustWrong(ab);
+		}
+		catch (SomethingJustWrong sjw)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error executing or reading query: " + (mapper == null ? "" : mapper.getLastFieldName()), sjw);
+			throw sjw;
+		}
+		catch (Exception e)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error executing or reading query: " + (mapper == null ? "" : mapper.getLastFieldName()), e);
+			throw new SomethingJustWrong(e);
+		}
+		finally
+		{
+			DBClosingManager.closeAndContinue(rs);
+			DBClosingManager.closeAndContinue(statement);
+		}
+	}
+
+	private boolean forEach(Connection connection, Object[] values, RowHandler<? super T> handler) throws SomethingJustWrong
+	{
+		checkAnnotated();
+		if (aggregate)
+			throw new SomethingJustWrong("Class " + clazz.getName() + " has @EasyCollection properties; use executeAsList!");
+
+		String sql = parsed.getSql();
+		PreparedStatement statement = null;
+		ResultSet rs = null;
+		MapResultSet<T> mapper = null;
+		try
+		{
+			statement = connection.prepareStatement(sql);
+			bind(statement, values);
+			rs = executeQuery(statement, sql, null);
+			mapper = new MapResultSet<T>(clazz, annotations, rs);
+			boolean stopped = mapper.forEach(handler);
+			if (stopped)
+				DBClosingManager.cancelAndContinue(statement);
+			return stopped;
+		}
+		catch (AnalysisBroke ab)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error analyzing!", ab);
+			throw new SomethingJustWrong(ab);
+		}
+		catch (SomethingJustWrong sjw)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error executing or reading query: " + (mapper == null ? "" : mapper.getLastFieldName()), sjw);
+			throw sjw;
+		}
+		catch (Exception e)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error executing or reading query: " + (mapper == null ? "" : mapper.getLastFieldName()), e);
+			throw new SomethingJustWrong(e);
+		}
+		finally
+		{
+			DBClosingManager.closeAndContinue(rs);
+			DBClosingManager.closeAndContinue(statement);
+		}
+	}
+
+	private T scalar(Connection connection, Object[] values) throws SomethingJustWrong, EasyStatementNoSingleObject
+	{
+		PreparedStatement statement = null;
+		ResultSet rs = null;
+		try
+		{
+			statement = connection.prepareStatement(parsed.getSql());
+			bind(statement, values);
+			rs = statement.executeQuery();
+			return new MapScalar<T>(clazz, rs).map();
+		}
+		catch (SQLException se)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error executing scalar query!", se);
+			throw new SomethingJustWrong(se);
+		}
+		finally
+		{
+			DBClosingManager.closeAndContinue(rs);
+			DBClosingManager.closeAndContinue(statement);
+		}
+	}
+
+	private void checkAnnotated() throws SomethingJustWrong
+	{
+		if (annotations == null)
+			throw new SomethingJustWrong("Class " + clazz.getName() + " must be @EasyRow annotatated!");
+	}
+
+	/**
+	 * Query execution with the fetch size policy.
+	 */
+	private ResultSet executeQuery(PreparedStatement statement, String sql, Integer maxRows) throws SQLException
+	{
+		FetchSizePolicy policy = fetchSize != null ? fetchSize : FetchSizePolicy.getDefault();
+		policy.beforeExecute(statement, sql, maxRows);
+		ResultSet rs = statement.executeQuery();
+		policy.afterExecute(rs, sql, maxRows);
+		return rs;
+	}
+
+	private void bind(PreparedStatement statement, Object[] values) throws SQLException
+	{
+		for (int i = 0; i < slots.length; i++)
+		{
+			if (values[i] instanceof Parameter)
+			{
+				Parameter p = (Parameter) values[i];
+				Object v = p.getValueForBind();
+				ParameterBinder binder = p.getBinder();
+				for (int idx : slots[i])
+					binder.bind(statement, idx, v);
+				continue;
+			}
+			Object v = TypeConverters.toDatabase(values[i]);
+			for (int idx : slots[i])
+				statement.setObject(idx, v);
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "EasyQuery [class=" + clazz.getName() + ", parameters=" + Arrays.toString(names) + ", command=" + command + "]";
+	}
+
+}
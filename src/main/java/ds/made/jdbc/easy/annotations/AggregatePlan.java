@@ -0,0 +1,245 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import ds.made.jdbc.easy.model.EasyColumnFieldData;
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+import ds.made.jdbc.easy.utility.BoundedCache;
+import ds.made.jdbc.easy.utility.TypeConverter;
+import ds.made.jdbc.easy.utility.TypeConverters;
+
+/**
+Mapping of a joined result set (parent JOIN child ...) to a class with {@link EasyCollection} properties.<br/>
+One {@link Level} per class: its {@link MappingPlan}, the key column and the collections of child levels.
+Plans are immutable and cached by class and result set column signature.
+For internal usage.
+@author ds
+ */
+final class AggregatePlan
+{
+
+	private static final BoundedCache<MappingPlanKey, AggregatePlan> CACHE = new BoundedCache<MappingPlanKey, AggregatePlan>(MappingPlanCache.DEFAULT_MAX_SIZE);
+
+	final Level root;
+	/** Number of levels; {@link Level#id} is 0 .. levels - 1 */
+	final int levels;
+
+	private AggregatePlan(Level root, int levels)
+	{
+		this.root = root;
+		this.levels = levels;
+	}
+
+	/**
+	 * One class of the aggregation.
+	 */
+	static final class Level
+	{
+		final int id;
+		final MappingPlan plan;
+		/** Key column (one based) */
+		final int keyIndex;
+		final String keyName;
+		/** Key read with getLong (integral key property) */
+		final boolean longKey;
+		/** Key reader when not longKey */
+		final ColumnReader keyReader;
+		final Child[] children;
+
+		Level(int id, MappingPlan plan, int keyIndex, String keyName, boolean longKey, ColumnReader keyReader, Child[] children)
+		{
+			this.id = id;
+			this.plan = plan;
+			this.keyIndex = keyIndex;
+			this.keyName = keyName;
+			this.longKey = longKey;
+			this.keyReader = keyReader;
+			this.children = children;
+		}
+	}
+
+	/**
+	 * Collection property of a level.
+	 */
+	static final class Child
+	{
+		final String propertyName;
+		final PropertyGetter getter;
+		/** null when the collection cannot be replaced (must not be null then) */
+		final PropertySetter setter;
+		/** Set property: new collections are LinkedHashSets, otherwise ArrayLists */
+		final boolean set;
+		final Level level;
+
+		Child(String propertyName, PropertyGetter getter, PropertySetter setter, boolean set, Level level)
+		{
+			this.propertyName = propertyName;
+			this.getter = getter;
+			this.setter = setter;
+			this.set = set;
+			this.level = level;
+		}
+	}
+
+	/** {@link EasyCollection} fields of each class, superclasses included */
+	private static final ClassValue<Field[]> COLLECTIONS = new ClassValue<Field[]>()
+	{
+		@Override
+		protected Field[] computeValue(Class<?> type)
+		{
+			List<Field> fields = new ArrayList<Field>();
+			for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass())
+			{
+				for (Field f : c.getDeclaredFields())
+				{
+					if (f.isAnnotationPresent(EasyCollection.class))
+						fields.add(f);
+				}
+			}
+			return fields.toArray(new Field[fields.size()]);
+		}
+	};
+
+	/**
+	 * @param clazz class with {@link EasyCollection} properties
+	 * @return true when the class or a superclass (not its children) has collection properties
+	 */
+	static boolean hasCollections(Class<?> clazz)
+	{
+		return COLLECTIONS.get(clazz).length > 0;
+	}
+
+	static AggregatePlan get(MappingPlanKey key, Class<?> clazz) throws IntrospectionException, SomethingJustWrong
+	{
+		AggregatePlan p = CACHE.get(key);
+		if (p == null)
+		{
+			int[] ids = new int[1];
+			Level root = level(clazz, key.getColumnNames(), key.getColumnTypes(), ids, new HashSet<Class<?>>());
+			p = new AggregatePlan(root, ids[0]);
+			CACHE.put(key, p);
+		}
+		return p;
+	}
+
+	static void clear()
+	{
+		CACHE.clear();
+	}
+
+	private static Level level(Class<?> clazz, String[] columnNames, int[] columnTypes, int[] ids, Set<Class<?>> path) throws IntrospectionException, SomethingJustWrong
+	{
+		if (!path.add(clazz))
+			throw new SomethingJustWrong("Class " + clazz.getName() + " is its own @EasyCollection element!");
+
+		EasyColumnFieldData[] properties = new MapEasyAnnotations(clazz).propertiesList();
+		EasyColumnFieldData key = null;
+		for (EasyColumnFieldData f : properties)
+		{
+			if (f.column.key())
+			{
+				key = f;
+				break;
+			}
+		}
+		if (key == null)
+			throw new SomethingJustWrong("Class " + clazz.getName() + " needs an @EasyColumn(key=true) column!");
+
+		int keyIndex = 0;
+		for (int idx = 1; idx <= columnNames.length; idx++)
+		{
+			if (key.column.name().equalsIgnoreCase(columnNames[idx - 1]))
+			{
+				keyIndex = idx;
+				break;
+			}
+		}
+		if (keyIndex == 0)
+			throw new SomethingJustWrong("Key column " + key.column.name() + " of " + clazz.getName() + " not in the result set!");
+
+		int id = ids[0]++;
+		MappingPlan plan = MappingPlan.forAnnotated(clazz, properties, columnNames);
+		if (plan.constructor == null && plan.factory == null)
+			throw new SomethingJustWrong("Class " + clazz.getName() + " needs a no argument or an annotated constructor!");
+
+		TypeConverter<?> keyConverter = MappingPlan.converter(key.column);
+		if (keyConverter == null)
+			keyConverter = TypeConverters.find(key.propertyType);
+		boolean longKey = keyConverter == null && integral(key.propertyType);
+		ColumnReader keyReader = longKey ? null : keyConverter != null ? ColumnReaders.converted(keyConverter) : ColumnReaders.forType(key.propertyType, key.propertyName, key.isEnum,
+				key.column.enumFactoryClass(), key.column.staticEnumMethod(), key.column.enumCode(), key.column.blob(), key.column.clob());
+
+		List<Child> children = new ArrayList<Child>();
+		EasyRow row = clazz.getAnnotation(EasyRow.class);
+		boolean fieldAccess = row != null && row.fieldAccess();
+		for (Field f : COLLECTIONS.get(clazz))
+		{
+			EasyCollection c = f.getAnnotation(EasyCollection.class);
+
+			if (!Collection.class.isAssignableFrom(f.getType()))
+				throw new SomethingJustWrong("@EasyCollection " + clazz.getName() + "." + f.getName() + " must be a List, Set or Collection!");
+			Class<?> element = c.value() != void.class ? c.value() : element(f);
+			if (element == null)
+				throw new SomethingJustWrong("Element class of @EasyCollection " + clazz.getName() + "." + f.getName() + " unknown!");
+
+			PropertyGetter getter;
+			PropertySetter setter;
+			if (fieldAccess)
+			{
+				getter = PropertyAccessors.fieldGetter(f, MappingPlanCache.getSetterBackend());
+				setter = PropertyAccessors.fieldSetter(f, MappingPlanCache.getSetterBackend());
+			}
+			else
+			{
+				PropertyDescriptor pd = descriptor(clazz, f.getName());
+				if (pd == null || pd.getReadMethod() == null)
+					throw new SomethingJustWrong("Get method for " + f.getName() + " not present!");
+				getter = PropertyAccessors.getter(pd.getReadMethod(), MappingPlanCache.getSetterBackend());
+				setter = pd.getWriteMethod() == null ? null : PropertyAccessors.setter(pd.getWriteMethod(), MappingPlanCache.getSetterBackend());
+			}
+			children.add(new Child(f.getName(), getter, setter, Set.class.isAssignableFrom(f.getType()),
+					level(element, columnNames, columnTypes, ids, path)));
+		}
+
+		path.remove(clazz);
+		return new Level(id, plan, keyIndex, key.column.name(), longKey, keyReader, children.toArray(new Child[children.size()]));
+	}
+
+	private static boolean integral(Class<?> type)
+	{
+		return type == long.class || type == Long.class || type == int.class || type == Integer.class || type == short.class || type == Short.class;
+	}
+
+	private static Class<?> element(Field f)
+	{
+		Type t = f.getGenericType();
+		if (t instanceof ParameterizedType)
+		{
+			Type[] args = ((ParameterizedType) t).getActualTypeArguments();
+			if (args.length == 1 && args[0] instanceof Class)
+				return (Class<?>) args[0];
+		}
+		return null;
+	}
+
+	private static PropertyDescriptor descriptor(Class<?> clazz, String name) throws IntrospectionException
+	{
+		for (PropertyDescriptor pd : Introspector.getBeanInfo(clazz).getPropertyDescriptors())
+		{
+			if (pd.getName().equals(name))
+				return pd;
+		}
+		return null;
+	}
+
+}
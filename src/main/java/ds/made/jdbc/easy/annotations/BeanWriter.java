@@ -0,0 +1,263 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import ds.made.jdbc.easy.model.EasyColumnFieldData;
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+import ds.made.jdbc.easy.utility.BoundedCache;
+import ds.made.jdbc.easy.utility.DateUtils;
+import ds.made.jdbc.easy.utility.TypeConverter;
+import ds.made.jdbc.easy.utility.TypeConverters;
+
+/**
+Reverse mapping: database values of the {@link EasyColumn} properties of a bean, for insert / update.<br/>
+Getters, enum code tables and converters are resolved once per class (again after {@link MappingPlanCache#clear()}); the same annotations read and write.
+Enum properties need an enumCode (or a converter); a static factory cannot be reversed.
+For internal usage.
+@author ds
+ */
+public final class BeanWriter
+{
+
+	/** Writers by class; dropped with the mapping plans ({@link MappingPlanCache#clear()}, converter registration) */
+	private static final BoundedCache<Class<?>, BeanWriter> CACHE = new BoundedCache<Class<?>, BeanWriter>(MappingPlanCache.DEFAULT_MAX_SIZE);
+
+	private final Class<?> clazz;
+	private final String[] columns;
+	private final PropertyGetter[] getters;
+	private final ValueWriter[] writers;
+	private final int[] sqlTypes;
+
+	private BeanWriter(Class<?> clazz) throws SomethingJustWrong, IntrospectionException
+	{
+		if (!clazz.isAnnotationPresent(EasyRow.class))
+			throw new SomethingJustWrong("Class " + clazz.getName() + " must be @EasyRow annotatated!");
+		EasyColumnFieldData[] properties = new MapEasyAnnotations(clazz).propertiesList();
+		if (properties.length <= 0)
+			throw new SomethingJustWrong("Class " + clazz.getName() + " must have @EasyColumn properties!");
+
+		EasyRow row = clazz.getAnnotation(EasyRow.class);
+		boolean fieldAccess = row.fieldAccess();
+		this.clazz = clazz;
+		this.columns = new String[properties.length];
+		this.getters = new PropertyGetter[properties.length];
+		this.writers = new ValueWriter[properties.length];
+		this.sqlTypes = new int[properties.length];
+		for (int i = 0; i < properties.length; i++)
+		{
+			EasyColumnFieldData p = properties[i];
+			columns[i] = p.column.name();
+			getters[i] = getter(clazz, p, fieldAccess);
+			writers[i] = writer(p);
+			sqlTypes[i] = sqlType(p);
+		}
+	}
+
+	/**
+	 * @param clazz {@link EasyRow} class
+	 * @return writer (shared)
+	 * @throws SomethingJustWrong when the class cannot be written
+	 */
+	public static BeanWriter of(Class<?> clazz) throws SomethingJustWrong
+	{
+		BeanWriter w = CACHE.get(clazz);
+		if (w == null)
+		{
+			try
+			{
+				w = CACHE.putIfAbsent(clazz, new BeanWriter(clazz));
+			}
+			catch (IntrospectionException e)
+			{
+				throw new SomethingJustWrong(e);
+			}
+		}
+		return w;
+	}
+
+	static void clear()
+	{
+		CACHE.clear();
+	}
+
+	/**
+	 * @return column names (annotation order; do not change)
+	 */
+	public String[] getColumns()
+	{
+		return columns;
+	}
+
+	/**
+	 * @param column column name (case insensitive)
+	 * @return index or -1
+	 */
+	public int indexOf(String column)
+	{
+		for (int i = 0; i < columns.length; i++)
+		{
+			if (columns[i].equalsIgnoreCase(column))
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return SQL type of each column (for setNull)
+	 */
+	public int[] getSqlTypes()
+	{
+		return sqlTypes;
+	}
+
+	/**
+	 * @param bean instance
+	 * @param column column index
+	 * @return database value of the column
+	 * @throws SomethingJustWrong
+	 */
+	public Object value(Object bean, int column) throws SomethingJustWrong
+	{
+		try
+		{
+			return writers[column].write(getters[column].get(bean));
+		}
+		catch (SomethingJustWrong sjw)
+		{
+			throw sjw;
+		}
+		catch (IllegalAccessException | InvocationTargetException | SQLException e)
+		{
+			throw new SomethingJustWrong("Critical error reading " + clazz.getName() + "." + columns[column] + "!", e);
+		}
+	}
+
+	/**
+	 * Java value to database value.
+	 */
+	private interface ValueWriter
+	{
+		Object write(Object value) throws SQLException, SomethingJustWrong;
+	}
+
+	private static final ValueWriter PLAIN = value -> value;
+
+	private static final ValueWriter DATES = value ->
+	{
+		if (value instanceof LocalDate)
+			return DateUtils.toSQLDate((LocalDate) value);
+		if (value instanceof LocalDateTime)
+			return DateUtils.toSQLDate((LocalDateTime) value);
+		if (value instanceof java.util.Date && !(value instanceof java.sql.Date) && !(value instanceof java.sql.Timestamp))
+			return DateUtils.toSQLDate((java.util.Date) value);
+		return value;
+	};
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static ValueWriter writer(EasyColumnFieldData p) throws SomethingJustWrong
+	{
+		final TypeConverter converter = p.column.converter() != void.class ? TypeConverters.instance(p.column.converter()) : TypeConverters.find(p.propertyType);
+		if (converter != null)
+			return value -> value == null ? null : converter.write(value);
+
+		if (p.isEnum || p.propertyType.isEnum())
+		{
+			String enumCode = p.column.enumCode();
+			if (enumCode == null || enumCode.trim().isEmpty())
+				throw new SomethingJustWrong("Enum " + p.propertyName + " needs enumCode (or a converter) to be written!");
+			final EnumCodeTable table = new EnumCodeTable(p.propertyType, enumCode);
+			return value ->
+			{
+				if (value == null)
+					return null;
+				String code = table.code(value);
+				if (code == null)
+					throw new SomethingJustWrong("No code for " + value + " in " + table.describe() + "!");
+				return code;
+			};
+		}
+
+		Class<?> t = p.propertyType;
+		if (t == LocalDate.class || t == LocalDateTime.class || t == java.util.Date.class)
+			return DATES;
+		return PLAIN;
+	}
+
+	private static int sqlType(EasyColumnFieldData p)
+	{
+		Class<?> t = p.propertyType;
+		if (p.column.blob() || t == byte[].class)
+			return Types.BLOB;
+		if (p.column.clob())
+			return Types.CLOB;
+		if (t == BigDecimal.class || t == BigInteger.class || t == Integer.class || t == Long.class || t == Short.class || t == Double.class
+				|| t == int.class || t == long.class || t == short.class || t == double.class)
+			return Types.NUMERIC;
+		if (t == LocalDate.class || t == LocalDateTime.class || t == java.util.Date.class || t == java.sql.Timestamp.class)
+			return Types.TIMESTAMP;
+		if (t == java.sql.Date.class)
+			return Types.DATE;
+		if (t == Boolean.class || t == boolean.class)
+			return Types.BOOLEAN;
+		return Types.VARCHAR;
+	}
+
+	/**
+	 * Field access, bean getter, record accessor, then the field itself.
+	 */
+	private static PropertyGetter getter(Class<?> clazz, EasyColumnFieldData p, boolean fieldAccess) throws IntrospectionException, SomethingJustWrong
+	{
+		Field field = p.field != null ? p.field : field(clazz, p.propertyName);
+		if (!fieldAccess)
+		{
+			for (PropertyDescriptor pd : Introspector.getBeanInfo(clazz).getPropertyDescriptors())
+			{
+				if (pd.getName().equals(p.propertyName) && pd.getReadMethod() != null)
+					return PropertyAccessors.getter(pd.getReadMethod(), MappingPlanCache.getSetterBackend());
+			}
+			if (p.constructor != null)
+			{
+				try
+				{
+					Method accessor = clazz.getMethod(p.propertyName);
+					return PropertyAccessors.getter(accessor, MappingPlanCache.getSetterBackend());
+				}
+				catch (NoSuchMethodException e)
+				{
+					// field below
+				}
+			}
+		}
+		if (field == null)
+			throw new SomethingJustWrong("Get method for " + p.propertyName + " not present!");
+		return PropertyAccessors.fieldGetter(field, MappingPlanCache.getSetterBackend());
+	}
+
+	private static Field field(Class<?> clazz, String name)
+	{
+		for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass())
+		{
+			try
+			{
+				return c.getDeclaredField(name);
+			}
+			catch (NoSuchFieldException e)
+			{
+				// superclass
+			}
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,20 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+Reads one column of the current row and writes it to the bean in one step, without boxing (primitive properties).
+Built once per column (see {@link PrimitiveColumns}) and called for every row.
+For internal usage.
+@author ds
+ */
+interface ColumnAssigner
+{
+
+	void assign(ResultSet rs, int index, Object bean) throws SQLException, IllegalAccessException, InvocationTargetException, SomethingJustWrong;
+
+}
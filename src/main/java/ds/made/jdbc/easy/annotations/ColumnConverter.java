@@ -0,0 +1,19 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+Second half of a {@link ColumnReader} for costly conversions (CLOB / BLOB content, enum lookup):
+converts the raw JDBC value after it was fetched. Parallel mapping fetches on one thread and converts on worker threads.
+For internal usage.
+@author ds
+ */
+interface ColumnConverter
+{
+
+	Object convert(Object raw) throws SQLException, IOException, SomethingJustWrong;
+
+}
@@ -0,0 +1,78 @@
+package ds.made.jdbc.easy.annotations;
+
+import ds.made.jdbc.easy.utility.TypeConverter;
+import ds.made.jdbc.easy.utility.TypeConverters;
+
+/**
+One result set column bound to one class property. Part of a {@link MappingPlan}.
+For internal usage.
+@author ds
+ */
+final class ColumnMapping
+{
+
+	/** JDBC (one based) column index */
+	final int index;
+	/** Column name as defined by annotation / field definition */
+	final String columnName;
+	final String propertyName;
+	/** Compiled write access (setter of the root class / nested bean or the field itself); null when not writable */
+	final PropertySetter setter;
+	/** Setter parameter / field / constructor parameter type; null when the property cannot be written */
+	final Class<?> propertyType;
+	/** Typed reader for propertyType; null when propertyType is null */
+	final ColumnReader reader;
+	/** Costly part of the reader (LOB content, enum lookup) for parallel mapping; null when the reader value is final */
+	final ColumnConverter converter;
+	/** JDBC access of the reader when converter is set (the raw value for converter); null otherwise */
+	final ColumnReader fetcher;
+	/** Primitive property: read and write without boxing; null otherwise (reader and setter are used) */
+	final ColumnAssigner assigner;
+	final boolean isEnum;
+	final Class<?> enumFactoryClass;
+	final String staticEnumMethod;
+	final String enumCode;
+	final boolean blob;
+	final boolean clob;
+	/** Bean the property belongs to: 0 = mapped object, otherwise slot of a {@link NestedNode}; argument index for constructor arguments */
+	final int targetSlot;
+
+	ColumnMapping(int index, String columnName, String propertyName, Class<?> propertyType, PropertySetter setter, boolean isEnum, Class<?> enumFactoryClass,
+			String staticEnumMethod, String enumCode, boolean blob, boolean clob, int targetSlot, ColumnAssigner assigner)
+	{
+		this(index, columnName, propertyName, propertyType, setter, isEnum, enumFactoryClass, staticEnumMethod, enumCode, blob, clob, targetSlot, assigner, null);
+	}
+
+	/**
+	 * @param typeConverter column converter ({@link EasyColumn#converter()}); null = registered converter of the property type or built-in reader
+	 */
+	ColumnMapping(int index, String columnName, String propertyName, Class<?> propertyType, PropertySetter setter, boolean isEnum, Class<?> enumFactoryClass,
+			String staticEnumMethod, String enumCode, boolean blob, boolean clob, int targetSlot, ColumnAssigner assigner, TypeConverter<?> typeConverter)
+	{
+		TypeConverter<?> tc = typeConverter != null ? typeConverter : TypeConverters.find(propertyType);
+		this.index = index;
+		this.columnName = columnName;
+		this.propertyName = propertyName;
+		this.setter = setter;
+		this.propertyType = propertyType;
+		this.converter = propertyType == null || tc != null ? null : ColumnReaders.converter(propertyType, isEnum, enumFactoryClass, staticEnumMethod, enumCode, blob, clob);
+		this.fetcher = converter == null ? null : ColumnReaders.raw(propertyType, isEnum, clob);
+		if (propertyType == null)
+			this.reader = null;
+		else if (tc != null)
+			this.reader = ColumnReaders.converted(tc);
+		else if (converter != null)
+			this.reader = ColumnReaders.read(fetcher, converter);
+		else
+			this.reader = ColumnReaders.forType(propertyType, propertyName, isEnum, enumFactoryClass, staticEnumMethod, enumCode, blob, clob);
+		this.isEnum = isEnum;
+		this.enumFactoryClass = enumFactoryClass;
+		this.staticEnumMethod = staticEnumMethod;
+		this.enumCode = enumCode;
+		this.blob = blob;
+		this.clob = clob;
+		this.targetSlot = targetSlot;
+		this.assigner = tc != null ? null : assigner;
+	}
+
+}
@@ -0,0 +1,22 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+Reads one column of the current row by (one based) index and converts it to the property type.
+Chosen once per column (see {@link ColumnReaders}) and called for every row.
+For internal usage.
+@author ds
+ */
+interface ColumnReader
+{
+
+	Object read(ResultSet rs, int index) throws SQLException, IOException, DatatypeConfigurationException, SomethingJustWrong;
+
+}
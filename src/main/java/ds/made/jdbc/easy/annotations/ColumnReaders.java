@@ -0,0 +1,242 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+import ds.made.jdbc.easy.utility.DBHelper;
+import ds.made.jdbc.easy.utility.Lobs;
+import ds.made.jdbc.easy.utility.TypeConverter;
+
+/**
+Typed, index based {@link ColumnReader}s. The reader is selected once per column when the plan is built,
+so the row loop does not test the property type for every cell.
+For internal usage.
+@author ds
+ */
+final class ColumnReaders
+{
+
+	private static final MethodType ENUM_FACTORY_TYPE = MethodType.methodType(Object.class, String.class);
+
+	static final ColumnReader STRING = (rs, idx) -> DBHelper.toString(idx, rs);
+	static final ColumnReader CLOB = (rs, idx) -> Lobs.convertClobToString(rs.getClob(idx));
+	static final ColumnReader BLOB = (rs, idx) -> Lobs.convertBlobToArray(rs.getBlob(idx));
+	static final ColumnReader RAW_CLOB = (rs, idx) -> rs.getClob(idx);
+	static final ColumnReader RAW_BLOB = (rs, idx) -> rs.getBlob(idx);
+	static final ColumnConverter CLOB_CONTENT = raw -> Lobs.convertClobToString((java.sql.Clob) raw);
+	static final ColumnConverter BLOB_CONTENT = raw -> Lobs.convertBlobToArray((java.sql.Blob) raw);
+	static final ColumnReader LOCAL_DATE = (rs, idx) -> DBHelper.toLocalDate(idx, rs);
+	static final ColumnReader LOCAL_DATE_TIME = (rs, idx) -> DBHelper.toLocalDateTime(idx, rs);
+	static final ColumnReader DATE = (rs, idx) -> DBHelper.toDate(idx, rs);
+	static final ColumnReader SQL_DATE = (rs, idx) -> rs.getDate(idx);
+	static final ColumnReader TIMESTAMP = (rs, idx) -> rs.getTimestamp(idx);
+	static final ColumnReader XML_CALENDAR = (rs, idx) -> DBHelper.toXMLGregorianCalendar(idx, rs);
+	static final ColumnReader BIG_DECIMAL = (rs, idx) -> DBHelper.toBigDecimal(idx, rs);
+	static final ColumnReader BIG_INTEGER = (rs, idx) -> DBHelper.toBigInteger(idx, rs);
+	static final ColumnReader INTEGER = (rs, idx) -> DBHelper.toInteger(idx, rs);
+	static final ColumnReader LONG = (rs, idx) -> DBHelper.toLong(idx, rs);
+	static final ColumnReader SHORT = (rs, idx) -> DBHelper.toShort(idx, rs);
+	static final ColumnReader DOUBLE = (rs, idx) -> DBHelper.toDouble(idx, rs);
+	static final ColumnReader BOOLEAN = (rs, idx) -> DBHelper.toBoolean(idx, rs);
+
+	private ColumnReaders()
+	{
+	}
+
+	/**
+	 * Reader for a property type. Same precedence as always: known Java types, primitives, then enum factory, then BLOB.
+	 * @param cParameter property (setter parameter) type
+	 * @param propertyName property name (for messages)
+	 * @param isEnum enum factory mapping
+	 * @param enumFactoryClass class with the static factory method
+	 * @param staticEnumMethod static factory method name
+	 * @param enumCode enum code accessor for the code lookup table
+	 * @param isBlob BLOB column
+	 * @param isClob CLOB column
+	 * @return reader; for unknown types a reader that fails when used
+	 */
+	static ColumnReader forType(Class<?> cParameter, String propertyName, boolean isEnum, Class<?> enumFactoryClass, String staticEnumMethod, String enumCode, boolean isBlob, boolean isClob)
+	{
+		if (cParameter.equals(String.class) && isClob)
+			return CLOB;
+
+		ColumnReader known = known(cParameter, propertyName);
+		if (known != null)
+			return known;
+		else if (isEnum)
+			return read(STRING, enumeration(cParameter, enumFactoryClass, staticEnumMethod, enumCode));
+		else if (isBlob)
+			return BLOB;
+		else
+			return unknown(cParameter);
+	}
+
+	/**
+	 * Split reader for parallel mapping: only the JDBC access ({@link #raw}) runs on the fetching thread,
+	 * the converter runs on a worker. Same precedence as {@link #forType}.
+	 * @return converter or null when the {@link #forType} value is cheap and final (nothing to defer)
+	 */
+	static ColumnConverter converter(Class<?> cParameter, boolean isEnum, Class<?> enumFactoryClass, String staticEnumMethod, String enumCode, boolean isBlob, boolean isClob)
+	{
+		if (cParameter.equals(String.class) && isClob)
+			return CLOB_CONTENT;
+		else if (known(cParameter, null) != null)
+			return null;
+		else if (isEnum)
+			return enumeration(cParameter, enumFactoryClass, staticEnumMethod, enumCode);
+		else if (isBlob)
+			return BLOB_CONTENT;
+		else
+			return null;
+	}
+
+	/**
+	 * @return JDBC access (Clob, Blob, String code) for a column with a {@link #converter}
+	 */
+	static ColumnReader raw(Class<?> cParameter, boolean isEnum, boolean isClob)
+	{
+		if (cParameter.equals(String.class) && isClob)
+			return RAW_CLOB;
+		else if (isEnum)
+			return STRING;
+		else
+			return RAW_BLOB;
+	}
+
+	/**
+	 * @return reader of a {@link TypeConverter}
+	 */
+	static ColumnReader converted(final TypeConverter<?> converter)
+	{
+		return (rs, idx) -> converter.read(rs, idx);
+	}
+
+	/**
+	 * @return reader of fetch + convert in one step
+	 */
+	static ColumnReader read(final ColumnReader raw, final ColumnConverter converter)
+	{
+		return (rs, idx) -> converter.convert(raw.read(rs, idx));
+	}
+
+	/**
+	 * @return reader for known Java types and primitives; null otherwise
+	 */
+	private static ColumnReader known(Class<?> cParameter, String propertyName)
+	{
+		if (cParameter.equals(String.class))
+			return STRING;
+		else if (cParameter.equals(LocalDate.class))
+			return LOCAL_DATE;
+		else if (cParameter.equals(LocalDateTime.class))
+			return LOCAL_DATE_TIME;
+		else if (cParameter.equals(java.util.Date.class))
+			return DATE;
+		else if (cParameter.equals(java.sql.Date.class))
+			return SQL_DATE;
+		else if (cParameter.equals(java.sql.Timestamp.class))
+			return TIMESTAMP;
+		else if (cParameter.equals(javax.xml.datatype.XMLGregorianCalendar.class))
+			return XML_CALENDAR;
+		else if (cParameter.equals(BigDecimal.class))
+			return BIG_DECIMAL;
+		else if (cParameter.equals(BigInteger.class))
+			return BIG_INTEGER;
+		else if (cParameter.equals(Integer.class))
+			return INTEGER;
+		else if (cParameter.equals(Long.class))
+			return LONG;
+		else if (cParameter.equals(Short.class))
+			return SHORT;
+		else if (cParameter.equals(Double.class))
+			return DOUBLE;
+		else if (cParameter.equals(Boolean.class))
+			return BOOLEAN;
+		else if (PrimitiveColumns.supported(cParameter))
+			return PrimitiveColumns.reader(cParameter, propertyName);
+		else
+			return null;
+	}
+
+	/**
+	 * Enum converter (String code): code lookup table (when enumCode is set) and / or the static factory, resolved once.
+	 */
+	private static ColumnConverter enumeration(Class<?> enumClass, Class<?> enumFactoryClass, String staticEnumMethod, String enumCode)
+	{
+		final MethodHandle factory = hasText(staticEnumMethod) ? enumFactory(enumFactoryClass, staticEnumMethod) : null;
+		if (!hasText(enumCode))
+			return raw -> invokeFactory(factory, enumFactoryClass, staticEnumMethod, (String) raw);
+
+		final EnumCodeTable table = new EnumCodeTable(enumClass, enumCode);
+		return raw ->
+		{
+			String v = (String) raw;
+			if (v == null)
+				return null;
+			Object o = table.lookup(v);
+			if (o != null)
+				return o;
+			if (factory != null)
+				return invokeFactory(factory, enumFactoryClass, staticEnumMethod, v);
+			throw new SomethingJustWrong("Unknown code " + v + " for " + table.describe() + "!");
+		};
+	}
+
+	/**
+	 * @return factory handle (String) -> Object or null when the method is not present (reported when used)
+	 */
+	private static MethodHandle enumFactory(Class<?> enumFactoryClass, String staticEnumMethod)
+	{
+		try
+		{
+			Method method = enumFactoryClass.getMethod(staticEnumMethod, String.class);
+			if (!method.isAccessible())
+				method.setAccessible(true);
+			return MethodHandles.lookup().unreflect(method).asType(ENUM_FACTORY_TYPE);
+		}
+		catch (ReflectiveOperationException | RuntimeException e)
+		{
+			return null;
+		}
+	}
+
+	private static Object invokeFactory(MethodHandle factory, Class<?> enumFactoryClass, String staticEnumMethod, String code) throws SomethingJustWrong
+	{
+		if (factory == null)
+			throw new SomethingJustWrong("Enum factory " + enumFactoryClass.getName() + "." + staticEnumMethod + "(String) not present!");
+
+		try
+		{
+			return (Object) factory.invokeExact(code);
+		}
+		catch (RuntimeException | Error e)
+		{
+			throw e;
+		}
+		catch (Throwable e)
+		{
+			throw new SomethingJustWrong("Enum factory " + enumFactoryClass.getName() + "." + staticEnumMethod + " failed!", e);
+		}
+	}
+
+	private static boolean hasText(String s)
+	{
+		return s != null && !s.trim().isEmpty();
+	}
+
+	private static ColumnReader unknown(final Class<?> cParameter)
+	{
+		return (rs, idx) ->
+		{
+			throw new SomethingJustWrong("What is this type " + cParameter.getName() + " ?");
+		};
+	}
+
+}
@@ -0,0 +1,24 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation means this field (List, Set or Collection) holds the child rows of a joined result set (parent JOIN child).<br/>
+ * The element class is an {@link EasyRow} class with its own {@link EasyColumn} columns; both classes mark their identity column
+ * with {@link EasyColumn#key()}. Each parent is created once and its children are added as the rows come.
+ * Rows without a child key (outer join) add no child.
+ * @author ds
+ *
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface EasyCollection
+{
+	/**
+	 * Element class; taken from the generic field type when not set.
+	 */
+	Class<?> value() default void.class;
+}
@@ -6,17 +6,34 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * Annotation means this field is equivalent to a database row field (from a rowset).
+ * Annotation means this field is equivalent to a database row field (from a rowset).<br/>
+ * On constructor parameters (record components included): when all parameters of a constructor are annotated,
+ * rows are created through that constructor and annotated fields are not used.
  * @author ds
  *
  */
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.FIELD)
+@Target({ ElementType.FIELD, ElementType.PARAMETER })
 public @interface EasyColumn
 {
 	String name();
 	Class<?> enumFactoryClass() default Object.class;
 	String staticEnumMethod() default "";
+	/**
+	 * Enum method (no arguments) or field that holds the database code of each constant.
+	 * Codes are mapped through a lookup table built once; unknown codes go to staticEnumMethod when it is set.
+	 */
+	String enumCode() default "";
 	boolean blob() default false;
 	boolean clob() default false;
+	/**
+	 * Identity column of the class (primary key). Required on every class of an {@link EasyCollection} aggregation:
+	 * rows with the same key are mapped to the same instance.
+	 */
+	boolean key() default false;
+	/**
+	 * {@link ds.made.jdbc.easy.utility.TypeConverter} class (public, no argument constructor) that reads this column.
+	 * Wins over the registered converter of the property type and the built-in conversion.
+	 */
+	Class<?> converter() default void.class;
 }
@@ -14,4 +14,9 @@ import java.lang.annotation.Target;
 @Target(ElementType.TYPE)
 public @interface EasyRow
 {
+	/**
+	 * Write {@link EasyColumn} fields directly (private fields included) instead of calling setters.
+	 * Setters are then neither required nor called.
+	 */
+	boolean fieldAccess() default false;
 }
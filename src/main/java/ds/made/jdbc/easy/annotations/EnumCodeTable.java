@@ -0,0 +1,117 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+Immutable database code to enum constant table.<br/>
+The code of each constant is read from an enum method (no arguments) or field named by {@link EasyColumn#enumCode()}.
+The table is built on first use and then shared; mapping a code (or a constant back to its code) costs a single hash lookup.
+For internal usage.
+@author ds
+ */
+final class EnumCodeTable
+{
+
+	private final Class<?> enumClass;
+	private final String codeAccessor;
+	private volatile Map<String, Object> table;
+	private volatile Map<Object, String> codes;
+
+	EnumCodeTable(Class<?> enumClass, String codeAccessor)
+	{
+		this.enumClass = enumClass;
+		this.codeAccessor = codeAccessor;
+	}
+
+	/**
+	 * @param code database code
+	 * @return enum constant or null when the code is unknown
+	 * @throws SomethingJustWrong when the table cannot be built
+	 */
+	Object lookup(String code) throws SomethingJustWrong
+	{
+		Map<String, Object> t = table;
+		if (t == null)
+		{
+			// Building twice in a race is harmless; the result is the same.
+			t = build();
+			table = t;
+		}
+		return t.get(code);
+	}
+
+	/**
+	 * @param constant enum constant
+	 * @return database code of the constant (reverse lookup for writing)
+	 * @throws SomethingJustWrong when the table cannot be built
+	 */
+	String code(Object constant) throws SomethingJustWrong
+	{
+		Map<Object, String> c = codes;
+		if (c == null)
+		{
+			Map<String, Object> t = table;
+			if (t == null)
+			{
+				t = build();
+				table = t;
+			}
+			Map<Object, String> reverse = new IdentityHashMap<Object, String>();
+			for (Map.Entry<String, Object> e : t.entrySet())
+				reverse.put(e.getValue(), e.getKey());
+			c = Collections.unmodifiableMap(reverse);
+			codes = c;
+		}
+		return c.get(constant);
+	}
+
+	String describe()
+	{
+		return enumClass.getName() + "." + codeAccessor;
+	}
+
+	private Map<String, Object> build() throws SomethingJustWrong
+	{
+		if (!enumClass.isEnum())
+			throw new SomethingJustWrong("Class " + enumClass.getName() + " is not an enum!");
+
+		try
+		{
+			Method method = null;
+			Field field = null;
+			try
+			{
+				method = enumClass.getMethod(codeAccessor);
+			}
+			catch (NoSuchMethodException e)
+			{
+				field = enumClass.getDeclaredField(codeAccessor);
+			}
+			AccessibleObject accessor = method != null ? method : field;
+			if (!accessor.isAccessible())
+				accessor.setAccessible(true);
+
+			Map<String, Object> map = new HashMap<String, Object>();
+			for (Object constant : enumClass.getEnumConstants())
+			{
+				Object code = method != null ? method.invoke(constant) : field.get(constant);
+				if (code != null)
+					map.put(String.valueOf(code), constant);
+			}
+			return Collections.unmodifiableMap(map);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			throw new SomethingJustWrong("Enum code accessor " + describe() + " not present!", e);
+		}
+	}
+
+}
@@ -0,0 +1,95 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+Key to instance map of an aggregation level ({@link EasyCollection}).<br/>
+Integral keys (long, int, short and wrappers) use open addressing on primitive long keys: no boxing and no entry objects per row.
+Other keys use a HashMap. Values are never null.
+For internal usage.
+@author ds
+ */
+final class IdentityMap
+{
+
+	private static final int INITIAL_CAPACITY = 8;
+
+	private long[] keys;
+	private Object[] values;
+	private int size = 0;
+	private Map<Object, Object> objects;
+
+	IdentityMap(boolean longKeys)
+	{
+		if (longKeys)
+		{
+			keys = new long[INITIAL_CAPACITY];
+			values = new Object[INITIAL_CAPACITY];
+		}
+		else
+			objects = new HashMap<Object, Object>();
+	}
+
+	Object get(long key)
+	{
+		int mask = keys.length - 1;
+		for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask)
+		{
+			if (keys[i] == key)
+				return values[i];
+		}
+		return null;
+	}
+
+	void put(long key, Object value)
+	{
+		// load factor 0.5
+		if (2 * (size + 1) > keys.length)
+			grow();
+		int mask = keys.length - 1;
+		int i = slot(key, mask);
+		while (values[i] != null && keys[i] != key)
+			i = (i + 1) & mask;
+		if (values[i] == null)
+			size++;
+		keys[i] = key;
+		values[i] = value;
+	}
+
+	Object get(Object key)
+	{
+		return objects.get(key);
+	}
+
+	void put(Object key, Object value)
+	{
+		objects.put(key, value);
+	}
+
+	int size()
+	{
+		return objects != null ? objects.size() : size;
+	}
+
+	private void grow()
+	{
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new Object[oldValues.length * 2];
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			if (oldValues[i] != null)
+				put(oldKeys[i], oldValues[i]);
+		}
+	}
+
+	private static int slot(long key, int mask)
+	{
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+}
@@ -1,27 +1,61 @@
 package ds.made.jdbc.easy.annotations;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Parameter;
 import java.util.ArrayList;
 import java.util.List;
 
 import ds.made.jdbc.easy.model.EasyColumnFieldData;
 
 /**
-For internal usage.
+For internal usage.<br/>
+The annotated fields (or constructor parameters) of a class are read only once per class and then shared.
 @author ds
  */
 public class MapEasyAnnotations
 {
 
+	private static final ClassValue<EasyColumnFieldData[]> PROPERTIES = new ClassValue<EasyColumnFieldData[]>()
+	{
+		@Override
+		protected EasyColumnFieldData[] computeValue(Class<?> type)
+		{
+			return analyze(type);
+		}
+	};
+
 	private final Class<?> clazz;
-	
+
 	public MapEasyAnnotations(Class<?> clazz)
 	{
 		this.clazz = clazz;
 	}
-	
+
 	public EasyColumnFieldData[] propertiesList()
 	{
+		return PROPERTIES.get(clazz);
+	}
+
+	/**
+	 * @return true when rows are aggregated into {@link EasyCollection} properties
+	 */
+	public static boolean hasCollections(Class<?> clazz)
+	{
+		return AggregatePlan.hasCollections(clazz);
+	}
+
+	private static EasyColumnFieldData[] analyze(Class<?> clazz)
+	{
+		Constructor<?> constructor = annotatedConstructor(clazz);
+		if (constructor != null)
+		{
+			EasyColumnFieldData[] parameters = new EasyColumnFieldData[constructor.getParameterCount()];
+			for (int i = 0; i < parameters.length; i++)
+				parameters[i] = new EasyColumnFieldData(constructor, i, constructor.getParameters()[i].getAnnotation(EasyColumn.class));
+			return parameters;
+		}
+		
 		Field[] properties = clazz.getDeclaredFields();
 		List<EasyColumnFieldData> propList = new ArrayList<EasyColumnFieldData>();
 		for (Field p : properties)
@@ -32,8 +66,34 @@ public class MapEasyAnnotations
 				propList.add(new EasyColumnFieldData(p,a));
 			}
 		}
-		
+
 		return propList.toArray(new EasyColumnFieldData[propList.size()]);
 	}
-	
+
+	/**
+	 * @return constructor with most parameters, all {@link EasyColumn} annotated; null when there is none
+	 */
+	private static Constructor<?> annotatedConstructor(Class<?> clazz)
+	{
+		Constructor<?> found = null;
+		for (Constructor<?> c : clazz.getDeclaredConstructors())
+		{
+			if (c.getParameterCount() == 0 || (found != null && found.getParameterCount() >= c.getParameterCount()))
+				continue;
+			
+			boolean all = true;
+			for (Parameter p : c.getParameters())
+			{
+				if (!p.isAnnotationPresent(EasyColumn.class))
+				{
+					all = false;
+					break;
+				}
+			}
+			if (all)
+				found = c;
+		}
+		return found;
+	}
+
 }
@@ -1,29 +1,29 @@
 package ds.made.jdbc.easy.annotations;
 
 import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.math.BigDecimal;
-import java.math.BigInteger;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.xml.datatype.DatatypeConfigurationException;
 
 import ds.made.jdbc.easy.model.*;
 import ds.made.jdbc.easy.utility.DBHelper;
-import ds.made.jdbc.easy.utility.Lobs;
+import ds.made.jdbc.easy.utility.TypeConverters;
 
 /**
 Maps JDBC objects to annotated properties.
@@ -32,15 +32,19 @@ For internal usage.
  */
 public class MapResultSet<T>
 {
+	/** Smallest chunk handed to a worker in parallel mapping (drivers default to small fetch sizes, e.g. Oracle 10) */
+	private static final int PARALLEL_MIN_CHUNK = 64;
+	
 	private final Class<?> clazz;
 	private final ResultSet resultset;
-	private final Map<String, Method> setters;
-	private final List<EasyColumnFieldData> myPropertiesList;
-	private final List<EasyColumnClassField> myPropertiesNonAnnotatedList;
-	private final EasyColumnFieldData[] properties;
-	private final EasyColumnClassField[] nonAnnotatedFileds;
-	private boolean nonAnnotated = false;
+	private final MappingPlan plan;
+	/** Row buffer: mapped object and its nested beans, see {@link MappingPlan#nested} */
+	private final Object[] slots;
+	/** Row buffer: constructor arguments, see {@link MappingPlan#arguments} */
+	private final Object[] args;
 	private Integer rowLimit = null;
+	/** Initial result list capacity (row count of earlier executions); 0 = unknown */
+	private int expectedRows = 0;
 	
 	private String lastFieldName = "";
 
@@ -48,38 +52,27 @@ public class MapResultSet<T>
 	{
 		this.clazz = clazz;
 		this.resultset = resultset;
-		this.properties = null;
-		this.nonAnnotatedFileds = null;
-		this.myPropertiesNonAnnotatedList = null;
-		this.setters = new HashMap<String, Method>();
-		this.myPropertiesList = new ArrayList<EasyColumnFieldData>();
-		nonAnnotated = false;
+		this.plan = null;
+		this.slots = null;
+		this.args = null;
 	}
 	
 	public MapResultSet(Class<?> clazz, EasyColumnFieldData[] properties, ResultSet resultset) throws AnalysisBroke
 	{
 		this.clazz = clazz;
 		this.resultset = resultset;
-		this.properties = properties;
-		this.nonAnnotatedFileds = null;
-		this.myPropertiesNonAnnotatedList = null;
-		this.setters = new HashMap<String, Method>();
-		this.myPropertiesList = new ArrayList<EasyColumnFieldData>();
-		nonAnnotated = false;
-		analyze();
+		this.plan = analyze(properties, null);
+		this.slots = new Object[plan.nested.length + 1];
+		this.args = plan.constructor == null ? null : new Object[plan.defaultArguments.length];
 	}
 
 	public MapResultSet(Class<?> clazz,EasyColumnClassField[] nonAnnotatedFileds, ResultSet resultset) throws AnalysisBroke
 	{
 		this.clazz = clazz;
 		this.resultset = resultset;
-		this.properties = null;
-		this.nonAnnotatedFileds = nonAnnotatedFileds;
-		this.myPropertiesList = null;
-		this.setters = new HashMap<String, Method>();
-		this.myPropertiesNonAnnotatedList = new ArrayList<EasyColumnClassField>();
-		nonAnnotated = true;
-		analyzeNonAnnotated();
+		this.plan = analyze(null, nonAnnotatedFileds);
+		this.slots = new Object[plan.nested.length + 1];
+		this.args = plan.constructor == null ? null : new Object[plan.defaultArguments.length];
 	}
 	
 	public void setRowLimit(Integer rowLimit)
@@ -87,32 +80,45 @@ public class MapResultSet<T>
 		this.rowLimit = rowLimit;
 	}
 	
-	private void analyze() throws AnalysisBroke
+	/**
+	 * @param expectedRows presize the result list (e.g. from {@link ds.made.jdbc.easy.utility.RowCountHistory}); 0 = unknown
+	 */
+	public void setExpectedRows(int expectedRows)
+	{
+		this.expectedRows = Math.max(expectedRows, 0);
+	}
+	
+	private List<T> newList(Integer count)
+	{
+		if (expectedRows <= 0)
+			return new ArrayList<T>();
+		return new ArrayList<T>(count == null ? expectedRows : Math.min(expectedRows, Math.max(count, 0)));
+	}
+	
+	/**
+	 * Mapping plan for this result set; taken from {@link MappingPlanCache} or built (and cached) on first use.
+	 */
+	private MappingPlan analyze(EasyColumnFieldData[] properties, EasyColumnClassField[] nonAnnotatedFileds) throws AnalysisBroke
 	{
 		try
 		{
-			// Returns descriptors for all properties of the bean.
-			for(PropertyDescriptor pd : Introspector.getBeanInfo(clazz).getPropertyDescriptors())
-				// Gets the method that should be used to write the property value.
-				setters.put(pd.getName(), pd.getWriteMethod());
-			
-			ResultSetMetaData rsmd = resultset.getMetaData();
-			for (int idx = 1; idx <= rsmd.getColumnCount(); idx++)
+			MappingPlanKey key = MappingPlanKey.of(clazz, resultset.getMetaData(), nonAnnotatedFileds);
+			MappingPlan p = MappingPlanCache.get(key);
+			if (p == null)
 			{
-				// Database name
-				String name = rsmd.getColumnName(idx);
-				// Properties from constructor ... annotated fields
-				for (EasyColumnFieldData f : properties)
+				if (nonAnnotatedFileds != null)
+					p = MappingPlan.forFields(clazz, nonAnnotatedFileds, key.getColumnNames());
+				else
 				{
-					// If annotated name equals column name regardless of capitalising, then they are equal!
-					if (f.column.name().equalsIgnoreCase(name))
-					{
-						// Add this field to my property list
-						myPropertiesList.add(f);
-						break;
-					}
+					RowMapper<?> generated = converted(properties) ? null : RowMappers.find(clazz);
+					if (generated != null)
+						p = MappingPlan.forGenerated(clazz, generated, key.getColumnNames());
+					else
+						p = MappingPlan.forAnnotated(clazz, properties, key.getColumnNames());
 				}
+				MappingPlanCache.put(key, p);
 			}
+			return p;
 		}
 		catch (Exception e)
 		{
@@ -120,76 +126,43 @@ public class MapResultSet<T>
 		}
 	}
 
-	private void analyzeNonAnnotated() throws AnalysisBroke
+	/**
+	 * @return true when a property is read by a {@link ds.made.jdbc.easy.utility.TypeConverter} (generated mappers do not know them)
+	 */
+	private static boolean converted(EasyColumnFieldData[] properties)
 	{
-		try
+		for (EasyColumnFieldData f : properties)
 		{
-			for(PropertyDescriptor pd : Introspector.getBeanInfo(clazz).getPropertyDescriptors())
-				setters.put(pd.getName(), pd.getWriteMethod());
-			
-			ResultSetMetaData rsmd = resultset.getMetaData();
-			for (int idx = 1; idx <= rsmd.getColumnCount(); idx++)
-			{
-				String name = rsmd.getColumnName(idx);
-				for (EasyColumnClassField n : nonAnnotatedFileds)
-				{
-					if (n.dbFieldName.equalsIgnoreCase(name))
-					{
-						myPropertiesNonAnnotatedList.add(n);
-						break;
-					}
-				}
-			}
-		}
-		catch (Exception e)
-		{
-			throw new AnalysisBroke(e);
+			if (f.column.converter() != void.class || TypeConverters.find(f.propertyType) != null)
+				return true;
 		}
+		return false;
 	}
-	
-	@SuppressWarnings("unchecked")
+
 	public List<T> map() throws SomethingJustWrong, IllegalArgumentException, IllegalAccessException, InvocationTargetException, SQLException, SecurityException, NoSuchMethodException, InstantiationException, IOException, DatatypeConfigurationException, IntrospectionException
 	{
-		if (nonAnnotated)
-			return mapNonAnnotated();
-
 		int cnt = 0;
-		List<T> lst = new ArrayList<T>();
+		List<T> lst = newList(null);
 		while (resultset.next())
 		{
 			cnt++;
 			if (rowLimit != null && cnt > rowLimit)
 				throw new EasyResultSetTooManyRows("Too many rows!");
 			
-			T t = (T) clazz.newInstance();
-			lst.add(t);
-			
-			for (EasyColumnFieldData f : myPropertiesList)
-			{
-				lastFieldName = f.field.getName();
-				Method m = setters.get(lastFieldName);
-				if (m == null)
-					throw new SomethingJustWrong("Method for " + lastFieldName + " not present!");
-				
-				invoke(t, m, f.column.name(), f.isEnum, f.column.enumFactoryClass(), f.column.staticEnumMethod(), f.column.blob(), f.column.clob());
-			}
+			lst.add(mapRow());
 		}
 		return lst;
 	}
 
-	@SuppressWarnings("unchecked")
 	public List<T> map(Integer offset, Integer count) throws SomethingJustWrong, IllegalArgumentException, IllegalAccessException, InvocationTargetException, SQLException, SecurityException, NoSuchMethodException, InstantiationException, IOException, DatatypeConfigurationException, IntrospectionException
 	{
-		if (nonAnnotated)
-			return mapNonAnnotated();
-		
 		int cnt = 0;
 		int end = offset + count;
-		List<T> lst = new ArrayList<T>();
+		List<T> lst = newList(count);
 		while (resultset.next())
 		{
 			cnt++;
-			if (cnt < offset)
+			if (cnt <= offset)
 				continue;
 			if (cnt > end)
 				break;
@@ -197,181 +170,496 @@ public class MapResultSet<T>
 			if (rowLimit != null && lst.size() >= rowLimit)
 				throw new EasyResultSetTooManyRows("Too many rows!");
 			
-			T t = (T) clazz.newInstance();
-			lst.add(t);
-			
-			for (EasyColumnFieldData f : myPropertiesList)
-			{
-				lastFieldName = f.field.getName();
-				Method m = setters.get(lastFieldName);
-				if (m == null)
-					throw new SomethingJustWrong("Method for " + lastFieldName + " not present!");
-				
-				invoke(t, m, f.column.name(), f.isEnum, f.column.enumFactoryClass(), f.column.staticEnumMethod(), f.column.blob(), f.column.clob());
-			}
+			lst.add(mapRow());
 		}
 		return lst;
 	}
 	
+	/**
+	 * Aggregation of a joined result set ({@link EasyCollection}): one instance per key on every level,
+	 * children are added to the collections of their parent as the rows come. Order of first appearance is kept.
+	 * @return mapped root instances
+	 */
 	@SuppressWarnings("unchecked")
-	public List<T> mapSingleColumn() throws SomethingJustWrong, IllegalArgumentException, IllegalAccessException, InvocationTargetException, SQLException, SecurityException, NoSuchMethodException, InstantiationException, IOException, DatatypeConfigurationException
+	public List<T> mapAggregated() throws SomethingJustWrong, IllegalArgumentException, IllegalAccessException, InvocationTargetException, SQLException, SecurityException, NoSuchMethodException, InstantiationException, IOException, DatatypeConfigurationException, IntrospectionException
 	{
-		List<T> lst = new ArrayList<T>();
+		AggregatePlan aggregate = AggregatePlan.get(MappingPlanKey.of(clazz, resultset.getMetaData(), null), clazz);
+		Object[][] levelSlots = new Object[aggregate.levels][];
+		Object[][] levelArgs = new Object[aggregate.levels][];
+		
+		int cnt = 0;
+		List<T> lst = newList(null);
+		IdentityMap roots = new IdentityMap(aggregate.root.longKey);
 		while (resultset.next())
 		{
-			Object o = DBHelper.toObject(1, resultset);
-			T t = (T)o;
-			lst.add(t);
+			cnt++;
+			if (rowLimit != null && cnt > rowLimit)
+				throw new EasyResultSetTooManyRows("Too many rows!");
+			
+			int before = roots.size();
+			AggregateNode root = resolve(aggregate.root, roots, levelSlots, levelArgs);
+			if (root == null)
+				continue;
+			if (roots.size() > before)
+				lst.add((T) root.bean);
+			children(root, aggregate.root, levelSlots, levelArgs);
 		}
 		return lst;
 	}
 	
+	/**
+	 * Instance of a level built once per key, with the identity maps of its collections.
+	 */
+	private static final class AggregateNode
+	{
+		final Object bean;
+		final IdentityMap[] children;
+		
+		AggregateNode(Object bean, int collections)
+		{
+			this.bean = bean;
+			this.children = new IdentityMap[collections];
+		}
+	}
+	
+	/**
+	 * @return node of the current row key (existing or new); null when the key is SQL NULL
+	 */
+	private AggregateNode resolve(AggregatePlan.Level level, IdentityMap map, Object[][] levelSlots, Object[][] levelArgs) throws IllegalArgumentException, IllegalAccessException, InvocationTargetException, InstantiationException, SomethingJustWrong, IOException, SQLException, DatatypeConfigurationException
+	{
+		lastFieldName = level.keyName;
+		long longKey = 0;
+		Object key = null;
+		AggregateNode node;
+		if (level.longKey)
+		{
+			longKey = resultset.getLong(level.keyIndex);
+			if (resultset.wasNull())
+				return null;
+			node = (AggregateNode) map.get(longKey);
+		}
+		else
+		{
+			key = level.keyReader.read(resultset, level.keyIndex);
+			if (key == null)
+				return null;
+			node = (AggregateNode) map.get(key);
+		}
+		if (node != null)
+			return node;
+		
+		MappingPlan p = level.plan;
+		if (levelSlots[level.id] == null)
+		{
+			levelSlots[level.id] = new Object[p.nested.length + 1];
+			levelArgs[level.id] = p.constructor == null ? null : new Object[p.defaultArguments.length];
+		}
+		node = new AggregateNode(mapRow(p, levelSlots[level.id], levelArgs[level.id]), level.children.length);
+		if (level.longKey)
+			map.put(longKey, node);
+		else
+			map.put(key, node);
+		return node;
+	}
+	
 	@SuppressWarnings("unchecked")
-	public List<T> mapNonAnnotated() throws SomethingJustWrong, IllegalArgumentException, IllegalAccessException, InvocationTargetException, SQLException, SecurityException, NoSuchMethodException, InstantiationException, IOException, DatatypeConfigurationException, IntrospectionException
+	private void children(AggregateNode parent, AggregatePlan.Level level, Object[][] levelSlots, Object[][] levelArgs) throws IllegalArgumentException, IllegalAccessException, InvocationTargetException, InstantiationException, SomethingJustWrong, IOException, SQLException, DatatypeConfigurationException
 	{
-		int cnt = 0;
-		List<T> lst = new ArrayList<T>();
-		while (resultset.next())
+		for (int i = 0; i < level.children.length; i++)
 		{
-			cnt++;
-			if (rowLimit != null && cnt > rowLimit)
-				throw new EasyResultSetTooManyRows("Too many rows!");
+			AggregatePlan.Child c = level.children[i];
+			if (parent.children[i] == null)
+				parent.children[i] = new IdentityMap(c.level.longKey);
+			IdentityMap map = parent.children[i];
 			
-			T t = (T) clazz.newInstance();
-			lst.add(t);
-			
-			for (EasyColumnClassField n : myPropertiesNonAnnotatedList)
+			int before = map.size();
+			AggregateNode child = resolve(c.level, map, levelSlots, levelArgs);
+			if (child == null)
+				continue;
+			if (map.size() > before)
 			{
-				if (n.nested)
+				lastFieldName = c.propertyName;
+				Collection<Object> collection = (Collection<Object>) c.getter.get(parent.bean);
+				if (collection == null)
 				{
-					lastFieldName = n.classPropertyName;
-					mapNonAnnotatedNested(n,t);
-				}
-				else
-				{
-					lastFieldName = n.classPropertyName;
-					Method m = setters.get(lastFieldName);
-					if (m == null)
-						throw new SomethingJustWrong("Method for " + lastFieldName + " not present!");
-					
-					invoke(t, m, n.dbFieldName, n.isEnum, n.enumFactoryClass, n.staticEnumMethod, n.blob, n.clob);
+					if (c.setter == null)
+						throw new SomethingJustWrong("Write method for " + c.propertyName + " not present!");
+					collection = c.set ? new LinkedHashSet<Object>() : new ArrayList<Object>();
+					c.setter.set(parent.bean, collection);
 				}
+				collection.add(child.bean);
 			}
+			children(child, c.level, levelSlots, levelArgs);
 		}
-		return lst;
 	}
 	
-	@SuppressWarnings("unchecked")
-	private void mapNonAnnotatedNested(EasyColumnClassField n, T t) throws IntrospectionException, IllegalArgumentException, IllegalAccessException, InvocationTargetException, InstantiationException, SomethingJustWrong, SecurityException, IOException, SQLException, NoSuchMethodException, DatatypeConfigurationException
+	/**
+	 * Parallel mapping: this thread only fetches raw column values (Clob, Blob, enum code ...) in chunks of fetch size rows,
+	 * the executor converts the chunks to instances (LOB content, enum lookup, object creation, setters).<br/>
+	 * Generated mappers read the result set themselves; they are mapped on this thread.
+	 * @param offset rows to skip (null = all rows)
+	 * @param count number of rows (with offset)
+	 * @param executor conversion workers
+	 * @param ordered keep the result set order; otherwise chunks are added as they complete
+	 * @return mapped rows
+	 */
+	public List<T> mapParallel(Integer offset, Integer count, Executor executor, boolean ordered) throws SomethingJustWrong, IllegalArgumentException, IllegalAccessException, InvocationTargetException, SQLException, SecurityException, NoSuchMethodException, InstantiationException, IOException, DatatypeConfigurationException, IntrospectionException
 	{
+		if (plan.mapper != null)
+			return offset == null ? map() : map(offset, count);
 		
-		Class<?> beanClass = t.getClass();
-		Object beanInstance = t;
-		for (int i = 0; i < n.nestedPath.length; i++)
+		final int chunkSize = Math.max(resultset.getFetchSize(), PARALLEL_MIN_CHUNK);
+		final List<T> unordered = ordered ? null : Collections.synchronizedList(new ArrayList<T>());
+		List<CompletableFuture<List<T>>> tasks = new ArrayList<CompletableFuture<List<T>>>();
+		boolean fetched = false;
+		int cnt = 0;
+		int rows = 0;
+		try
 		{
-			String propertyName = n.nestedPath[i];
-			Method read = new PropertyDescriptor(propertyName, beanClass).getReadMethod();
-			if (read == null)
-				throw new SomethingJustWrong("Get method for " + propertyName + " not present!");
-			Object getter = read.invoke(beanInstance);
-			if (getter == null)
+			int end = offset == null ? 0 : offset + count;
+			Object[][] chunk = new Object[chunkSize][];
+			int filled = 0;
+			while (resultset.next())
 			{
-				PropertyDescriptor pd = new PropertyDescriptor(propertyName, beanClass);
-				Method write = pd.getWriteMethod();
-				if (write == null)
-					throw new SomethingJustWrong("Write method for " + propertyName + " not present!");
-				beanClass = pd.getPropertyType();
-				Object newValue = beanClass.newInstance();
-				write.invoke(beanInstance, newValue);
-				beanInstance = newValue;
+				cnt++;
+				if (offset != null)
+				{
+					if (cnt <= offset)
+						continue;
+					if (cnt > end)
+						break;
+				}
+				
+				rows++;
+				if (rowLimit != null && rows > rowLimit)
+					throw new EasyResultSetTooManyRows("Too many rows!");
+				
+				chunk[filled++] = fetchRow();
+				if (filled == chunkSize)
+				{
+					tasks.add(submit(chunk, filled, rows - filled, executor, unordered));
+					chunk = new Object[chunkSize][];
+					filled = 0;
+				}
 			}
-			else
+			if (filled > 0)
+				tasks.add(submit(chunk, filled, rows - filled, executor, unordered));
+			fetched = true;
+		}
+		finally
+		{
+			// Workers may still read LOBs; the cursor must not be closed under them.
+			if (!fetched)
+				awaitQuietly(tasks);
+		}
+		
+		List<T> lst = new ArrayList<T>(rows);
+		try
+		{
+			for (CompletableFuture<List<T>> task : tasks)
 			{
-				beanInstance = getter;
-				beanClass = getter.getClass();
+				List<T> part = task.join();
+				if (ordered)
+					lst.addAll(part);
 			}
 		}
-		
-		PropertyDescriptor pd = new PropertyDescriptor(n.classPropertyName, beanClass);
-		Method write = pd.getWriteMethod();
-		if (write == null)
-			throw new SomethingJustWrong("Write method for " + n.classPropertyName + " not present!");
-		
-		invoke((T)beanInstance, write, n.dbFieldName, n.isEnum, n.enumFactoryClass, n.staticEnumMethod, n.blob, n.clob);
+		catch (CompletionException e)
+		{
+			awaitQuietly(tasks);
+			if (e.getCause() instanceof SomethingJustWrong)
+				throw (SomethingJustWrong) e.getCause();
+			throw new SomethingJustWrong(e.getCause());
+		}
+		if (!ordered)
+			lst.addAll(unordered);
+		return lst;
 	}
 	
-	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private void invoke(T t, Method m, String columnName, boolean isEnum, Class<?> enumFactoryClass, String staticEnumMethod, boolean isBlob, boolean isClob)
-			throws IllegalArgumentException, IllegalAccessException, InvocationTargetException, IOException, SQLException, SomethingJustWrong, SecurityException, NoSuchMethodException, DatatypeConfigurationException
+	/**
+	 * Raw values of the current row: final values of cheap columns, JDBC objects of columns with a {@link ColumnMapping#converter}.
+	 * Order: constructor arguments, then properties.
+	 */
+	private Object[] fetchRow() throws SQLException, IOException, DatatypeConfigurationException, SomethingJustWrong
 	{
-		Class<?> cParameter = m.getParameterTypes()[0];
-		if (cParameter.equals(String.class))
+		Object[] raw = new Object[plan.arguments.length + plan.columns.length];
+		int i = 0;
+		for (ColumnMapping c : plan.arguments)
+			raw[i++] = fetch(c);
+		for (ColumnMapping c : plan.columns)
+			raw[i++] = fetch(c);
+		return raw;
+	}
+	
+	private Object fetch(ColumnMapping c) throws SQLException, IOException, DatatypeConfigurationException, SomethingJustWrong
+	{
+		lastFieldName = c.propertyName;
+		if (c.reader == null)
+			return null;
+		return c.fetcher != null ? c.fetcher.read(resultset, c.index) : c.reader.read(resultset, c.index);
+	}
+	
+	private CompletableFuture<List<T>> submit(final Object[][] chunk, final int size, final int firstRow, Executor executor, final List<T> unordered)
+	{
+		CompletableFuture<List<T>> task = CompletableFuture.supplyAsync(() -> convertChunk(chunk, size, firstRow), executor);
+		if (unordered == null)
+			return task;
+		return task.thenApply(part ->
+		{
+			unordered.addAll(part);
+			return part;
+		});
+	}
+	
+	/**
+	 * Worker side: instances of one chunk, with own row buffers.
+	 */
+	private List<T> convertChunk(Object[][] chunk, int size, int firstRow)
+	{
+		Object[] rowSlots = new Object[plan.nested.length + 1];
+		Object[] rowArgs = plan.constructor == null ? null : new Object[plan.defaultArguments.length];
+		List<T> part = new ArrayList<T>(size);
+		for (int i = 0; i < size; i++)
 		{
-			if (isClob)
+			part.add(mapRaw(chunk[i], rowSlots, rowArgs, firstRow + i + 1));
+			chunk[i] = null;
+		}
+		return part;
+	}
+	
+	/**
+	 * {@link #mapRow()} from fetched values.
+	 */
+	@SuppressWarnings("unchecked")
+	private T mapRaw(Object[] raw, Object[] rowSlots, Object[] rowArgs, int row)
+	{
+		String field = "";
+		try
+		{
+			Object t;
+			int i = 0;
+			if (plan.constructor != null)
 			{
-				m.invoke(t, new Object[] {Lobs.convertClobToString(resultset.getClob(columnName))});
+				System.arraycopy(plan.defaultArguments, 0, rowArgs, 0, rowArgs.length);
+				for (ColumnMapping c : plan.arguments)
+				{
+					field = c.propertyName;
+					Object value = convert(c, raw[i++]);
+					if (value != null)
+						rowArgs[c.targetSlot] = value;
+				}
+				t = plan.constructor.newInstance(rowArgs);
 			}
 			else
 			{
-				m.invoke(t, new Object[] {DBHelper.toString(columnName, resultset)});
+				if (plan.factory == null)
+					throw new InstantiationException(clazz.getName());
+				t = plan.factory.newInstance();
 			}
+			
+			rowSlots[0] = t;
+			for (NestedNode n : plan.nested)
+			{
+				field = n.path;
+				rowSlots[n.slot] = nested(n, rowSlots);
+			}
+			
+			for (ColumnMapping c : plan.columns)
+			{
+				field = c.propertyName;
+				if (c.setter == null)
+					throw new SomethingJustWrong("Method for " + field + " not present!");
+				c.setter.set(rowSlots[c.targetSlot], convert(c, raw[i++]));
+			}
+			return (T) t;
 		}
-		else if (cParameter.equals(LocalDate.class))
-		{
-			m.invoke(t, new Object[] {DBHelper.toLocalDate(columnName, resultset)});
-		}
-		else if (cParameter.equals(LocalDateTime.class))
-		{
-			m.invoke(t, new Object[] {DBHelper.toLocalDateTime(columnName, resultset)});
-		}
-		else if (cParameter.equals(java.util.Date.class))
+		catch (Exception e)
 		{
-			m.invoke(t, new Object[] {DBHelper.toDate(columnName, resultset)});
+			throw new CompletionException(new SomethingJustWrong("Critical error mapping row " + row + ": " + field, e));
 		}
-		else if (cParameter.equals(java.sql.Date.class))
+	}
+	
+	private static Object convert(ColumnMapping c, Object raw) throws SQLException, IOException, SomethingJustWrong
+	{
+		return c.converter == null ? raw : c.converter.convert(raw);
+	}
+	
+	private static void awaitQuietly(List<? extends CompletableFuture<?>> tasks)
+	{
+		for (CompletableFuture<?> task : tasks)
 		{
-			m.invoke(t, new Object[] {DBHelper.toDate(columnName, resultset)});
+			try
+			{
+				task.join();
+			}
+			catch (RuntimeException e)
+			{
+				// reported by the caller
+			}
 		}
-		else if (cParameter.equals(java.sql.Timestamp.class))
+	}
+	
+	/**
+	 * Maps and hands over rows one by one until the result set ends or the handler returns false.
+	 * @param handler row callback
+	 * @return true when the handler stopped reading before the end
+	 */
+	public boolean forEach(RowHandler<? super T> handler) throws Exception
+	{
+		int cnt = 0;
+		while (resultset.next())
 		{
-			m.invoke(t, new Object[] {DBHelper.toDate(columnName, resultset)});
+			cnt++;
+			if (rowLimit != null && cnt > rowLimit)
+				throw new EasyResultSetTooManyRows("Too many rows!");
+			
+			if (!handler.handle(mapRow()))
+				return true;
 		}
-		else if (cParameter.equals(javax.xml.datatype.XMLGregorianCalendar.class))
+		return false;
+	}
+	
+	/**
+	 * Lazy stream of mapped rows: a row is read and mapped only when the stream consumes it, nothing is collected.<br/>
+	 * Reading / mapping errors are thrown as {@link EasyStreamException}. The result set is not closed here; add an onClose handler.
+	 * @return sequential, ordered stream
+	 */
+	public Stream<T> stream()
+	{
+		return StreamSupport.stream(new RowSpliterator(), false);
+	}
+	
+	/**
+	 * One row per tryAdvance, straight from the result set.
+	 */
+	private final class RowSpliterator extends Spliterators.AbstractSpliterator<T>
+	{
+		private int cnt = 0;
+		
+		RowSpliterator()
 		{
-			m.invoke(t, new Object[] {DBHelper.toXMLGregorianCalendar(columnName, resultset)});
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
 		}
-		else if (cParameter.equals(BigDecimal.class))
+		
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action)
 		{
-			m.invoke(t, new Object[] {DBHelper.toBigDecimal(columnName, resultset)});
+			T t;
+			try
+			{
+				if (!resultset.next())
+					return false;
+				
+				cnt++;
+				if (rowLimit != null && cnt > rowLimit)
+					throw new EasyResultSetTooManyRows("Too many rows!");
+				
+				t = mapRow();
+			}
+			catch (Exception e)
+			{
+				throw new EasyStreamException("Critical error reading row " + cnt + ": " + lastFieldName, e);
+			}
+			action.accept(t);
+			return true;
 		}
-		else if (cParameter.equals(BigInteger.class))
+	}
+	
+	@SuppressWarnings("unchecked")
+	public List<T> mapSingleColumn() throws SomethingJustWrong, IllegalArgumentException, IllegalAccessException, InvocationTargetException, SQLException, SecurityException, NoSuchMethodException, InstantiationException, IOException, DatatypeConfigurationException
+	{
+		List<T> lst = newList(null);
+		while (resultset.next())
 		{
-			m.invoke(t, new Object[] {DBHelper.toBigInteger(columnName, resultset)});
+			Object o = DBHelper.toObject(1, resultset);
+			T t = (T)o;
+			lst.add(t);
 		}
-		else if (cParameter.equals(Integer.class))
+		return lst;
+	}
+	
+	public List<T> mapNonAnnotated() throws SomethingJustWrong, IllegalArgumentException, IllegalAccessException, InvocationTargetException, SQLException, SecurityException, NoSuchMethodException, InstantiationException, IOException, DatatypeConfigurationException, IntrospectionException
+	{
+		return map();
+	}
+	
+	/**
+	 * New instance of the current row: generated mapper, annotated constructor with column values, or no argument constructor and setters.
+	 */
+	@SuppressWarnings("unchecked")
+	private T mapRow() throws IllegalArgumentException, IllegalAccessException, InvocationTargetException, InstantiationException, SomethingJustWrong, IOException, SQLException, DatatypeConfigurationException
+	{
+		return (T) mapRow(plan, slots, args);
+	}
+	
+	/**
+	 * New instance of the current row for any plan, with the plan's row buffers.
+	 */
+	private Object mapRow(MappingPlan plan, Object[] slots, Object[] args) throws IllegalArgumentException, IllegalAccessException, InvocationTargetException, InstantiationException, SomethingJustWrong, IOException, SQLException, DatatypeConfigurationException
+	{
+		if (plan.mapper != null)
+			return plan.mapper.mapRow(resultset, plan.mapperIndexes);
+		
+		Object t;
+		if (plan.constructor != null)
 		{
-			m.invoke(t, new Object[] {DBHelper.toInteger(columnName, resultset)});
+			System.arraycopy(plan.defaultArguments, 0, args, 0, args.length);
+			for (ColumnMapping c : plan.arguments)
+			{
+				lastFieldName = c.propertyName;
+				Object value = c.reader.read(resultset, c.index);
+				if (value != null)
+					args[c.targetSlot] = value;
+			}
+			t = plan.constructor.newInstance(args);
 		}
-		else if (cParameter.equals(Long.class))
+		else
 		{
-			m.invoke(t, new Object[] {DBHelper.toLong(columnName, resultset)});
+			if (plan.factory == null)
+				throw new InstantiationException(plan.clazz.getName());
+			t = plan.factory.newInstance();
 		}
-		else if (cParameter.equals(Short.class))
+		
+		slots[0] = t;
+		for (NestedNode n : plan.nested)
 		{
-			m.invoke(t, new Object[] {DBHelper.toShort(columnName, resultset)});
+			lastFieldName = n.path;
+			slots[n.slot] = nested(n, slots);
 		}
-		else if (isEnum)
+		
+		for (ColumnMapping c : plan.columns)
 		{
-			String v = DBHelper.toString(columnName, resultset);
-			Method method = enumFactoryClass.getMethod(staticEnumMethod, String.class);
-			m.invoke(t, new Object[] {method.invoke(null, v)});
+			lastFieldName = c.propertyName;
+			if (c.setter == null)
+				throw new SomethingJustWrong("Method for " + lastFieldName + " not present!");
+			
+			if (c.assigner != null)
+				c.assigner.assign(resultset, c.index, slots[c.targetSlot]);
+			else
+				c.setter.set(slots[c.targetSlot], c.reader.read(resultset, c.index));
 		}
-		else if (isBlob)
+		return t;
+	}
+	
+	/**
+	 * Existing nested bean or a new one, set on its owner.
+	 */
+	private static Object nested(NestedNode n, Object[] slots) throws IllegalArgumentException, IllegalAccessException, InvocationTargetException, InstantiationException, SomethingJustWrong
+	{
+		if (n.getter == null)
+			throw new SomethingJustWrong("Get method for " + n.propertyName + " not present!");
+		
+		Object owner = slots[n.parentSlot];
+		Object bean = n.getter.get(owner);
+		if (bean == null)
 		{
-			m.invoke(t, new Object[] {Lobs.convertBlobToArray(resultset.getBlob(columnName))});
+			if (n.setter == null)
+				throw new SomethingJustWrong("Write method for " + n.propertyName + " not present!");
+			if (n.factory == null)
+				throw new InstantiationException(n.type.getName());
+			bean = n.factory.newInstance();
+			n.setter.set(owner, bean);
 		}
-		else
-			throw new SomethingJustWrong("What is this type " + cParameter.getName() + " ?");
+		return bean;
 	}
 	
 	public String getLastFieldName()
@@ -8,9 +8,12 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import ds.made.jdbc.easy.model.EasyStatementNoSingleObject;
+import ds.made.jdbc.easy.model.Enums;
 import ds.made.jdbc.easy.model.SomethingJustWrong;
 import ds.made.jdbc.easy.utility.DBHelper;
 import ds.made.jdbc.easy.utility.Lobs;
+import ds.made.jdbc.easy.utility.TypeConverter;
+import ds.made.jdbc.easy.utility.TypeConverters;
 
 /**
 Maps JDBC objects to annotated properties.
@@ -35,7 +38,10 @@ public class MapScalar<T>
 		if (resultset.next()) 
 		{
 			Object o = null;
-			if (clazz.equals(String.class))
+			TypeConverter<?> converter = TypeConverters.find(clazz);
+			if (converter != null)
+				o = converter.read(resultset, 1);
+			else if (clazz.equals(String.class))
 				o = DBHelper.toString(1, resultset);
 			else if (clazz.equals(java.util.Date.class))
 				o = DBHelper.toDate(1, resultset);
@@ -51,6 +57,20 @@ public class MapScalar<T>
 				o = DBHelper.toLong(1, resultset);
 			else if (clazz.equals(Short.class))
 				o = DBHelper.toShort(1, resultset);
+			else if (clazz.equals(Double.class))
+				o = DBHelper.toDouble(1, resultset);
+			else if (clazz.equals(Boolean.class))
+				o = DBHelper.toBoolean(1, resultset);
+			else if (clazz.equals(long.class))
+				o = PrimitiveColumns.getLong(resultset, 1, failOnNull(), "scalar");
+			else if (clazz.equals(int.class))
+				o = PrimitiveColumns.getInt(resultset, 1, failOnNull(), "scalar");
+			else if (clazz.equals(double.class))
+				o = PrimitiveColumns.getDouble(resultset, 1, failOnNull(), "scalar");
+			else if (clazz.equals(boolean.class))
+				o = PrimitiveColumns.getBoolean(resultset, 1, failOnNull(), "scalar");
+			else if (clazz.equals(short.class))
+				o = PrimitiveColumns.getShort(resultset, 1, failOnNull(), "scalar");
 			else
 				throw new SomethingJustWrong("What is this type " + clazz.getName() + " ?");
 			
@@ -62,6 +82,44 @@ public class MapScalar<T>
 	    }			
 	}
 	
+	/**
+	 * No boxing; SQL NULL follows {@link MappingPlanCache#getPrimitiveNull()}.
+	 */
+	public long mapLong() throws SomethingJustWrong, EasyStatementNoSingleObject, SQLException
+	{
+		if (resultset.next()) 
+			return PrimitiveColumns.getLong(resultset, 1, failOnNull(), "scalar");
+		else 
+	        throw new EasyStatementNoSingleObject("Cannot read any results!");
+	}
+	
+	/**
+	 * No boxing; SQL NULL follows {@link MappingPlanCache#getPrimitiveNull()}.
+	 */
+	public int mapInt() throws SomethingJustWrong, EasyStatementNoSingleObject, SQLException
+	{
+		if (resultset.next()) 
+			return PrimitiveColumns.getInt(resultset, 1, failOnNull(), "scalar");
+		else 
+	        throw new EasyStatementNoSingleObject("Cannot read any results!");
+	}
+	
+	/**
+	 * No boxing; SQL NULL follows {@link MappingPlanCache#getPrimitiveNull()}.
+	 */
+	public double mapDouble() throws SomethingJustWrong, EasyStatementNoSingleObject, SQLException
+	{
+		if (resultset.next()) 
+			return PrimitiveColumns.getDouble(resultset, 1, failOnNull(), "scalar");
+		else 
+	        throw new EasyStatementNoSingleObject("Cannot read any results!");
+	}
+	
+	private static boolean failOnNull()
+	{
+		return MappingPlanCache.getPrimitiveNull() == Enums.PRIMITIVE_NULL.FAIL;
+	}
+	
 	public byte[] mapBLOB() throws SomethingJustWrong, EasyStatementNoSingleObject, SQLException, IOException
 	{
 		if (resultset.next()) 
@@ -0,0 +1,348 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ds.made.jdbc.easy.model.EasyColumnClassField;
+import ds.made.jdbc.easy.model.EasyColumnFieldData;
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+import ds.made.jdbc.easy.utility.TypeConverter;
+import ds.made.jdbc.easy.utility.TypeConverters;
+
+/**
+Precompiled mapping of a result set (column signature) to a class: which column goes to which property and how.<br/>
+Plans are immutable, shared between threads and cached in {@link MappingPlanCache}.
+For internal usage.
+@author ds
+ */
+public final class MappingPlan
+{
+
+	private static final NestedNode[] NO_NESTED = new NestedNode[0];
+	private static final ColumnMapping[] NO_COLUMNS = new ColumnMapping[0];
+
+	final Class<?> clazz;
+	/** No argument constructor; null when the class has none */
+	final ObjectFactory factory;
+	/** Annotated constructor; null when rows are created through the factory */
+	final ObjectConstructor constructor;
+	/** Constructor arguments (targetSlot is the argument index) */
+	final ColumnMapping[] arguments;
+	/** Argument values used for parameters without a column (null / primitive zero) */
+	final Object[] defaultArguments;
+	/** Properties written after the instance is created */
+	final ColumnMapping[] columns;
+	/** Intermediate beans of nested properties, parents before children */
+	final NestedNode[] nested;
+	/** Generated (compile time) mapper; when set, it maps the whole row */
+	final RowMapper<?> mapper;
+	/** Result set index of each {@link RowMapper#columns()} (0 = not present) */
+	final int[] mapperIndexes;
+
+	private MappingPlan(Class<?> clazz, ColumnMapping[] columns, NestedNode[] nested)
+	{
+		this.clazz = clazz;
+		this.factory = PropertyAccessors.factory(clazz, MappingPlanCache.getSetterBackend());
+		this.constructor = null;
+		this.arguments = NO_COLUMNS;
+		this.defaultArguments = null;
+		this.columns = columns;
+		this.nested = nested;
+		this.mapper = null;
+		this.mapperIndexes = null;
+	}
+
+	private MappingPlan(Class<?> clazz, Constructor<?> constructor, ColumnMapping[] arguments)
+	{
+		this.clazz = clazz;
+		this.factory = null;
+		this.constructor = PropertyAccessors.constructor(constructor, MappingPlanCache.getSetterBackend());
+		this.arguments = arguments;
+		this.defaultArguments = new Object[constructor.getParameterCount()];
+		Class<?>[] types = constructor.getParameterTypes();
+		for (int i = 0; i < types.length; i++)
+		{
+			if (types[i].isPrimitive())
+				this.defaultArguments[i] = Array.get(Array.newInstance(types[i], 1), 0);
+		}
+		this.columns = NO_COLUMNS;
+		this.nested = NO_NESTED;
+		this.mapper = null;
+		this.mapperIndexes = null;
+	}
+
+	private MappingPlan(Class<?> clazz, RowMapper<?> mapper, int[] mapperIndexes)
+	{
+		this.clazz = clazz;
+		this.factory = null;
+		this.constructor = null;
+		this.arguments = NO_COLUMNS;
+		this.defaultArguments = null;
+		this.columns = NO_COLUMNS;
+		this.nested = NO_NESTED;
+		this.mapper = mapper;
+		this.mapperIndexes = mapperIndexes;
+	}
+
+	public Class<?> getMappedClass()
+	{
+		return clazz;
+	}
+
+	public int getMappedColumnCount()
+	{
+		if (mapper != null)
+		{
+			int cnt = 0;
+			for (int idx : mapperIndexes)
+			{
+				if (idx > 0)
+					cnt++;
+			}
+			return cnt;
+		}
+		return arguments.length + columns.length;
+	}
+
+	public boolean isGenerated()
+	{
+		return mapper != null;
+	}
+
+	public boolean isConstructorMapped()
+	{
+		return constructor != null;
+	}
+
+	public int getNestedBeanCount()
+	{
+		return nested.length;
+	}
+
+	/**
+	 * Plan for an {@link EasyRow} / {@link EasyColumn} annotated class.
+	 * @param clazz annotated class
+	 * @param properties annotated fields or constructor parameters
+	 * @param columnNames result set column names (in result set order)
+	 * @return plan
+	 * @throws IntrospectionException
+	 * @throws SomethingJustWrong when a column converter cannot be created
+	 */
+	static MappingPlan forAnnotated(Class<?> clazz, EasyColumnFieldData[] properties, String[] columnNames) throws IntrospectionException, SomethingJustWrong
+	{
+		if (properties.length > 0 && properties[0].constructor != null)
+			return forConstructor(clazz, properties, columnNames);
+
+		EasyRow row = clazz.getAnnotation(EasyRow.class);
+		boolean fieldAccess = row != null && row.fieldAccess();
+		Map<String, Method> setters = fieldAccess ? null : setters(clazz);
+		List<ColumnMapping> lst = new ArrayList<ColumnMapping>();
+		for (int idx = 1; idx <= columnNames.length; idx++)
+		{
+			// Database name
+			String name = columnNames[idx - 1];
+			// Properties from constructor ... annotated fields
+			for (EasyColumnFieldData f : properties)
+			{
+				// If annotated name equals column name regardless of capitalising, then they are equal!
+				if (f.column.name().equalsIgnoreCase(name))
+				{
+					Class<?> type;
+					PropertySetter setter;
+					ColumnAssigner assigner;
+					if (fieldAccess)
+					{
+						type = f.propertyType;
+						setter = PropertyAccessors.fieldSetter(f.field, MappingPlanCache.getSetterBackend());
+						assigner = PrimitiveColumns.forField(f.field, f.propertyName);
+					}
+					else
+					{
+						Method m = setters.get(f.field.getName());
+						type = type(m);
+						setter = setter(m);
+						assigner = assigner(m, f.propertyName);
+					}
+					lst.add(new ColumnMapping(idx, f.column.name(), f.propertyName, type, setter, f.isEnum,
+							f.column.enumFactoryClass(), f.column.staticEnumMethod(), f.column.enumCode(), f.column.blob(), f.column.clob(), 0, assigner, converter(f.column)));
+					break;
+				}
+			}
+		}
+		return new MappingPlan(clazz, lst.toArray(new ColumnMapping[lst.size()]), NO_NESTED);
+	}
+
+	/**
+	 * Plan for a class with a generated {@link RowMapper}: only the column indexes are resolved.
+	 * @param clazz annotated class
+	 * @param mapper generated mapper
+	 * @param columnNames result set column names (in result set order)
+	 * @return plan
+	 */
+	static MappingPlan forGenerated(Class<?> clazz, RowMapper<?> mapper, String[] columnNames)
+	{
+		String[] mapped = mapper.columns();
+		int[] indexes = new int[mapped.length];
+		for (int idx = 1; idx <= columnNames.length; idx++)
+		{
+			String name = columnNames[idx - 1];
+			for (int k = 0; k < mapped.length; k++)
+			{
+				if (mapped[k].equalsIgnoreCase(name))
+				{
+					indexes[k] = idx;
+					break;
+				}
+			}
+		}
+		return new MappingPlan(clazz, mapper, indexes);
+	}
+
+	/**
+	 * Constructor plan: column values are collected into the argument buffer and the constructor is called once per row.
+	 */
+	private static MappingPlan forConstructor(Class<?> clazz, EasyColumnFieldData[] parameters, String[] columnNames) throws SomethingJustWrong
+	{
+		List<ColumnMapping> lst = new ArrayList<ColumnMapping>();
+		for (int idx = 1; idx <= columnNames.length; idx++)
+		{
+			String name = columnNames[idx - 1];
+			for (EasyColumnFieldData p : parameters)
+			{
+				if (p.column.name().equalsIgnoreCase(name))
+				{
+					lst.add(new ColumnMapping(idx, p.column.name(), p.propertyName, p.propertyType, null, p.isEnum,
+							p.column.enumFactoryClass(), p.column.staticEnumMethod(), p.column.enumCode(), p.column.blob(), p.column.clob(), p.parameterIndex, null, converter(p.column)));
+					break;
+				}
+			}
+		}
+		return new MappingPlan(clazz, parameters[0].constructor, lst.toArray(new ColumnMapping[lst.size()]));
+	}
+
+	/**
+	 * Plan for a class with manual field definitions ({@link EasyColumnClassField}).
+	 * @param clazz any bean class
+	 * @param fields field definitions
+	 * @param columnNames result set column names (in result set order)
+	 * @return plan
+	 * @throws IntrospectionException
+	 */
+	static MappingPlan forFields(Class<?> clazz, EasyColumnClassField[] fields, String[] columnNames) throws IntrospectionException
+	{
+		Map<Class<?>, Map<String, PropertyDescriptor>> beans = new HashMap<Class<?>, Map<String, PropertyDescriptor>>();
+		Map<String, NestedNode> nodes = new LinkedHashMap<String, NestedNode>();
+		List<ColumnMapping> lst = new ArrayList<ColumnMapping>();
+		for (int idx = 1; idx <= columnNames.length; idx++)
+		{
+			String name = columnNames[idx - 1];
+			for (EasyColumnClassField n : fields)
+			{
+				if (n.dbFieldName.equalsIgnoreCase(name))
+				{
+					NestedNode owner = n.nested ? node(clazz, n.nestedPath, nodes, beans) : null;
+					Class<?> ownerClass = owner == null ? clazz : owner.type;
+					Method m = null;
+					if (ownerClass != null)
+					{
+						PropertyDescriptor pd = properties(ownerClass, beans).get(n.classPropertyName);
+						m = pd == null ? null : pd.getWriteMethod();
+					}
+					lst.add(new ColumnMapping(idx, n.dbFieldName, n.classPropertyName, type(m), setter(m), n.isEnum,
+							n.enumFactoryClass, n.staticEnumMethod, n.enumCode, n.blob, n.clob, owner == null ? 0 : owner.slot, assigner(m, n.classPropertyName)));
+					break;
+				}
+			}
+		}
+		return new MappingPlan(clazz, lst.toArray(new ColumnMapping[lst.size()]), nodes.values().toArray(new NestedNode[nodes.size()]));
+	}
+
+	/**
+	 * Node for a nested path; nodes of all prefixes are created (once) on the way, so shared prefixes share the intermediate bean.
+	 */
+	private static NestedNode node(Class<?> clazz, String[] path, Map<String, NestedNode> nodes, Map<Class<?>, Map<String, PropertyDescriptor>> beans) throws IntrospectionException
+	{
+		NestedNode parent = null;
+		StringBuilder sb = new StringBuilder();
+		for (String propertyName : path)
+		{
+			if (sb.length() > 0)
+				sb.append('.');
+			sb.append(propertyName);
+			String key = sb.toString();
+
+			NestedNode node = nodes.get(key);
+			if (node == null)
+			{
+				Class<?> parentClass = parent == null ? clazz : parent.type;
+				PropertyDescriptor pd = parentClass == null ? null : properties(parentClass, beans).get(propertyName);
+				Class<?> type = pd == null ? null : pd.getPropertyType();
+				Method read = pd == null ? null : pd.getReadMethod();
+				Method write = pd == null ? null : pd.getWriteMethod();
+				node = new NestedNode(nodes.size() + 1, parent == null ? 0 : parent.slot, key, propertyName, type,
+						read == null ? null : PropertyAccessors.getter(read, MappingPlanCache.getSetterBackend()),
+						setter(write),
+						type == null ? null : PropertyAccessors.factory(type, MappingPlanCache.getSetterBackend()));
+				nodes.put(key, node);
+			}
+			parent = node;
+		}
+		return parent;
+	}
+
+	/**
+	 * @return converter named by the annotation; null when not set
+	 */
+	static TypeConverter<?> converter(EasyColumn column) throws SomethingJustWrong
+	{
+		return column.converter() == void.class ? null : TypeConverters.instance(column.converter());
+	}
+
+	private static Class<?> type(Method m)
+	{
+		return m == null ? null : m.getParameterTypes()[0];
+	}
+
+	private static ColumnAssigner assigner(Method m, String name)
+	{
+		return m == null ? null : PrimitiveColumns.forSetter(m, name);
+	}
+
+	private static PropertySetter setter(Method m)
+	{
+		return m == null ? null : PropertyAccessors.setter(m, MappingPlanCache.getSetterBackend());
+	}
+
+	private static Map<String, PropertyDescriptor> properties(Class<?> clazz, Map<Class<?>, Map<String, PropertyDescriptor>> beans) throws IntrospectionException
+	{
+		Map<String, PropertyDescriptor> properties = beans.get(clazz);
+		if (properties == null)
+		{
+			properties = new HashMap<String, PropertyDescriptor>();
+			for (PropertyDescriptor pd : Introspector.getBeanInfo(clazz).getPropertyDescriptors())
+				properties.put(pd.getName(), pd);
+			beans.put(clazz, properties);
+		}
+		return properties;
+	}
+
+	private static Map<String, Method> setters(Class<?> clazz) throws IntrospectionException
+	{
+		Map<String, Method> setters = new HashMap<String, Method>();
+		// Returns descriptors for all properties of the bean.
+		for (PropertyDescriptor pd : Introspector.getBeanInfo(clazz).getPropertyDescriptors())
+			// Gets the method that should be used to write the property value.
+			setters.put(pd.getName(), pd.getWriteMethod());
+		return setters;
+	}
+
+}
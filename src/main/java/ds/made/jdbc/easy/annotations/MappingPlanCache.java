@@ -0,0 +1,137 @@
+package ds.made.jdbc.easy.annotations;
+
+import ds.made.jdbc.easy.model.Enums;
+import ds.made.jdbc.easy.utility.BoundedCache;
+
+/**
+Process wide cache of {@link MappingPlan}s keyed by class and result set column signature (names and types).<br/>
+Same query mapped to the same class is analyzed only once; bean introspection and column matching are skipped on later executions.<br/>
+Size is bounded (LRU eviction). Hit / miss / eviction counters show how well it works.<br/>
+Properties are written with setters compiled by the chosen {@link Enums.MAPPING_BACKEND} (LAMBDA by default).<br/>
+SQL NULL for a primitive property (int, long, double, ...) follows {@link Enums.PRIMITIVE_NULL} (ZERO by default).
+@author ds
+ */
+public final class MappingPlanCache
+{
+
+	public static final int DEFAULT_MAX_SIZE = 512;
+
+	private static final BoundedCache<MappingPlanKey, MappingPlan> CACHE = new BoundedCache<MappingPlanKey, MappingPlan>(DEFAULT_MAX_SIZE);
+
+	private static volatile Enums.MAPPING_BACKEND setterBackend = Enums.MAPPING_BACKEND.LAMBDA;
+	private static volatile Enums.PRIMITIVE_NULL primitiveNull = Enums.PRIMITIVE_NULL.ZERO;
+
+	private MappingPlanCache()
+	{
+	}
+
+	static MappingPlan get(MappingPlanKey key)
+	{
+		return CACHE.get(key);
+	}
+
+	static void put(MappingPlanKey key, MappingPlan plan)
+	{
+		CACHE.put(key, plan);
+	}
+
+	/**
+	 * How plans write properties. Cached plans are dropped.
+	 * @param backend LAMBDA (generated setters), METHOD_HANDLE or REFLECTION (Method.invoke)
+	 */
+	public static void setSetterBackend(Enums.MAPPING_BACKEND backend)
+	{
+		if (backend == null)
+			throw new IllegalArgumentException("Backend must not be null!");
+		setterBackend = backend;
+		CACHE.clear();
+		AggregatePlan.clear();
+		BeanWriter.clear();
+	}
+
+	public static Enums.MAPPING_BACKEND getSetterBackend()
+	{
+		return setterBackend;
+	}
+
+	/**
+	 * What SQL NULL becomes in a primitive property or scalar. Cached plans are dropped.
+	 * @param policy ZERO (0 / false) or FAIL (SomethingJustWrong)
+	 */
+	public static void setPrimitiveNull(Enums.PRIMITIVE_NULL policy)
+	{
+		if (policy == null)
+			throw new IllegalArgumentException("Policy must not be null!");
+		primitiveNull = policy;
+		CACHE.clear();
+		AggregatePlan.clear();
+	}
+
+	public static Enums.PRIMITIVE_NULL getPrimitiveNull()
+	{
+		return primitiveNull;
+	}
+
+	/**
+	 * Maximum number of cached plans.
+	 * @param maxSize at least 1
+	 */
+	public static void setMaxSize(int maxSize)
+	{
+		CACHE.setMaxSize(maxSize);
+	}
+
+	public static int getMaxSize()
+	{
+		return CACHE.getMaxSize();
+	}
+
+	public static int size()
+	{
+		return CACHE.size();
+	}
+
+	public static long getHits()
+	{
+		return CACHE.getHits();
+	}
+
+	public static long getMisses()
+	{
+		return CACHE.getMisses();
+	}
+
+	public static long getEvictions()
+	{
+		return CACHE.getEvictions();
+	}
+
+	public static double getHitRatio()
+	{
+		return CACHE.getHitRatio();
+	}
+
+	/**
+	 * Drops all plans and bean writers (e.g. after class reloading).
+	 */
+	public static void clear()
+	{
+		CACHE.clear();
+		AggregatePlan.clear();
+		BeanWriter.clear();
+	}
+
+	public static void resetStatistics()
+	{
+		CACHE.resetStatistics();
+	}
+
+	/**
+	 * @return cache state as text (for logging)
+	 */
+	public static String statistics()
+	{
+		return CACHE.toString();
+	}
+
+}
@@ -0,0 +1,106 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import ds.made.jdbc.easy.model.EasyColumnClassField;
+
+/**
+Key of a {@link MappingPlan}: target class, ordered result set columns (names and SQL types)
+and - for non annotated mapping - the manual field definitions.
+For internal usage.
+@author ds
+ */
+final class MappingPlanKey
+{
+
+	private final Class<?> clazz;
+	private final String[] columnNames;
+	private final int[] columnTypes;
+	private final String fieldsSignature;
+	private final int hash;
+
+	MappingPlanKey(Class<?> clazz, String[] columnNames, int[] columnTypes, String fieldsSignature)
+	{
+		this.clazz = clazz;
+		this.columnNames = columnNames;
+		this.columnTypes = columnTypes;
+		this.fieldsSignature = fieldsSignature;
+
+		int h = clazz.hashCode();
+		h = 31 * h + Arrays.hashCode(columnNames);
+		h = 31 * h + Arrays.hashCode(columnTypes);
+		h = 31 * h + (fieldsSignature == null ? 0 : fieldsSignature.hashCode());
+		this.hash = h;
+	}
+
+	static MappingPlanKey of(Class<?> clazz, ResultSetMetaData rsmd, EasyColumnClassField[] fields) throws SQLException
+	{
+		int count = rsmd.getColumnCount();
+		String[] names = new String[count];
+		int[] types = new int[count];
+		for (int idx = 1; idx <= count; idx++)
+		{
+			names[idx - 1] = rsmd.getColumnName(idx);
+			types[idx - 1] = rsmd.getColumnType(idx);
+		}
+		return new MappingPlanKey(clazz, names, types, signature(fields));
+	}
+
+	String[] getColumnNames()
+	{
+		return columnNames;
+	}
+
+	int[] getColumnTypes()
+	{
+		return columnTypes;
+	}
+
+	private static String signature(EasyColumnClassField[] fields)
+	{
+		if (fields == null)
+			return null;
+
+		StringBuilder sb = new StringBuilder();
+		for (EasyColumnClassField f : fields)
+		{
+			sb.append(f.dbFieldName).append('=');
+			if (f.nested)
+			{
+				for (String p : f.nestedPath)
+					sb.append(p).append('.');
+			}
+			sb.append(f.classPropertyName)
+				.append('|').append(f.enumFactoryClass == null ? "" : f.enumFactoryClass.getName() + '#' + f.staticEnumMethod)
+				.append('|').append(f.enumCode == null ? "" : f.enumCode)
+				.append('|').append(f.blob ? 'B' : '-').append(f.clob ? 'C' : '-')
+				.append(';');
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (this == obj)
+			return true;
+		if (!(obj instanceof MappingPlanKey))
+			return false;
+
+		MappingPlanKey other = (MappingPlanKey) obj;
+		return hash == other.hash
+				&& clazz == other.clazz
+				&& Arrays.equals(columnTypes, other.columnTypes)
+				&& Arrays.equals(columnNames, other.columnNames)
+				&& (fieldsSignature == null ? other.fieldsSignature == null : fieldsSignature.equals(other.fieldsSignature));
+	}
+
+}
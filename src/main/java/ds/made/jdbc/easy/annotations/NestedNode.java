@@ -0,0 +1,42 @@
+package ds.made.jdbc.easy.annotations;
+
+/**
+One intermediate bean on a nested property path (e.g. <code>customer</code> and <code>customer.address</code>
+for <code>customer.address.street</code>). Part of a {@link MappingPlan}.<br/>
+Nodes are shared by all columns under the same path prefix, so every intermediate object is resolved (or created) once per row.
+For internal usage.
+@author ds
+ */
+final class NestedNode
+{
+
+	/** Row buffer slot of this bean; slot 0 is the mapped object */
+	final int slot;
+	/** Row buffer slot of the owning bean */
+	final int parentSlot;
+	/** Dotted path from the mapped object */
+	final String path;
+	/** Property name on the owning bean */
+	final String propertyName;
+	/** Declared property type; null when the property does not exist */
+	final Class<?> type;
+	/** Null when there is no read method */
+	final PropertyGetter getter;
+	/** Null when there is no write method */
+	final PropertySetter setter;
+	/** Null when the type has no no argument constructor */
+	final ObjectFactory factory;
+
+	NestedNode(int slot, int parentSlot, String path, String propertyName, Class<?> type, PropertyGetter getter, PropertySetter setter, ObjectFactory factory)
+	{
+		this.slot = slot;
+		this.parentSlot = parentSlot;
+		this.path = path;
+		this.propertyName = propertyName;
+		this.type = type;
+		this.getter = getter;
+		this.setter = setter;
+		this.factory = factory;
+	}
+
+}
@@ -0,0 +1,17 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.lang.reflect.InvocationTargetException;
+
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+Creates instances through an all arguments constructor (immutable classes, records). Built once per class (see {@link PropertyAccessors}).
+For internal usage.
+@author ds
+ */
+interface ObjectConstructor
+{
+
+	Object newInstance(Object[] args) throws InstantiationException, IllegalAccessException, InvocationTargetException, SomethingJustWrong;
+
+}
@@ -0,0 +1,17 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.lang.reflect.InvocationTargetException;
+
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+Creates instances through a no argument constructor. Built once per class (see {@link PropertyAccessors}).
+For internal usage.
+@author ds
+ */
+interface ObjectFactory
+{
+
+	Object newInstance() throws InstantiationException, IllegalAccessException, InvocationTargetException, SomethingJustWrong;
+
+}
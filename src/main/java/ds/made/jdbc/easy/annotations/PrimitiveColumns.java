@@ -0,0 +1,362 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ds.made.jdbc.easy.model.Enums;
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+Primitive (boolean, byte, short, int, long, float, double) properties.<br/>
+Assigners read with the primitive getter (getLong, getInt, ...) and call the setter / write the field with the primitive value:
+no wrapper object per cell. SQL NULL follows {@link MappingPlanCache#getPrimitiveNull()}; with ZERO the JDBC default (0 / false) is taken as is,
+so wasNull() is not even called.<br/>
+Boxed readers are used where a value object is needed anyway (constructor arguments, REFLECTION backend).
+For internal usage.
+@author ds
+ */
+final class PrimitiveColumns
+{
+
+	private static final Logger MYLOGGER = Logger.getLogger(PrimitiveColumns.class.getName());
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private PrimitiveColumns()
+	{
+	}
+
+	static boolean supported(Class<?> type)
+	{
+		return type.isPrimitive() && type != void.class && type != char.class;
+	}
+
+	/**
+	 * Boxed reader; never returns null (see {@link Enums.PRIMITIVE_NULL}).
+	 * @param type primitive type
+	 * @param name property name (for messages)
+	 * @return reader or null when the type is not supported
+	 */
+	static ColumnReader reader(Class<?> type, final String name)
+	{
+		if (!supported(type))
+			return null;
+
+		final boolean fail = MappingPlanCache.getPrimitiveNull() == Enums.PRIMITIVE_NULL.FAIL;
+		if (type == long.class)
+			return (rs, idx) -> getLong(rs, idx, fail, name);
+		else if (type == int.class)
+			return (rs, idx) -> getInt(rs, idx, fail, name);
+		else if (type == double.class)
+			return (rs, idx) -> getDouble(rs, idx, fail, name);
+		else if (type == boolean.class)
+			return (rs, idx) -> getBoolean(rs, idx, fail, name);
+		else if (type == short.class)
+			return (rs, idx) -> getShort(rs, idx, fail, name);
+		else if (type == float.class)
+			return (rs, idx) -> getFloat(rs, idx, fail, name);
+		else
+			return (rs, idx) -> getByte(rs, idx, fail, name);
+	}
+
+	/**
+	 * @param m setter with one primitive parameter
+	 * @param name property name (for messages)
+	 * @return assigner or null (not primitive, REFLECTION backend, handle not possible)
+	 */
+	static ColumnAssigner forSetter(Method m, String name)
+	{
+		Class<?> type = m.getParameterTypes()[0];
+		Enums.MAPPING_BACKEND backend = MappingPlanCache.getSetterBackend();
+		if (!supported(type) || backend == Enums.MAPPING_BACKEND.REFLECTION)
+			return null;
+
+		boolean fail = MappingPlanCache.getPrimitiveNull() == Enums.PRIMITIVE_NULL.FAIL;
+		if (backend == Enums.MAPPING_BACKEND.LAMBDA && PropertyAccessors.lambdaCapable(m)
+				&& (type == long.class || type == int.class || type == double.class))
+		{
+			try
+			{
+				return lambda(m, type, fail, name);
+			}
+			catch (Throwable e)
+			{
+				MYLOGGER.log(Level.FINE, "Lambda assigner not possible for " + m + "!", e);
+			}
+		}
+
+		try
+		{
+			if (!m.isAccessible())
+				m.setAccessible(true);
+			return handle(LOOKUP.unreflect(m), type, fail, name);
+		}
+		catch (Throwable e)
+		{
+			MYLOGGER.log(Level.FINE, "Method handle assigner not possible for " + m + "!", e);
+			return null;
+		}
+	}
+
+	/**
+	 * @param f primitive field
+	 * @param name property name (for messages)
+	 * @return assigner or null (not primitive, REFLECTION backend, handle not possible)
+	 */
+	static ColumnAssigner forField(Field f, String name)
+	{
+		Class<?> type = f.getType();
+		if (!supported(type) || MappingPlanCache.getSetterBackend() == Enums.MAPPING_BACKEND.REFLECTION)
+			return null;
+
+		try
+		{
+			if (!f.isAccessible())
+				f.setAccessible(true);
+			return handle(LOOKUP.unreflectSetter(f), type, MappingPlanCache.getPrimitiveNull() == Enums.PRIMITIVE_NULL.FAIL, name);
+		}
+		catch (Throwable e)
+		{
+			MYLOGGER.log(Level.FINE, "Method handle assigner not possible for " + f + "!", e);
+			return null;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ColumnAssigner lambda(Method m, Class<?> type, final boolean fail, final String name) throws Throwable
+	{
+		Class<?> sam = type == long.class ? ObjLongConsumer.class : type == int.class ? ObjIntConsumer.class : ObjDoubleConsumer.class;
+		CallSite site = LambdaMetafactory.metafactory(
+				LOOKUP,
+				"accept",
+				MethodType.methodType(sam),
+				MethodType.methodType(void.class, Object.class, type),
+				LOOKUP.unreflect(m),
+				MethodType.methodType(void.class, m.getDeclaringClass(), type));
+		Object consumer = site.getTarget().invoke();
+
+		if (type == long.class)
+		{
+			final ObjLongConsumer<Object> c = (ObjLongConsumer<Object>) consumer;
+			return (rs, idx, bean) -> c.accept(bean, getLong(rs, idx, fail, name));
+		}
+		else if (type == int.class)
+		{
+			final ObjIntConsumer<Object> c = (ObjIntConsumer<Object>) consumer;
+			return (rs, idx, bean) -> c.accept(bean, getInt(rs, idx, fail, name));
+		}
+		else
+		{
+			final ObjDoubleConsumer<Object> c = (ObjDoubleConsumer<Object>) consumer;
+			return (rs, idx, bean) -> c.accept(bean, getDouble(rs, idx, fail, name));
+		}
+	}
+
+	/**
+	 * @param target (bean, primitive) void
+	 */
+	private static ColumnAssigner handle(MethodHandle target, Class<?> type, final boolean fail, final String name)
+	{
+		final MethodHandle mh = target.asType(MethodType.methodType(void.class, Object.class, type));
+		if (type == long.class)
+			return (rs, idx, bean) -> invoke(mh, bean, getLong(rs, idx, fail, name));
+		else if (type == int.class)
+			return (rs, idx, bean) -> invoke(mh, bean, getInt(rs, idx, fail, name));
+		else if (type == double.class)
+			return (rs, idx, bean) -> invoke(mh, bean, getDouble(rs, idx, fail, name));
+		else if (type == boolean.class)
+			return (rs, idx, bean) -> invoke(mh, bean, getBoolean(rs, idx, fail, name));
+		else if (type == short.class)
+			return (rs, idx, bean) -> invoke(mh, bean, getShort(rs, idx, fail, name));
+		else if (type == float.class)
+			return (rs, idx, bean) -> invoke(mh, bean, getFloat(rs, idx, fail, name));
+		else
+			return (rs, idx, bean) -> invoke(mh, bean, getByte(rs, idx, fail, name));
+	}
+
+	static long getLong(ResultSet rs, int idx, boolean fail, String name) throws SQLException, SomethingJustWrong
+	{
+		long v = rs.getLong(idx);
+		if (fail && v == 0 && rs.wasNull())
+			throw nullValue(name);
+		return v;
+	}
+
+	static int getInt(ResultSet rs, int idx, boolean fail, String name) throws SQLException, SomethingJustWrong
+	{
+		int v = rs.getInt(idx);
+		if (fail && v == 0 && rs.wasNull())
+			throw nullValue(name);
+		return v;
+	}
+
+	static double getDouble(ResultSet rs, int idx, boolean fail, String name) throws SQLException, SomethingJustWrong
+	{
+		double v = rs.getDouble(idx);
+		if (fail && v == 0 && rs.wasNull())
+			throw nullValue(name);
+		return v;
+	}
+
+	static boolean getBoolean(ResultSet rs, int idx, boolean fail, String name) throws SQLException, SomethingJustWrong
+	{
+		boolean v = rs.getBoolean(idx);
+		if (fail && !v && rs.wasNull())
+			throw nullValue(name);
+		return v;
+	}
+
+	static short getShort(ResultSet rs, int idx, boolean fail, String name) throws SQLException, SomethingJustWrong
+	{
+		short v = rs.getShort(idx);
+		if (fail && v == 0 && rs.wasNull())
+			throw nullValue(name);
+		return v;
+	}
+
+	static float getFloat(ResultSet rs, int idx, boolean fail, String name) throws SQLException, SomethingJustWrong
+	{
+		float v = rs.getFloat(idx);
+		if (fail && v == 0 && rs.wasNull())
+			throw nullValue(name);
+		return v;
+	}
+
+	static byte getByte(ResultSet rs, int idx, boolean fail, String name) throws SQLException, SomethingJustWrong
+	{
+		byte v = rs.getByte(idx);
+		if (fail && v == 0 && rs.wasNull())
+			throw nullValue(name);
+		return v;
+	}
+
+	private static SomethingJustWrong nullValue(String name)
+	{
+		return new SomethingJustWrong("NULL value for primitive " + name + "!");
+	}
+
+	private static void invoke(MethodHandle mh, Object bean, long v) throws SomethingJustWrong
+	{
+		try
+		{
+			mh.invokeExact(bean, v);
+		}
+		catch (RuntimeException | Error e)
+		{
+			throw e;
+		}
+		catch (Throwable e)
+		{
+			throw new SomethingJustWrong(e);
+		}
+	}
+
+	private static void invoke(MethodHandle mh, Object bean, int v) throws SomethingJustWrong
+	{
+		try
+		{
+			mh.invokeExact(bean, v);
+		}
+		catch (RuntimeException | Error e)
+		{
+			throw e;
+		}
+		catch (Throwable e)
+		{
+			throw new SomethingJustWrong(e);
+		}
+	}
+
+	private static void invoke(MethodHandle mh, Object bean, double v) throws SomethingJustWrong
+	{
+		try
+		{
+			mh.invokeExact(bean, v);
+		}
+		catch (RuntimeException | Error e)
+		{
+			throw e;
+		}
+		catch (Throwable e)
+		{
+			throw new SomethingJustWrong(e);
+		}
+	}
+
+	private static void invoke(MethodHandle mh, Object bean, boolean v) throws SomethingJustWrong
+	{
+		try
+		{
+			mh.invokeExact(bean, v);
+		}
+		catch (RuntimeException | Error e)
+		{
+			throw e;
+		}
+		catch (Throwable e)
+		{
+			throw new SomethingJustWrong(e);
+		}
+	}
+
+	private static void invoke(MethodHandle mh, Object bean, short v) throws SomethingJustWrong
+	{
+		try
+		{
+			mh.invokeExact(bean, v);
+		}
+		catch (RuntimeException | Error e)
+		{
+			throw e;
+		}
+		catch (Throwable e)
+		{
+			throw new SomethingJustWrong(e);
+		}
+	}
+
+	private static void invoke(MethodHandle mh, Object bean, float v) throws SomethingJustWrong
+	{
+		try
+		{
+			mh.invokeExact(bean, v);
+		}
+		catch (RuntimeException | Error e)
+		{
+			throw e;
+		}
+		catch (Throwable e)
+		{
+			throw new SomethingJustWrong(e);
+		}
+	}
+
+	private static void invoke(MethodHandle mh, Object bean, byte v) throws SomethingJustWrong
+	{
+		try
+		{
+			mh.invokeExact(bean, v);
+		}
+		catch (RuntimeException | Error e)
+		{
+			throw e;
+		}
+		catch (Throwable e)
+		{
+			throw new SomethingJustWrong(e);
+		}
+	}
+
+}
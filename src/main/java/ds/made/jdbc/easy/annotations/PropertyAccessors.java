@@ -0,0 +1,543 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ds.made.jdbc.easy.model.Enums;
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+Builds fast property accessors (setters, getters, constructors, fields) once per property:
+<ul>
+<li>LAMBDA - {@link LambdaMetafactory} generated {@link BiConsumer} / {@link Function} / {@link Supplier}, a direct (inlinable) call,</li>
+<li>METHOD_HANDLE - {@link MethodHandle} (non public classes, foreign class loaders),</li>
+<li>REFLECTION - {@link Method#invoke(Object, Object...)}.</li>
+</ul>
+When the requested backend cannot be used for a property, the next one in the list is taken.
+For internal usage.
+@author ds
+ */
+final class PropertyAccessors
+{
+
+	private static final Logger MYLOGGER = Logger.getLogger(PropertyAccessors.class.getName());
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	private static final MethodType SETTER_SAM = MethodType.methodType(void.class, Object.class, Object.class);
+	private static final MethodType GETTER_SAM = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType FACTORY_SAM = MethodType.methodType(Object.class);
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+	private PropertyAccessors()
+	{
+	}
+
+	/**
+	 * @param m write method (one parameter)
+	 * @param backend preferred backend
+	 * @return setter
+	 */
+	static PropertySetter setter(Method m, Enums.MAPPING_BACKEND backend)
+	{
+		if (backend == Enums.MAPPING_BACKEND.LAMBDA && lambdaCapable(m))
+		{
+			try
+			{
+				return lambdaSetter(m);
+			}
+			catch (Throwable e)
+			{
+				MYLOGGER.log(Level.FINE, "Lambda setter not possible for " + m + "!", e);
+			}
+		}
+		if (backend != Enums.MAPPING_BACKEND.REFLECTION)
+		{
+			try
+			{
+				return methodHandleSetter(m);
+			}
+			catch (Throwable e)
+			{
+				MYLOGGER.log(Level.FINE, "Method handle setter not possible for " + m + "!", e);
+			}
+		}
+		return reflectionSetter(m);
+	}
+
+	/**
+	 * @param c constructor (any visibility)
+	 * @param backend preferred backend; LAMBDA means METHOD_HANDLE here (arguments are spread from an array)
+	 * @return constructor call
+	 */
+	static ObjectConstructor constructor(final Constructor<?> c, Enums.MAPPING_BACKEND backend)
+	{
+		if (!c.isAccessible())
+			c.setAccessible(true);
+
+		if (backend != Enums.MAPPING_BACKEND.REFLECTION)
+		{
+			try
+			{
+				final MethodHandle mh = LOOKUP.unreflectConstructor(c)
+						.asSpreader(Object[].class, c.getParameterCount())
+						.asType(CONSTRUCTOR_TYPE);
+				return new ObjectConstructor()
+				{
+					@Override
+					public Object newInstance(Object[] args) throws SomethingJustWrong
+					{
+						try
+						{
+							return (Object) mh.invokeExact(args);
+						}
+						catch (RuntimeException | Error e)
+						{
+							throw e;
+						}
+						catch (Throwable e)
+						{
+							throw new SomethingJustWrong(e);
+						}
+					}
+				};
+			}
+			catch (Throwable e)
+			{
+				MYLOGGER.log(Level.FINE, "Method handle constructor not possible for " + c + "!", e);
+			}
+		}
+
+		return new ObjectConstructor()
+		{
+			@Override
+			public Object newInstance(Object[] args) throws InstantiationException, IllegalAccessException, InvocationTargetException
+			{
+				return c.newInstance(args);
+			}
+		};
+	}
+
+	/**
+	 * Direct field write; there is no lambda form for fields, so LAMBDA means METHOD_HANDLE here.
+	 * @param f instance field (any visibility)
+	 * @param backend preferred backend
+	 * @return setter
+	 */
+	static PropertySetter fieldSetter(final Field f, Enums.MAPPING_BACKEND backend)
+	{
+		if (!f.isAccessible())
+			f.setAccessible(true);
+
+		if (backend != Enums.MAPPING_BACKEND.REFLECTION)
+		{
+			try
+			{
+				final MethodHandle mh = LOOKUP.unreflectSetter(f).asType(SETTER_SAM);
+				return new PropertySetter()
+				{
+					@Override
+					public void set(Object bean, Object value) throws SomethingJustWrong
+					{
+						try
+						{
+							mh.invokeExact(bean, value);
+						}
+						catch (RuntimeException | Error e)
+						{
+							throw e;
+						}
+						catch (Throwable e)
+						{
+							throw new SomethingJustWrong(e);
+						}
+					}
+				};
+			}
+			catch (Throwable e)
+			{
+				MYLOGGER.log(Level.FINE, "Method handle field setter not possible for " + f + "!", e);
+			}
+		}
+
+		return new PropertySetter()
+		{
+			@Override
+			public void set(Object bean, Object value) throws IllegalAccessException
+			{
+				f.set(bean, value);
+			}
+		};
+	}
+
+	/**
+	 * @param f instance field (any visibility)
+	 * @param backend preferred backend
+	 * @return getter
+	 */
+	static PropertyGetter fieldGetter(final Field f, Enums.MAPPING_BACKEND backend)
+	{
+		if (!f.isAccessible())
+			f.setAccessible(true);
+
+		if (backend != Enums.MAPPING_BACKEND.REFLECTION)
+		{
+			try
+			{
+				final MethodHandle mh = LOOKUP.unreflectGetter(f).asType(GETTER_SAM);
+				return new PropertyGetter()
+				{
+					@Override
+					public Object get(Object bean) throws SomethingJustWrong
+					{
+						try
+						{
+							return (Object) mh.invokeExact(bean);
+						}
+						catch (RuntimeException | Error e)
+						{
+							throw e;
+						}
+						catch (Throwable e)
+						{
+							throw new SomethingJustWrong(e);
+						}
+					}
+				};
+			}
+			catch (Throwable e)
+			{
+				MYLOGGER.log(Level.FINE, "Method handle field getter not possible for " + f + "!", e);
+			}
+		}
+
+		return new PropertyGetter()
+		{
+			@Override
+			public Object get(Object bean) throws IllegalAccessException
+			{
+				return f.get(bean);
+			}
+		};
+	}
+
+	/**
+	 * @param m read method (no parameters)
+	 * @param backend preferred backend
+	 * @return getter
+	 */
+	static PropertyGetter getter(final Method m, Enums.MAPPING_BACKEND backend)
+	{
+		if (backend == Enums.MAPPING_BACKEND.LAMBDA && lambdaCapable(m))
+		{
+			try
+			{
+				return lambdaGetter(m);
+			}
+			catch (Throwable e)
+			{
+				MYLOGGER.log(Level.FINE, "Lambda getter not possible for " + m + "!", e);
+			}
+		}
+		if (backend != Enums.MAPPING_BACKEND.REFLECTION)
+		{
+			try
+			{
+				return methodHandleGetter(m);
+			}
+			catch (Throwable e)
+			{
+				MYLOGGER.log(Level.FINE, "Method handle getter not possible for " + m + "!", e);
+			}
+		}
+		return new PropertyGetter()
+		{
+			@Override
+			public Object get(Object bean) throws IllegalAccessException, InvocationTargetException
+			{
+				return m.invoke(bean);
+			}
+		};
+	}
+
+	/**
+	 * @param clazz class with a no argument constructor
+	 * @param backend preferred backend
+	 * @return factory; null when there is no no argument constructor
+	 */
+	static ObjectFactory factory(Class<?> clazz, Enums.MAPPING_BACKEND backend)
+	{
+		final Constructor<?> c;
+		try
+		{
+			c = clazz.getDeclaredConstructor();
+		}
+		catch (NoSuchMethodException e)
+		{
+			return null;
+		}
+
+		if (backend == Enums.MAPPING_BACKEND.LAMBDA && lambdaCapable(c))
+		{
+			try
+			{
+				return lambdaFactory(c);
+			}
+			catch (Throwable e)
+			{
+				MYLOGGER.log(Level.FINE, "Lambda factory not possible for " + c + "!", e);
+			}
+		}
+		if (backend != Enums.MAPPING_BACKEND.REFLECTION)
+		{
+			try
+			{
+				return methodHandleFactory(c);
+			}
+			catch (Throwable e)
+			{
+				MYLOGGER.log(Level.FINE, "Method handle factory not possible for " + c + "!", e);
+			}
+		}
+		if (!c.isAccessible())
+			c.setAccessible(true);
+		return new ObjectFactory()
+		{
+			@Override
+			public Object newInstance() throws InstantiationException, IllegalAccessException, InvocationTargetException
+			{
+				return c.newInstance();
+			}
+		};
+	}
+
+	static PropertySetter reflectionSetter(final Method m)
+	{
+		return new PropertySetter()
+		{
+			@Override
+			public void set(Object bean, Object value) throws IllegalAccessException, InvocationTargetException
+			{
+				m.invoke(bean, value);
+			}
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private static PropertySetter lambdaSetter(Method m) throws Throwable
+	{
+		MethodHandle target = LOOKUP.unreflect(m);
+		CallSite site = LambdaMetafactory.metafactory(
+				LOOKUP,
+				"accept",
+				MethodType.methodType(BiConsumer.class),
+				SETTER_SAM,
+				target,
+				MethodType.methodType(void.class, m.getDeclaringClass(), wrap(m.getParameterTypes()[0])));
+		final BiConsumer<Object, Object> consumer = (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+		return new PropertySetter()
+		{
+			@Override
+			public void set(Object bean, Object value)
+			{
+				consumer.accept(bean, value);
+			}
+		};
+	}
+
+	private static PropertySetter methodHandleSetter(Method m) throws IllegalAccessException
+	{
+		if (!m.isAccessible())
+			m.setAccessible(true);
+		final MethodHandle mh = LOOKUP.unreflect(m).asType(SETTER_SAM);
+		return new PropertySetter()
+		{
+			@Override
+			public void set(Object bean, Object value) throws SomethingJustWrong
+			{
+				try
+				{
+					mh.invokeExact(bean, value);
+				}
+				catch (RuntimeException | Error e)
+				{
+					throw e;
+				}
+				catch (Throwable e)
+				{
+					throw new SomethingJustWrong(e);
+				}
+			}
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private static PropertyGetter lambdaGetter(Method m) throws Throwable
+	{
+		MethodHandle target = LOOKUP.unreflect(m);
+		CallSite site = LambdaMetafactory.metafactory(
+				LOOKUP,
+				"apply",
+				MethodType.methodType(Function.class),
+				GETTER_SAM,
+				target,
+				MethodType.methodType(wrap(m.getReturnType()), m.getDeclaringClass()));
+		final Function<Object, Object> function = (Function<Object, Object>) site.getTarget().invokeExact();
+		return new PropertyGetter()
+		{
+			@Override
+			public Object get(Object bean)
+			{
+				return function.apply(bean);
+			}
+		};
+	}
+
+	private static PropertyGetter methodHandleGetter(Method m) throws IllegalAccessException
+	{
+		if (!m.isAccessible())
+			m.setAccessible(true);
+		final MethodHandle mh = LOOKUP.unreflect(m).asType(GETTER_SAM);
+		return new PropertyGetter()
+		{
+			@Override
+			public Object get(Object bean) throws SomethingJustWrong
+			{
+				try
+				{
+					return (Object) mh.invokeExact(bean);
+				}
+				catch (RuntimeException | Error e)
+				{
+					throw e;
+				}
+				catch (Throwable e)
+				{
+					throw new SomethingJustWrong(e);
+				}
+			}
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ObjectFactory lambdaFactory(Constructor<?> c) throws Throwable
+	{
+		MethodHandle target = LOOKUP.unreflectConstructor(c);
+		CallSite site = LambdaMetafactory.metafactory(
+				LOOKUP,
+				"get",
+				MethodType.methodType(Supplier.class),
+				FACTORY_SAM,
+				target,
+				MethodType.methodType(c.getDeclaringClass()));
+		final Supplier<Object> supplier = (Supplier<Object>) site.getTarget().invokeExact();
+		return new ObjectFactory()
+		{
+			@Override
+			public Object newInstance()
+			{
+				return supplier.get();
+			}
+		};
+	}
+
+	private static ObjectFactory methodHandleFactory(Constructor<?> c) throws IllegalAccessException
+	{
+		if (!c.isAccessible())
+			c.setAccessible(true);
+		final MethodHandle mh = LOOKUP.unreflectConstructor(c).asType(FACTORY_SAM);
+		return new ObjectFactory()
+		{
+			@Override
+			public Object newInstance() throws SomethingJustWrong
+			{
+				try
+				{
+					return (Object) mh.invokeExact();
+				}
+				catch (RuntimeException | Error e)
+				{
+					throw e;
+				}
+				catch (Throwable e)
+				{
+					throw new SomethingJustWrong(e);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Generated lambdas call the method directly; it must be public, in a public class, visible from this class loader.
+	 */
+	static boolean lambdaCapable(Method m)
+	{
+		if (!Modifier.isPublic(m.getModifiers()) || Modifier.isStatic(m.getModifiers()))
+			return false;
+
+		if (!publicClass(m.getDeclaringClass()) || !visible(m.getDeclaringClass()))
+			return false;
+
+		for (Class<?> p : m.getParameterTypes())
+		{
+			if (!visible(p))
+				return false;
+		}
+		return visible(m.getReturnType());
+	}
+
+	private static boolean lambdaCapable(Constructor<?> c)
+	{
+		return Modifier.isPublic(c.getModifiers())
+				&& !Modifier.isAbstract(c.getDeclaringClass().getModifiers())
+				&& publicClass(c.getDeclaringClass())
+				&& visible(c.getDeclaringClass());
+	}
+
+	private static boolean publicClass(Class<?> clazz)
+	{
+		for (Class<?> c = clazz; c != null; c = c.getEnclosingClass())
+		{
+			if (!Modifier.isPublic(c.getModifiers()))
+				return false;
+		}
+		return true;
+	}
+
+	private static boolean visible(Class<?> c)
+	{
+		while (c.isArray())
+			c = c.getComponentType();
+		if (c.isPrimitive())
+			return true;
+
+		try
+		{
+			return Class.forName(c.getName(), false, PropertyAccessors.class.getClassLoader()) == c;
+		}
+		catch (ClassNotFoundException e)
+		{
+			return false;
+		}
+	}
+
+	private static Class<?> wrap(Class<?> c)
+	{
+		if (!c.isPrimitive())
+			return c;
+		return MethodType.methodType(c).wrap().returnType();
+	}
+
+}
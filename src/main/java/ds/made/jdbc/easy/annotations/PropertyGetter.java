@@ -0,0 +1,17 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.lang.reflect.InvocationTargetException;
+
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+Reads one property of a bean. Built once per property (see {@link PropertyAccessors}).
+For internal usage.
+@author ds
+ */
+interface PropertyGetter
+{
+
+	Object get(Object bean) throws IllegalAccessException, InvocationTargetException, SomethingJustWrong;
+
+}
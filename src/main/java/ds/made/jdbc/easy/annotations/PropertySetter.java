@@ -0,0 +1,17 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.lang.reflect.InvocationTargetException;
+
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+Writes one property of a bean. Built once per property (see {@link PropertyAccessors}) and called for every row.
+For internal usage.
+@author ds
+ */
+interface PropertySetter
+{
+
+	void set(Object bean, Object value) throws IllegalAccessException, InvocationTargetException, SomethingJustWrong;
+
+}
@@ -0,0 +1,33 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+Maps the current row to a new instance with plain Java code (no reflection).<br/>
+Implementations are generated at compile time by {@link ds.made.jdbc.easy.processor.EasyRowProcessor}
+(class <code>&lt;EasyRow class&gt;_EasyRowMapper</code> in the same package) and picked up automatically, see {@link RowMappers}.
+@author ds
+ * @param <T> {@link EasyRow} class
+ */
+public interface RowMapper<T>
+{
+
+	/**
+	 * @return {@link EasyColumn} names read by this mapper
+	 */
+	String[] columns();
+
+	/**
+	 * @param rs result set positioned on a row
+	 * @param idx JDBC (one based) index of each of {@link #columns()}; 0 when the column is not in the result set
+	 * @return new instance
+	 */
+	T mapRow(ResultSet rs, int[] idx) throws SQLException, IOException, DatatypeConfigurationException, SomethingJustWrong;
+
+}
@@ -0,0 +1,137 @@
+package ds.made.jdbc.easy.annotations;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ds.made.jdbc.easy.model.Enums;
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+Lookup of generated {@link RowMapper}s (once per class) and helpers called by generated code.
+@author ds
+ */
+public final class RowMappers
+{
+
+	private static final Logger MYLOGGER = Logger.getLogger(RowMappers.class.getName());
+
+	public static final String SUFFIX = "_EasyRowMapper";
+
+	private static final ClassValue<RowMapper<?>> MAPPERS = new ClassValue<RowMapper<?>>()
+	{
+		@Override
+		protected RowMapper<?> computeValue(Class<?> type)
+		{
+			return load(type);
+		}
+	};
+
+	private static volatile boolean enabled = true;
+
+	private RowMappers()
+	{
+	}
+
+	/**
+	 * @param clazz {@link EasyRow} class
+	 * @return generated mapper or null (not generated or disabled)
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> RowMapper<T> find(Class<T> clazz)
+	{
+		return enabled ? (RowMapper<T>) MAPPERS.get(clazz) : null;
+	}
+
+	/**
+	 * Generated mappers are used by default; when disabled classes are mapped by reflection built plans. Cached plans are dropped.
+	 */
+	public static void setEnabled(boolean enabled)
+	{
+		RowMappers.enabled = enabled;
+		MappingPlanCache.clear();
+	}
+
+	public static boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	/**
+	 * @param packageName package of the mapped class
+	 * @param flatName class name without package (nested classes joined with '$')
+	 * @return binary name of the generated mapper: same package, nested class names joined with '_'
+	 */
+	public static String mapperName(String packageName, String flatName)
+	{
+		String simple = flatName.replace('$', '_') + SUFFIX;
+		return packageName.isEmpty() ? simple : packageName + "." + simple;
+	}
+
+	private static RowMapper<?> load(Class<?> clazz)
+	{
+		String name = clazz.getName();
+		int dot = name.lastIndexOf('.');
+		String mapperName = mapperName(dot < 0 ? "" : name.substring(0, dot), dot < 0 ? name : name.substring(dot + 1));
+		try
+		{
+			Class<?> mapper = Class.forName(mapperName, true, clazz.getClassLoader());
+			return (RowMapper<?>) mapper.getConstructor().newInstance();
+		}
+		catch (ClassNotFoundException e)
+		{
+			return null;
+		}
+		catch (ReflectiveOperationException | RuntimeException e)
+		{
+			MYLOGGER.log(Level.WARNING, "Generated mapper " + mapperName + " not usable!", e);
+			return null;
+		}
+	}
+
+	/*
+	 * Primitive reads for generated code; SQL NULL follows MappingPlanCache.getPrimitiveNull().
+	 */
+
+	public static long toLong(ResultSet rs, int idx, String name) throws SQLException, SomethingJustWrong
+	{
+		return PrimitiveColumns.getLong(rs, idx, failOnNull(), name);
+	}
+
+	public static int toInt(ResultSet rs, int idx, String name) throws SQLException, SomethingJustWrong
+	{
+		return PrimitiveColumns.getInt(rs, idx, failOnNull(), name);
+	}
+
+	public static double toDouble(ResultSet rs, int idx, String name) throws SQLException, SomethingJustWrong
+	{
+		return PrimitiveColumns.getDouble(rs, idx, failOnNull(), name);
+	}
+
+	public static boolean toBoolean(ResultSet rs, int idx, String name) throws SQLException, SomethingJustWrong
+	{
+		return PrimitiveColumns.getBoolean(rs, idx, failOnNull(), name);
+	}
+
+	public static short toShort(ResultSet rs, int idx, String name) throws SQLException, SomethingJustWrong
+	{
+		return PrimitiveColumns.getShort(rs, idx, failOnNull(), name);
+	}
+
+	public static float toFloat(ResultSet rs, int idx, String name) throws SQLException, SomethingJustWrong
+	{
+		return PrimitiveColumns.getFloat(rs, idx, failOnNull(), name);
+	}
+
+	public static byte toByte(ResultSet rs, int idx, String name) throws SQLException, SomethingJustWrong
+	{
+		return PrimitiveColumns.getByte(rs, idx, failOnNull(), name);
+	}
+
+	private static boolean failOnNull()
+	{
+		return MappingPlanCache.getPrimitiveNull() == Enums.PRIMITIVE_NULL.FAIL;
+	}
+
+}
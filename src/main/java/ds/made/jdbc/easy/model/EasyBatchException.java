@@ -0,0 +1,39 @@
+package ds.made.jdbc.easy.model;
+
+/**
+A row of an {@link ds.made.jdbc.easy.EasyBatchStatement} failed.<br/>
+Rows before the failing one may be written (and committed, when the batch commits); the cause is usually a {@link java.sql.BatchUpdateException}.
+@author ds
+ */
+public class EasyBatchException extends SomethingJustWrong
+{
+
+	private static final long serialVersionUID = 1L;
+
+	private final long failedRow;
+	private final int[] updateCounts;
+
+	public EasyBatchException(String message, Throwable cause, long failedRow, int[] updateCounts)
+	{
+		super(message, cause);
+		this.failedRow = failedRow;
+		this.updateCounts = updateCounts;
+	}
+
+	/**
+	 * @return zero based index of the failing row (order of addRow); -1 when unknown
+	 */
+	public long getFailedRow()
+	{
+		return failedRow;
+	}
+
+	/**
+	 * @return update counts of the rows before the failing row (when kept), see {@link EasyBatchResult#getUpdateCounts()}
+	 */
+	public int[] getUpdateCounts()
+	{
+		return updateCounts;
+	}
+
+}
@@ -0,0 +1,70 @@
+package ds.made.jdbc.easy.model;
+
+import java.sql.Statement;
+
+/**
+Outcome of an {@link ds.made.jdbc.easy.EasyBatchStatement}.
+@author ds
+ */
+public class EasyBatchResult
+{
+
+	private final long rows;
+	private final int batches;
+	private final int commits;
+	private final long updated;
+	private final int[] updateCounts;
+
+	public EasyBatchResult(long rows, int batches, int commits, long updated, int[] updateCounts)
+	{
+		this.rows = rows;
+		this.batches = batches;
+		this.commits = commits;
+		this.updated = updated;
+		this.updateCounts = updateCounts;
+	}
+
+	/**
+	 * @return rows sent
+	 */
+	public long getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * @return executeBatch round trips
+	 */
+	public int getBatches()
+	{
+		return batches;
+	}
+
+	public int getCommits()
+	{
+		return commits;
+	}
+
+	/**
+	 * @return sum of the known update counts (drivers may report {@link Statement#SUCCESS_NO_INFO} instead)
+	 */
+	public long getUpdated()
+	{
+		return updated;
+	}
+
+	/**
+	 * @return update count of each row (order of addRow); null when not kept
+	 */
+	public int[] getUpdateCounts()
+	{
+		return updateCounts;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "EasyBatchResult [rows=" + rows + ", batches=" + batches + ", commits=" + commits + ", updated=" + updated + "]";
+	}
+
+}
@@ -13,6 +13,7 @@ public class EasyColumnClassField
 	public final String classPropertyName;
 	public final Class<?> enumFactoryClass;
 	public final String staticEnumMethod;
+	public final String enumCode;
 	public final boolean blob;
 	public final boolean clob;
 	public final boolean isEnum;
@@ -25,6 +26,7 @@ public class EasyColumnClassField
 		this.dbFieldName = dbFieldName;
 		this.enumFactoryClass = enumFactoryClass;
 		this.staticEnumMethod = staticEnumMethod;
+		this.enumCode = null;
 		this.blob = blob;
 		this.clob = clob;
 		this.isEnum = isEnum;
@@ -50,6 +52,7 @@ public class EasyColumnClassField
 		
 		this.enumFactoryClass = null;
 		this.staticEnumMethod = null;
+		this.enumCode = null;
 		this.blob = false;
 		this.clob = false;
 		this.nested = false;
@@ -65,6 +68,7 @@ public class EasyColumnClassField
 		
 		this.enumFactoryClass = null;
 		this.staticEnumMethod = null;
+		this.enumCode = null;
 		this.blob = false;
 		this.clob = false;
 		
@@ -88,6 +92,7 @@ public class EasyColumnClassField
 		this.classPropertyName = classPropertyName;
 		this.enumFactoryClass = enumFactoryClass;
 		this.staticEnumMethod = staticEnumMethod;
+		this.enumCode = null;
 		isEnum = true;
 		
 		this.nested = false;
@@ -96,6 +101,30 @@ public class EasyColumnClassField
 		nestedPath = null;
 	}
 	
+	public EasyColumnClassField(String dbFieldName, String classPropertyName, boolean nested, String enumCode)
+	{
+		this.dbFieldName = dbFieldName;
+		this.enumCode = enumCode;
+		this.enumFactoryClass = null;
+		this.staticEnumMethod = null;
+		this.blob = false;
+		this.clob = false;
+		this.isEnum = true;
+
+		this.nested = nested;
+		if (nested)
+		{
+			String[] fields = classPropertyName.split("\\.");
+			this.nestedPath = Arrays.copyOf(fields, fields.length-1);
+			this.classPropertyName = fields[fields.length-1];
+		}
+		else
+		{
+			this.nestedPath = null;
+			this.classPropertyName = classPropertyName;
+		}
+	}
+	
 	public EasyColumnClassField(String dbFieldName, String classPropertyName, boolean blob, boolean clob)
 	{
 		this.dbFieldName = dbFieldName;
@@ -105,6 +134,7 @@ public class EasyColumnClassField
 
 		this.enumFactoryClass = null;
 		this.staticEnumMethod = null;
+		this.enumCode = null;
 		
 		this.nested = false;
 		isEnum = false;
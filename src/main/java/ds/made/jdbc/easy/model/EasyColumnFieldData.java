@@ -1,6 +1,8 @@
 package ds.made.jdbc.easy.model;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Parameter;
 
 import ds.made.jdbc.easy.annotations.EasyColumn;
 
@@ -11,18 +13,50 @@ For internal usage.
 public class EasyColumnFieldData
 {
 
+	/** Annotated field; null for a constructor parameter */
 	public final Field field;
+	/** Constructor of an annotated parameter; null for a field */
+	public final Constructor<?> constructor;
+	/** Index of an annotated constructor parameter; -1 for a field */
+	public final int parameterIndex;
+	/** Field / parameter name */
+	public final String propertyName;
+	/** Field / parameter type */
+	public final Class<?> propertyType;
 	public final EasyColumn column;
 	public final boolean isEnum;
 	
 	public EasyColumnFieldData(Field field, EasyColumn column)
+	{
+		this(field, null, -1, field.getName(), field.getType(), column);
+	}
+	
+	public EasyColumnFieldData(Constructor<?> constructor, int parameterIndex, EasyColumn column)
+	{
+		this(null, constructor, parameterIndex, parameterName(constructor.getParameters()[parameterIndex], column), constructor.getParameterTypes()[parameterIndex], column);
+	}
+	
+	/**
+	 * Parameter names are present only when compiled with -parameters (or for records); column name otherwise.
+	 */
+	private static String parameterName(Parameter parameter, EasyColumn column)
+	{
+		return parameter.isNamePresent() ? parameter.getName() : column.name();
+	}
+	
+	private EasyColumnFieldData(Field field, Constructor<?> constructor, int parameterIndex, String propertyName, Class<?> propertyType, EasyColumn column)
 	{
 		this.field = field;
+		this.constructor = constructor;
+		this.parameterIndex = parameterIndex;
+		this.propertyName = propertyName;
+		this.propertyType = propertyType;
 		this.column = column;
 		
 		if (column != null)
 		{
-			if (column.staticEnumMethod() == null || column.staticEnumMethod().trim().equals(""))
+			if ((column.staticEnumMethod() == null || column.staticEnumMethod().trim().equals(""))
+					&& (column.enumCode() == null || column.enumCode().trim().equals("")))
 				isEnum = false;
 			else
 				isEnum = true;
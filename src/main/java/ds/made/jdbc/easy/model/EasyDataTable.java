@@ -17,15 +17,25 @@ import java.util.stream.Stream;
 public class EasyDataTable
 {
     public final EasyDataTableColumn[] columns;
-    private final List<Object[]> rows;
+    private final ArrayList<Object[]> rows;
     private final ResultSet resultset;
     private Integer rowLimit = null;
 
     public EasyDataTable(ResultSet resultset) throws AnalysisBroke
+    {
+        this(resultset, false);
+    }
+
+    /**
+     * @param resultset
+     * @param trailingRowNumber last column is a technical row number (ROWNUM pagination) and is not read
+     * @throws AnalysisBroke
+     */
+    public EasyDataTable(ResultSet resultset, boolean trailingRowNumber) throws AnalysisBroke
     {
         this.resultset = resultset;
         rows = new ArrayList<>();
-        columns = analyze();
+        columns = analyze(trailingRowNumber);
     }
 
     public void setRowLimit(Integer rowLimit)
@@ -33,6 +43,15 @@ public class EasyDataTable
         this.rowLimit = rowLimit;
     }
 
+    /**
+     * @param expectedRows presize the row storage (e.g. from row counts of earlier executions)
+     */
+    public void setExpectedRows(int expectedRows)
+    {
+        if (expectedRows > 0)
+            rows.ensureCapacity(expectedRows);
+    }
+
     public int size()
     {
         return rows.size();
@@ -135,14 +154,7 @@ public class EasyDataTable
 
             Object[] items = new Object[columns.length];
             rows.add(items);
-
-            for (int idx=0; idx < columns.length; idx++)
-            {
-                Object o = resultset.getObject(idx+1);
-                if (resultset.wasNull())
-                    o = null;
-                items[idx] = mapSQLTypes(o);
-            }
+            readRow(items);
         }
     }
 
@@ -153,7 +165,7 @@ public class EasyDataTable
         while (resultset.next())
         {
             cnt++;
-            if (cnt < offset)
+            if (cnt <= offset)
                 continue;
             if (cnt > end)
                 break;
@@ -163,24 +175,52 @@ public class EasyDataTable
 
             Object[] items = new Object[columns.length];
             rows.add(items);
+            readRow(items);
+        }
+    }
 
-            for (int idx=0; idx < columns.length; idx++)
-            {
-                Object o = resultset.getObject(idx+1);
-                if (resultset.wasNull())
-                    o = null;
-                items[idx] = mapSQLTypes(o);
-            }
+    /**
+     * Hands over rows one by one without collecting them (the table stays empty).<br/>
+     * The same {@link EasyDataRow} and data array are reused for every row; copy the data to keep it.
+     * @param handler row callback
+     * @return true when the handler stopped reading before the end
+     */
+    public boolean executeForEach(RowHandler<? super EasyDataRow> handler) throws Exception
+    {
+        int cnt = 0;
+        EasyDataRow row = new EasyDataRow(new Object[columns.length]);
+        while (resultset.next())
+        {
+            cnt++;
+            if (rowLimit != null && cnt > rowLimit)
+                throw new EasyResultSetTooManyRows("Too many rows!");
+
+            readRow(row.getData());
+            if (!handler.handle(row))
+                return true;
+        }
+        return false;
+    }
+
+    private void readRow(Object[] items) throws SQLException
+    {
+        for (int idx=0; idx < columns.length; idx++)
+        {
+            Object o = resultset.getObject(idx+1);
+            if (resultset.wasNull())
+                o = null;
+            items[idx] = mapSQLTypes(o);
         }
     }
 
-    private EasyDataTableColumn[] analyze() throws AnalysisBroke
+    private EasyDataTableColumn[] analyze(boolean trailingRowNumber) throws AnalysisBroke
     {
         try
         {
             ResultSetMetaData rsmd = resultset.getMetaData();
-            EasyDataTableColumn[] cols = new EasyDataTableColumn[rsmd.getColumnCount()];
-            for (int idx = 1; idx <= rsmd.getColumnCount(); idx++)
+            int count = trailingRowNumber ? rsmd.getColumnCount() - 1 : rsmd.getColumnCount();
+            EasyDataTableColumn[] cols = new EasyDataTableColumn[count];
+            for (int idx = 1; idx <= count; idx++)
             {
                 String name = rsmd.getColumnName(idx);
                 int zeroBasedIndex = idx - 1;
@@ -0,0 +1,24 @@
+package ds.made.jdbc.easy.model;
+
+/**
+Unchecked carrier of a mapping / reading error inside a lazy {@link java.util.stream.Stream} of rows
+(stream operations cannot throw checked exceptions). The cause is the original exception, usually {@link SomethingJustWrong}.
+
+@author ds
+ */
+public class EasyStreamException extends RuntimeException
+{
+
+	private static final long serialVersionUID = 1L;
+
+	public EasyStreamException(String message, Throwable cause)
+	{
+		super(message, cause);
+	}
+
+	public EasyStreamException(Throwable cause)
+	{
+		super(cause);
+	}
+
+}
@@ -8,4 +8,12 @@ public class Enums
 	public enum PARAMETER_DIRECTION { IN, OUT, IN_OUT, RETURN };
 
 	public enum PARAMETER_DATE_TYPE { Util, LocalDate, LocalDateTime };
+
+	public enum MAPPING_BACKEND { LAMBDA, METHOD_HANDLE, REFLECTION };
+
+	public enum PRIMITIVE_NULL { ZERO, FAIL };
+
+	public enum SQL_DIALECT { ORACLE, ORACLE_LEGACY, LIMIT_OFFSET, NONE };
+
+	public enum FETCH_SIZE { DRIVER, FIXED, ROW_WIDTH, ADAPTIVE };
 }
@@ -0,0 +1,22 @@
+package ds.made.jdbc.easy.model;
+
+/**
+Push style row callback for executeForEach.<br/>
+Called once per row while the cursor is open; return false to stop reading.
+The statement is then cancelled and closed, so the rest of the result is never fetched.
+@author ds
+
+@param <T> mapped class or {@link EasyDataRow}
+ */
+@FunctionalInterface
+public interface RowHandler<T>
+{
+
+	/**
+	 * @param row current row
+	 * @return true to continue, false to stop
+	 * @throws Exception any error stops reading and is reported as {@link SomethingJustWrong}
+	 */
+	boolean handle(T row) throws Exception;
+
+}
@@ -0,0 +1,447 @@
+package ds.made.jdbc.easy.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import ds.made.jdbc.easy.annotations.RowMappers;
+
+/**
+Generates a {@link ds.made.jdbc.easy.annotations.RowMapper} for every {@link ds.made.jdbc.easy.annotations.EasyRow} class.<br/>
+The mapper reads columns by index and calls the annotated constructor, setters or (non private) fields directly.
+Classes the generated code cannot map (private members, unknown types, enum code tables) are skipped with a note
+and keep using the runtime mapping.<br/>
+Enable with the <code>processor</code> classifier artifact (see README).
+@author ds
+ */
+@SupportedAnnotationTypes(EasyRowProcessor.EASY_ROW)
+public class EasyRowProcessor extends AbstractProcessor
+{
+
+	static final String EASY_ROW = "ds.made.jdbc.easy.annotations.EasyRow";
+	static final String EASY_COLUMN = "ds.made.jdbc.easy.annotations.EasyColumn";
+
+	private static final String DBHELPER = "ds.made.jdbc.easy.utility.DBHelper";
+	private static final String LOBS = "ds.made.jdbc.easy.utility.Lobs";
+	private static final String ROW_MAPPERS = "ds.made.jdbc.easy.annotations.RowMappers";
+
+	@Override
+	public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+	{
+		for (TypeElement annotation : annotations)
+		{
+			for (Element e : roundEnv.getElementsAnnotatedWith(annotation))
+			{
+				if (e.getKind() == ElementKind.CLASS || e.getKind().name().equals("RECORD"))
+					generate((TypeElement) e);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * One column of the generated mapper.
+	 */
+	private static final class Column
+	{
+		String name;
+		String property;
+		TypeMirror type;
+		String enumFactoryClass;
+		String staticEnumMethod;
+		String enumCode;
+		boolean blob;
+		boolean clob;
+		/** Explicit type converter class; null when not set */
+		String converter;
+		/** Setter name; null for field / constructor access */
+		String setter;
+	}
+
+	private void generate(TypeElement clazz)
+	{
+		try
+		{
+			String reason = accessible(clazz);
+			List<Column> columns = new ArrayList<Column>();
+			ExecutableElement constructor = annotatedConstructor(clazz);
+			if (reason == null)
+				reason = constructor != null ? constructorColumns(constructor, columns) : fieldColumns(clazz, columns);
+			if (reason == null && columns.isEmpty())
+				reason = "no @EasyColumn";
+			if (reason == null)
+			{
+				for (Column c : columns)
+				{
+					if (hasText(c.enumCode))
+					{
+						reason = "enum code table of " + c.property;
+						break;
+					}
+					if (c.converter != null)
+					{
+						reason = "type converter of " + c.property;
+						break;
+					}
+					if (hasText(c.staticEnumMethod) && c.enumFactoryClass == null)
+					{
+						reason = "enum factory of " + c.property + " has no enumFactoryClass";
+						break;
+					}
+					if (read(c, "1") == null)
+					{
+						reason = "type " + c.type + " of " + c.property + " is not supported";
+						break;
+					}
+				}
+			}
+			if (reason != null)
+			{
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "No row mapper generated for " + clazz.getQualifiedName() + ": " + reason + ".", clazz);
+				return;
+			}
+
+			write(clazz, constructor, columns);
+		}
+		catch (IOException e)
+		{
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Row mapper for " + clazz.getQualifiedName() + " not written: " + e, clazz);
+		}
+	}
+
+	/**
+	 * @return null when generated code (same package) can create the class; reason otherwise
+	 */
+	private String accessible(TypeElement clazz)
+	{
+		for (Element e = clazz; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement())
+		{
+			if (e.getModifiers().contains(Modifier.PRIVATE))
+				return "private class";
+			if (e instanceof TypeElement && ((TypeElement) e).getNestingKind() == NestingKind.MEMBER && !e.getModifiers().contains(Modifier.STATIC)
+					&& e.getKind() == ElementKind.CLASS)
+				return "inner (non static) class";
+			if (e instanceof TypeElement && ((TypeElement) e).getNestingKind().isNested() && ((TypeElement) e).getNestingKind() != NestingKind.MEMBER)
+				return "local class";
+		}
+		if (clazz.getModifiers().contains(Modifier.ABSTRACT))
+			return "abstract class";
+		return null;
+	}
+
+	private ExecutableElement annotatedConstructor(TypeElement clazz)
+	{
+		ExecutableElement found = null;
+		for (ExecutableElement c : ElementFilter.constructorsIn(clazz.getEnclosedElements()))
+		{
+			if (c.getParameters().isEmpty() || (found != null && found.getParameters().size() >= c.getParameters().size()))
+				continue;
+
+			boolean all = true;
+			for (VariableElement p : c.getParameters())
+			{
+				if (column(p) == null)
+				{
+					all = false;
+					break;
+				}
+			}
+			if (all)
+				found = c;
+		}
+		return found;
+	}
+
+	private String constructorColumns(ExecutableElement constructor, List<Column> columns)
+	{
+		if (constructor.getModifiers().contains(Modifier.PRIVATE))
+			return "private constructor";
+
+		for (VariableElement p : constructor.getParameters())
+			columns.add(toColumn(p, column(p), null));
+		return null;
+	}
+
+	private String fieldColumns(TypeElement clazz, List<Column> columns)
+	{
+		boolean noArgs = false;
+		for (ExecutableElement c : ElementFilter.constructorsIn(clazz.getEnclosedElements()))
+		{
+			if (c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE))
+				noArgs = true;
+		}
+		if (!noArgs)
+			return "no accessible no argument constructor";
+
+		boolean fieldAccess = Boolean.TRUE.equals(value(annotation(clazz, EASY_ROW), "fieldAccess"));
+		for (VariableElement f : ElementFilter.fieldsIn(clazz.getEnclosedElements()))
+		{
+			AnnotationMirror a = column(f);
+			if (a == null)
+				continue;
+
+			if (fieldAccess)
+			{
+				if (f.getModifiers().contains(Modifier.PRIVATE) || f.getModifiers().contains(Modifier.FINAL) || f.getModifiers().contains(Modifier.STATIC))
+					return "field " + f.getSimpleName() + " is private, final or static";
+				columns.add(toColumn(f, a, null));
+			}
+			else
+			{
+				String setter = setter(clazz, f);
+				if (setter == null)
+					return "no accessible setter for " + f.getSimpleName();
+				columns.add(toColumn(f, a, setter));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * JavaBean setter: set + capitalized name, one parameter of the field type.
+	 */
+	private String setter(TypeElement clazz, VariableElement f)
+	{
+		String name = f.getSimpleName().toString();
+		String setter = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		for (ExecutableElement m : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(clazz)))
+		{
+			if (m.getSimpleName().contentEquals(setter) && m.getParameters().size() == 1
+					&& processingEnv.getTypeUtils().isSameType(m.getParameters().get(0).asType(), f.asType())
+					&& !m.getModifiers().contains(Modifier.PRIVATE) && !m.getModifiers().contains(Modifier.STATIC))
+				return setter;
+		}
+		return null;
+	}
+
+	private Column toColumn(VariableElement e, AnnotationMirror a, String setter)
+	{
+		Column c = new Column();
+		c.name = (String) value(a, "name");
+		c.property = e.getSimpleName().toString();
+		c.type = e.asType();
+		Object factory = value(a, "enumFactoryClass");
+		c.enumFactoryClass = factory == null ? null : factory.toString();
+		c.staticEnumMethod = (String) value(a, "staticEnumMethod");
+		c.enumCode = (String) value(a, "enumCode");
+		c.blob = Boolean.TRUE.equals(value(a, "blob"));
+		c.clob = Boolean.TRUE.equals(value(a, "clob"));
+		Object converter = value(a, "converter");
+		c.converter = converter == null || "void".equals(converter.toString()) ? null : converter.toString();
+		c.setter = setter;
+		return c;
+	}
+
+	/**
+	 * Read expression of a column; same precedence as the runtime mapping (known types, primitives, enum factory, BLOB).
+	 * @return expression or null when the type is not supported
+	 */
+	private String read(Column c, String idx)
+	{
+		TypeMirror t = c.type;
+		if (t.getKind().isPrimitive())
+		{
+			String name = "\"" + c.property + "\"";
+			switch (t.getKind())
+			{
+				case LONG: return ROW_MAPPERS + ".toLong(rs, " + idx + ", " + name + ")";
+				case INT: return ROW_MAPPERS + ".toInt(rs, " + idx + ", " + name + ")";
+				case DOUBLE: return ROW_MAPPERS + ".toDouble(rs, " + idx + ", " + name + ")";
+				case BOOLEAN: return ROW_MAPPERS + ".toBoolean(rs, " + idx + ", " + name + ")";
+				case SHORT: return ROW_MAPPERS + ".toShort(rs, " + idx + ", " + name + ")";
+				case FLOAT: return ROW_MAPPERS + ".toFloat(rs, " + idx + ", " + name + ")";
+				case BYTE: return ROW_MAPPERS + ".toByte(rs, " + idx + ", " + name + ")";
+				default: return null;
+			}
+		}
+
+		String type = processingEnv.getTypeUtils().erasure(t).toString();
+		switch (type)
+		{
+			case "java.lang.String":
+				return c.clob ? LOBS + ".convertClobToString(rs.getClob(" + idx + "))" : DBHELPER + ".toString(" + idx + ", rs)";
+			case "java.time.LocalDate": return DBHELPER + ".toLocalDate(" + idx + ", rs)";
+			case "java.time.LocalDateTime": return DBHELPER + ".toLocalDateTime(" + idx + ", rs)";
+			case "java.util.Date": return DBHELPER + ".toDate(" + idx + ", rs)";
+			case "java.sql.Date": return "rs.getDate(" + idx + ")";
+			case "java.sql.Timestamp": return "rs.getTimestamp(" + idx + ")";
+			case "javax.xml.datatype.XMLGregorianCalendar": return DBHELPER + ".toXMLGregorianCalendar(" + idx + ", rs)";
+			case "java.math.BigDecimal": return DBHELPER + ".toBigDecimal(" + idx + ", rs)";
+			case "java.math.BigInteger": return DBHELPER + ".toBigInteger(" + idx + ", rs)";
+			case "java.lang.Integer": return DBHELPER + ".toInteger(" + idx + ", rs)";
+			case "java.lang.Long": return DBHELPER + ".toLong(" + idx + ", rs)";
+			case "java.lang.Short": return DBHELPER + ".toShort(" + idx + ", rs)";
+			case "java.lang.Double": return DBHELPER + ".toDouble(" + idx + ", rs)";
+			case "java.lang.Boolean": return DBHELPER + ".toBoolean(" + idx + ", rs)";
+			default:
+				break;
+		}
+
+		if (hasText(c.enumCode))
+			return null;
+		if (hasText(c.staticEnumMethod))
+		{
+			ExecutableElement m = enumFactory(c);
+			if (m == null)
+				return null;
+			String call = c.enumFactoryClass + "." + c.staticEnumMethod + "(" + DBHELPER + ".toString(" + idx + ", rs))";
+			return processingEnv.getTypeUtils().isAssignable(m.getReturnType(), t) ? call : "(" + type + ") " + call;
+		}
+		if (c.blob && t.getKind() == TypeKind.ARRAY && type.equals("byte[]"))
+			return LOBS + ".convertBlobToArray(rs.getBlob(" + idx + "))";
+		return null;
+	}
+
+	/**
+	 * Factory must be a public static method (String) of a public class.
+	 * @return factory method; null when there is none
+	 */
+	private ExecutableElement enumFactory(Column c)
+	{
+		if (c.enumFactoryClass == null)
+			return null;
+		TypeElement factory = processingEnv.getElementUtils().getTypeElement(c.enumFactoryClass);
+		if (factory == null || !factory.getModifiers().contains(Modifier.PUBLIC))
+			return null;
+
+		for (ExecutableElement m : ElementFilter.methodsIn(factory.getEnclosedElements()))
+		{
+			if (m.getSimpleName().contentEquals(c.staticEnumMethod) && m.getModifiers().contains(Modifier.PUBLIC) && m.getModifiers().contains(Modifier.STATIC)
+					&& m.getParameters().size() == 1 && m.getParameters().get(0).asType().toString().equals("java.lang.String"))
+				return m;
+		}
+		return null;
+	}
+
+	private void write(TypeElement clazz, ExecutableElement constructor, List<Column> columns) throws IOException
+	{
+		PackageElement pkg = processingEnv.getElementUtils().getPackageOf(clazz);
+		String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+		String binaryName = processingEnv.getElementUtils().getBinaryName(clazz).toString();
+		String flatName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+		String mapperName = RowMappers.mapperName(packageName, flatName);
+		String simpleName = mapperName.substring(mapperName.lastIndexOf('.') + 1);
+		String type = clazz.getQualifiedName().toString();
+
+		StringBuilder sb = new StringBuilder();
+		if (!packageName.isEmpty())
+			sb.append("package ").append(packageName).append(";\n\n");
+		sb.append("/**\n * Generated by ").append(EasyRowProcessor.class.getName()).append(" for {@link ").append(type).append("}. Do not edit.\n */\n");
+		sb.append("public final class ").append(simpleName).append(" implements ds.made.jdbc.easy.annotations.RowMapper<").append(type).append(">\n{\n\n");
+
+		sb.append("\tprivate static final String[] COLUMNS = {");
+		for (int k = 0; k < columns.size(); k++)
+			sb.append(k == 0 ? " " : ", ").append('"').append(columns.get(k).name).append('"');
+		sb.append(" };\n\n");
+
+		sb.append("\t@Override\n\tpublic String[] columns()\n\t{\n\t\treturn COLUMNS.clone();\n\t}\n\n");
+
+		sb.append("\t@Override\n\tpublic ").append(type).append(" mapRow(java.sql.ResultSet rs, int[] idx) throws java.sql.SQLException, java.io.IOException, javax.xml.datatype.DatatypeConfigurationException, ds.made.jdbc.easy.model.SomethingJustWrong\n\t{\n");
+		if (constructor != null)
+		{
+			for (int k = 0; k < columns.size(); k++)
+			{
+				Column c = columns.get(k);
+				String argType = c.type.getKind().isPrimitive() ? c.type.toString() : processingEnv.getTypeUtils().erasure(c.type).toString();
+				String empty = c.type.getKind() == TypeKind.BOOLEAN ? "false" : c.type.getKind().isPrimitive() ? "0" : "null";
+				sb.append("\t\t").append(argType).append(" a").append(k).append(" = idx[").append(k).append("] == 0 ? ").append(empty)
+					.append(" : ").append(read(c, "idx[" + k + "]")).append(";\n");
+			}
+			sb.append("\t\treturn new ").append(type).append('(');
+			for (int k = 0; k < columns.size(); k++)
+				sb.append(k == 0 ? "" : ", ").append('a').append(k);
+			sb.append(");\n");
+		}
+		else
+		{
+			sb.append("\t\t").append(type).append(" t = new ").append(type).append("();\n");
+			for (int k = 0; k < columns.size(); k++)
+			{
+				Column c = columns.get(k);
+				sb.append("\t\tif (idx[").append(k).append("] != 0)\n\t\t\t");
+				if (c.setter != null)
+					sb.append("t.").append(c.setter).append('(').append(read(c, "idx[" + k + "]")).append(");\n");
+				else
+					sb.append("t.").append(c.property).append(" = ").append(read(c, "idx[" + k + "]")).append(";\n");
+			}
+			sb.append("\t\treturn t;\n");
+		}
+		sb.append("\t}\n\n}\n");
+
+		try (Writer w = processingEnv.getFiler().createSourceFile(mapperName, clazz).openWriter())
+		{
+			w.write(sb.toString());
+		}
+	}
+
+	private static AnnotationMirror column(Element e)
+	{
+		return annotation(e, EASY_COLUMN);
+	}
+
+	private static AnnotationMirror annotation(Element e, String annotation)
+	{
+		for (AnnotationMirror a : e.getAnnotationMirrors())
+		{
+			if (((TypeElement) a.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation))
+				return a;
+		}
+		return null;
+	}
+
+	/**
+	 * Annotation value; null for defaults (enumFactoryClass Object and empty strings are returned as null as well).
+	 */
+	private static Object value(AnnotationMirror a, String name)
+	{
+		if (a == null)
+			return null;
+
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : a.getElementValues().entrySet())
+		{
+			if (e.getKey().getSimpleName().contentEquals(name))
+			{
+				Object v = e.getValue().getValue();
+				if (v instanceof DeclaredType)
+					return ((TypeElement) ((DeclaredType) v).asElement()).getQualifiedName().toString();
+				return v;
+			}
+		}
+		return null;
+	}
+
+	private static boolean hasText(String s)
+	{
+		return s != null && !s.trim().isEmpty();
+	}
+
+}
@@ -0,0 +1,172 @@
+package ds.made.jdbc.easy.utility;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+Thread safe, size bounded LRU cache with hit / miss / eviction counters.<br/>
+When the cache is full the least recently used entry is evicted.
+@author ds
+
+@param <K> key
+@param <V> value
+*/
+public class BoundedCache<K, V>
+{
+
+	private final LinkedHashMap<K, V> map;
+	private int maxSize;
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	/**
+	 * @param maxSize maximum number of entries (at least 1)
+	 */
+	public BoundedCache(int maxSize)
+	{
+		if (maxSize < 1)
+			throw new IllegalArgumentException("Cache size must be at least 1!");
+
+		this.maxSize = maxSize;
+		this.map = new LinkedHashMap<K, V>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest)
+			{
+				if (size() > BoundedCache.this.maxSize)
+				{
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Cached value or null. Counts a hit or a miss.
+	 * @param key key
+	 * @return value or null
+	 */
+	public synchronized V get(K key)
+	{
+		V v = map.get(key);
+		if (v == null)
+			misses++;
+		else
+			hits++;
+		return v;
+	}
+
+	/**
+	 * Stores the value. May evict the least recently used entry.
+	 * @param key key
+	 * @param value value
+	 */
+	public synchronized void put(K key, V value)
+	{
+		map.put(key, value);
+	}
+
+	/**
+	 * Stores the value unless the key is cached (atomic get or put). Counts a hit or a miss.
+	 * @param key key
+	 * @param value value stored when the key is not cached
+	 * @return cached value; the given value when it was stored
+	 */
+	public synchronized V putIfAbsent(K key, V value)
+	{
+		V v = get(key);
+		if (v != null)
+			return v;
+		map.put(key, value);
+		return value;
+	}
+
+	public synchronized V remove(K key)
+	{
+		return map.remove(key);
+	}
+
+	public synchronized int size()
+	{
+		return map.size();
+	}
+
+	public synchronized int getMaxSize()
+	{
+		return maxSize;
+	}
+
+	/**
+	 * Changes the bound; the least recently used entries are evicted when shrinking.
+	 * @param maxSize maximum number of entries (at least 1)
+	 */
+	public synchronized void setMaxSize(int maxSize)
+	{
+		if (maxSize < 1)
+			throw new IllegalArgumentException("Cache size must be at least 1!");
+
+		this.maxSize = maxSize;
+		Iterator<K> itr = map.keySet().iterator();
+		while (map.size() > maxSize && itr.hasNext())
+		{
+			itr.next();
+			itr.remove();
+			evictions++;
+		}
+	}
+
+	/**
+	 * Removes all entries. Counters are left as they are.
+	 */
+	public synchronized void clear()
+	{
+		map.clear();
+	}
+
+	/**
+	 * Resets hit / miss / eviction counters.
+	 */
+	public synchronized void resetStatistics()
+	{
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+
+	public synchronized long getHits()
+	{
+		return hits;
+	}
+
+	public synchronized long getMisses()
+	{
+		return misses;
+	}
+
+	public synchronized long getEvictions()
+	{
+		return evictions;
+	}
+
+	/**
+	 * @return hits / (hits + misses) or 0 when there were no lookups
+	 */
+	public synchronized double getHitRatio()
+	{
+		long all = hits + misses;
+		return all == 0 ? 0d : (double)hits / all;
+	}
+
+	@Override
+	public synchronized String toString()
+	{
+		return "BoundedCache [size=" + map.size() + ", maxSize=" + maxSize + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+	}
+
+}
@@ -56,6 +56,24 @@ public class DBClosingManager
 		}
 	}
 
+	/**
+	 * Asks the database to stop producing rows (early end of reading). Drivers that do not support it are ignored.
+	 */
+	public static Exception cancelAndContinue(Statement statement)
+	{
+		try
+		{
+			if (statement != null)
+				statement.cancel();
+			return null;
+		}
+		catch (Exception e)
+		{
+			MYLOGGER.log(Level.WARNING, "Error cancelling Statement!", e);
+			return e;
+		}
+	}
+
 	public static Exception closeAndContinue(NamedParameterCallableStatement statement)
 	{
 		try
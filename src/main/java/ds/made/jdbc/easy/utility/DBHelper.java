@@ -27,7 +27,7 @@ public class DBHelper
 
     public static Object toObject(int fieldPosition, ResultSet rs) throws SQLException
     {
-        Object o = rs.getObject(1);
+        Object o = rs.getObject(fieldPosition);
         if (rs.wasNull())
             return null;
         return o;
@@ -145,6 +145,38 @@ public class DBHelper
         return i;
     }
     
+    public static Double toDouble(String fieldName, ResultSet rs) throws SQLException
+    {
+        Double d = rs.getDouble(fieldName);
+        if (rs.wasNull())
+            return null;
+        return d;
+    }
+
+    public static Double toDouble(int fieldPosition, ResultSet rs) throws SQLException
+    {
+        Double d = rs.getDouble(fieldPosition);
+        if (rs.wasNull())
+            return null;
+        return d;
+    }
+
+    public static Boolean toBoolean(String fieldName, ResultSet rs) throws SQLException
+    {
+        Boolean b = rs.getBoolean(fieldName);
+        if (rs.wasNull())
+            return null;
+        return b;
+    }
+
+    public static Boolean toBoolean(int fieldPosition, ResultSet rs) throws SQLException
+    {
+        Boolean b = rs.getBoolean(fieldPosition);
+        if (rs.wasNull())
+            return null;
+        return b;
+    }
+
     public static String toString(String fieldName, ResultSet rs) throws SQLException
     {
         String s = rs.getString(fieldName);
@@ -88,6 +88,30 @@ public class EasyColumnClassFieldFactory
 		return new EasyColumnClassField(dbFieldName, classPropertyName, enumFactoryClass, staticEnumMethod);
 	}
 
+	/**
+	 * Enum column class field mapper through a code lookup table.
+	 * @param dbFieldName Database field name
+	 * @param classPropertyName Java class enum property exposed as setter
+	 * @param enumCode Enum method (no arguments) or field holding the database code of a constant
+	 * @return code to Enum EasyColumnClassField
+	 */
+	public static EasyColumnClassField enumerationByCode(String dbFieldName, String classPropertyName, String enumCode)
+	{
+		return new EasyColumnClassField(dbFieldName, classPropertyName, false, enumCode);
+	}
+
+	/**
+	 * Nested Enum column class field mapper through a code lookup table.
+	 * @param dbFieldName Database field name
+	 * @param nestedPropertyName Java nested class property exposed as setter
+	 * @param enumCode Enum method (no arguments) or field holding the database code of a constant
+	 * @return code to Enum EasyColumnClassField
+	 */
+	public static EasyColumnClassField nestedEnumerationByCode(String dbFieldName, String nestedPropertyName, String enumCode)
+	{
+		return new EasyColumnClassField(dbFieldName, nestedPropertyName, true, enumCode);
+	}
+
 	/**
 	 * Nested Enum column class field mapper.
 	 * @param dbFieldName Database field name
@@ -0,0 +1,245 @@
+package ds.made.jdbc.easy.utility;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ds.made.jdbc.easy.model.Enums;
+
+/**
+Rows fetched per database round trip ({@link Statement#setFetchSize(int)}).<br/>
+<ul>
+<li>DRIVER - driver default (Oracle: 10 rows),</li>
+<li>FIXED - given number of rows,</li>
+<li>ROW_WIDTH - as many rows as fit the buffer, row width estimated from the result set meta data,</li>
+<li>ADAPTIVE - row count of the last executions of the same SQL ({@link RowCountHistory}), within the ROW_WIDTH buffer.</li>
+</ul>
+Never more rows than the statement can return (page size, row limit).
+@author ds
+ */
+public final class FetchSizePolicy
+{
+
+	private static final Logger MYLOGGER = Logger.getLogger(FetchSizePolicy.class.getName());
+
+	public static final int DEFAULT_BUFFER_BYTES = 512 * 1024;
+	public static final int MIN_ROWS = 10;
+	public static final int MAX_ROWS = 5000;
+
+	/** Estimated bytes of a LOB locator / unknown column */
+	private static final int LOB_BYTES = 100;
+	private static final int NUMBER_BYTES = 22;
+	private static final int OTHER_BYTES = 32;
+
+	private static volatile FetchSizePolicy defaultPolicy = driver();
+
+	private final Enums.FETCH_SIZE mode;
+	private final int rows;
+	private final int bufferBytes;
+
+	private FetchSizePolicy(Enums.FETCH_SIZE mode, int rows, int bufferBytes)
+	{
+		this.mode = mode;
+		this.rows = rows;
+		this.bufferBytes = bufferBytes;
+	}
+
+	public static FetchSizePolicy driver()
+	{
+		return new FetchSizePolicy(Enums.FETCH_SIZE.DRIVER, 0, 0);
+	}
+
+	public static FetchSizePolicy fixed(int rows)
+	{
+		if (rows < 1)
+			throw new IllegalArgumentException("Fetch size must be at least 1!");
+		return new FetchSizePolicy(Enums.FETCH_SIZE.FIXED, rows, 0);
+	}
+
+	public static FetchSizePolicy rowWidth()
+	{
+		return rowWidth(DEFAULT_BUFFER_BYTES);
+	}
+
+	/**
+	 * @param bufferBytes memory for one round trip
+	 */
+	public static FetchSizePolicy rowWidth(int bufferBytes)
+	{
+		return new FetchSizePolicy(Enums.FETCH_SIZE.ROW_WIDTH, 0, Math.max(bufferBytes, 1));
+	}
+
+	public static FetchSizePolicy adaptive()
+	{
+		return adaptive(DEFAULT_BUFFER_BYTES);
+	}
+
+	/**
+	 * @param bufferBytes memory for one round trip
+	 */
+	public static FetchSizePolicy adaptive(int bufferBytes)
+	{
+		return new FetchSizePolicy(Enums.FETCH_SIZE.ADAPTIVE, 0, Math.max(bufferBytes, 1));
+	}
+
+	/**
+	 * Policy of statements without their own.
+	 * @param policy
+	 */
+	public static void setDefault(FetchSizePolicy policy)
+	{
+		if (policy == null)
+			throw new IllegalArgumentException("Policy must not be null!");
+		defaultPolicy = policy;
+	}
+
+	public static FetchSizePolicy getDefault()
+	{
+		return defaultPolicy;
+	}
+
+	public Enums.FETCH_SIZE getMode()
+	{
+		return mode;
+	}
+
+	/**
+	 * Before execution: FIXED size, ADAPTIVE size from the history (so the first round trip uses it too).
+	 * @param statement statement to execute
+	 * @param sql executed SQL text (history key)
+	 * @param maxRows most rows the statement can return; null = not limited
+	 */
+	public void beforeExecute(Statement statement, String sql, Integer maxRows)
+	{
+		int size = mode == Enums.FETCH_SIZE.FIXED ? rows : mode == Enums.FETCH_SIZE.ADAPTIVE ? fromHistory(sql) : 0;
+		if (size <= 0 || statement == null)
+			return;
+		try
+		{
+			statement.setFetchSize(cap(size, maxRows));
+		}
+		catch (SQLException | RuntimeException e)
+		{
+			MYLOGGER.log(Level.WARNING, "Fetch size not set!", e);
+		}
+	}
+
+	/**
+	 * After execution (result set or cursor parameter): size of the policy, ROW_WIDTH / ADAPTIVE within the buffer.
+	 * The first round trip may be done already; the size applies to the next ones.
+	 * @param rs result set (query result or cursor)
+	 * @param sql executed SQL text (history key)
+	 * @param maxRows most rows the statement can return; null = not limited
+	 */
+	public void afterExecute(ResultSet rs, String sql, Integer maxRows)
+	{
+		if (rs == null || mode == Enums.FETCH_SIZE.DRIVER)
+			return;
+
+		try
+		{
+			int size;
+			if (mode == Enums.FETCH_SIZE.FIXED)
+				size = rows;
+			else
+			{
+				size = rowsFor(rs.getMetaData(), bufferBytes);
+				int history = mode == Enums.FETCH_SIZE.ADAPTIVE ? fromHistory(sql) : 0;
+				if (history > 0)
+					size = Math.min(size, history);
+			}
+			size = cap(size, maxRows);
+			if (rs.getFetchSize() != size)
+				rs.setFetchSize(size);
+		}
+		catch (SQLException | RuntimeException e)
+		{
+			MYLOGGER.log(Level.WARNING, "Fetch size not set!", e);
+		}
+	}
+
+	/**
+	 * @return rows of the last executions + 1 (the end of the result comes with the same round trip); 0 without history
+	 */
+	private static int fromHistory(String sql)
+	{
+		int expected = RowCountHistory.expectedRows(sql);
+		return expected > 0 ? Math.min(Math.max(expected + 1, MIN_ROWS), MAX_ROWS) : 0;
+	}
+
+	/**
+	 * @param md result set meta data
+	 * @param bufferBytes memory for one round trip
+	 * @return rows per round trip within the buffer, between {@link #MIN_ROWS} and {@link #MAX_ROWS}
+	 */
+	public static int rowsFor(ResultSetMetaData md, int bufferBytes) throws SQLException
+	{
+		long width = 0;
+		int count = md.getColumnCount();
+		for (int idx = 1; idx <= count; idx++)
+			width += columnBytes(md, idx);
+		long r = bufferBytes / Math.max(width, 1);
+		return (int) Math.min(Math.max(r, MIN_ROWS), MAX_ROWS);
+	}
+
+	private static int columnBytes(ResultSetMetaData md, int idx) throws SQLException
+	{
+		switch (md.getColumnType(idx))
+		{
+			case Types.CHAR:
+			case Types.VARCHAR:
+			case Types.BINARY:
+			case Types.VARBINARY:
+				return precision(md, idx);
+			case Types.NCHAR:
+			case Types.NVARCHAR:
+				return 2 * precision(md, idx);
+			case Types.NUMERIC:
+			case Types.DECIMAL:
+			case Types.INTEGER:
+			case Types.BIGINT:
+			case Types.SMALLINT:
+			case Types.TINYINT:
+			case Types.FLOAT:
+			case Types.REAL:
+			case Types.DOUBLE:
+				return NUMBER_BYTES;
+			case Types.DATE:
+				return 7;
+			case Types.TIMESTAMP:
+			case Types.TIMESTAMP_WITH_TIMEZONE:
+				return 13;
+			case Types.BLOB:
+			case Types.CLOB:
+			case Types.NCLOB:
+				return LOB_BYTES;
+			default:
+				return OTHER_BYTES;
+		}
+	}
+
+	private static int precision(ResultSetMetaData md, int idx) throws SQLException
+	{
+		int p = md.getPrecision(idx);
+		return p > 0 ? p : OTHER_BYTES;
+	}
+
+	private static int cap(int size, Integer maxRows)
+	{
+		if (maxRows != null && maxRows >= 0 && maxRows < size)
+			return maxRows + 1;
+		return size;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "FetchSizePolicy [" + mode + (mode == Enums.FETCH_SIZE.FIXED ? ", rows=" + rows : "")
+				+ (bufferBytes > 0 ? ", bufferBytes=" + bufferBytes : "") + "]";
+	}
+
+}
@@ -0,0 +1,329 @@
+package ds.made.jdbc.easy.utility;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+Expansion of collection (or array) valued {@link Parameter}s: <code>ID In (:ids)</code> becomes <code>ID In (:ids__0, :ids__1, ...)</code>.<br/>
+The number of placeholders is padded (with the last element) to a power of two, so a few SQL texts (and cursors) serve all list sizes.
+Lists longer than {@link #MAX_ELEMENTS} are split: <code>(ID In (...) Or ID In (...))</code>, <code>Not In</code> with And;
+the expression before In must be a column (qualified, quoted), a function call or in parentheses, like <code>(A + B) In (:ids)</code>.
+An empty list binds one NULL (matches nothing; <code>Not In</code> matches nothing as well).
+@author ds
+ */
+public final class InLists
+{
+
+	/** Oracle limit of an IN list */
+	public static final int MAX_ELEMENTS = 1000;
+
+	/** Words that are neither a column nor a function name */
+	private static final Set<String> KEYWORDS = new HashSet<String>(Arrays.asList("and", "or", "not", "where", "on", "when", "then", "else", "end", "having", "select"));
+
+	private InLists()
+	{
+	}
+
+	/**
+	 * Command and parameters with the list parameters expanded.
+	 */
+	public static final class Expanded
+	{
+		public final String command;
+		public final Parameter[] parameters;
+
+		Expanded(String command, Parameter[] parameters)
+		{
+			this.command = command;
+			this.parameters = parameters;
+		}
+	}
+
+	/**
+	 * @param n list size
+	 * @return number of placeholders for n elements (n &lt;= {@link #MAX_ELEMENTS})
+	 */
+	public static int bucket(int n)
+	{
+		int b = 1;
+		while (b < n)
+			b <<= 1;
+		return Math.min(b, MAX_ELEMENTS);
+	}
+
+	/**
+	 * @param value parameter value
+	 * @return true for collections and arrays (except byte[])
+	 */
+	public static boolean isList(Object value)
+	{
+		return value instanceof Collection || (value != null && value.getClass().isArray() && !(value instanceof byte[]));
+	}
+
+	/**
+	 * @param command SQL with named parameters
+	 * @param parameters parameters (may be null)
+	 * @return expanded command and parameters; the same command and parameters when there is no list parameter
+	 * @throws SomethingJustWrong when a list longer than {@link #MAX_ELEMENTS} is not used as <code>expression In (:name)</code>
+	 */
+	public static Expanded expand(String command, Parameter[] parameters) throws SomethingJustWrong
+	{
+		Map<String, List<Object>> lists = null;
+		if (parameters != null)
+		{
+			for (Parameter p : parameters)
+			{
+				if (isList(p.getValue()))
+				{
+					if (lists == null)
+						lists = new HashMap<String, List<Object>>();
+					lists.put(p.name, elements(p.getValue()));
+				}
+			}
+		}
+		if (lists == null)
+			return new Expanded(command, parameters);
+
+		char[] sql = command.toCharArray();
+		StringBuilder sb = new StringBuilder(sql.length + 64);
+		int copied = 0;
+		int[] end = new int[1];
+		int i = NamedParameterUtils.nextBind(sql, 0, end);
+		while (i >= 0)
+		{
+			String name = new String(sql, i + 1, end[0] - i - 1);
+			List<Object> list = lists.get(name);
+			if (list != null)
+			{
+				if (list.size() <= MAX_ELEMENTS)
+				{
+					sb.append(sql, copied, i - copied);
+					placeholders(sb, name, 0, bucket(list.size()));
+					copied = end[0];
+				}
+				else
+					copied = split(sql, i, end[0], copied, sb, name, list.size());
+			}
+			i = NamedParameterUtils.nextBind(sql, end[0], end);
+		}
+		sb.append(sql, copied, sql.length - copied);
+
+		List<Parameter> expanded = new ArrayList<Parameter>(parameters.length + 16);
+		for (Parameter p : parameters)
+		{
+			List<Object> list = lists.get(p.name);
+			if (list == null)
+			{
+				expanded.add(p);
+				continue;
+			}
+			int chunks = Math.max(1, (list.size() + MAX_ELEMENTS - 1) / MAX_ELEMENTS);
+			for (int c = 0; c < chunks; c++)
+			{
+				int from = c * MAX_ELEMENTS;
+				int size = Math.min(MAX_ELEMENTS, list.size() - from);
+				int slots = bucket(size);
+				for (int k = 0; k < slots; k++)
+				{
+					Object v = size <= 0 ? null : list.get(from + Math.min(k, size - 1));
+					expanded.add(p.copy(name(p.name, from + k), v));
+				}
+			}
+		}
+		return new Expanded(sb.toString(), expanded.toArray(new Parameter[expanded.size()]));
+	}
+
+	private static List<Object> elements(Object value)
+	{
+		if (value instanceof Collection)
+			return new ArrayList<Object>((Collection<?>) value);
+
+		int n = Array.getLength(value);
+		List<Object> list = new ArrayList<Object>(n);
+		for (int i = 0; i < n; i++)
+			list.add(Array.get(value, i));
+		return list;
+	}
+
+	private static String name(String list, int slot)
+	{
+		return list + "__" + slot;
+	}
+
+	private static void placeholders(StringBuilder sb, String list, int first, int count)
+	{
+		for (int k = 0; k < count; k++)
+		{
+			if (k > 0)
+				sb.append(", ");
+			sb.append(':').append(name(list, first + k));
+		}
+	}
+
+	/**
+	 * Rewrites <code>expression [Not] In (:name)</code> to one In list per chunk.
+	 * @return index copied up to
+	 */
+	private static int split(char[] sql, int start, int end, int copied, StringBuilder sb, String name, int size) throws SomethingJustWrong
+	{
+		int close = skipSpace(sql, end);
+		int open = skipSpaceBack(sql, start - 1);
+		if (close >= sql.length || sql[close] != ')' || open < 0 || sql[open] != '(')
+			throw tooLong(name, size);
+
+		int inEnd = skipSpaceBack(sql, open - 1) + 1;
+		int inStart = wordStart(sql, inEnd);
+		if (!new String(sql, inStart, inEnd - inStart).equalsIgnoreCase("in"))
+			throw tooLong(name, size);
+
+		int lhsEnd = skipSpaceBack(sql, inStart - 1) + 1;
+		boolean not = false;
+		int notStart = wordStart(sql, lhsEnd);
+		if (new String(sql, notStart, lhsEnd - notStart).equalsIgnoreCase("not"))
+		{
+			not = true;
+			lhsEnd = skipSpaceBack(sql, notStart - 1) + 1;
+		}
+		int lhsStart = expressionStart(sql, lhsEnd);
+		if (lhsStart < copied || lhsStart >= lhsEnd)
+			throw tooLong(name, size);
+
+		String lhs = new String(sql, lhsStart, lhsEnd - lhsStart);
+		sb.append(sql, copied, lhsStart - copied).append('(');
+		int chunks = (size + MAX_ELEMENTS - 1) / MAX_ELEMENTS;
+		for (int c = 0; c < chunks; c++)
+		{
+			if (c > 0)
+				sb.append(not ? " And " : " Or ");
+			sb.append(lhs).append(not ? " Not In (" : " In (");
+			placeholders(sb, name, c * MAX_ELEMENTS, bucket(Math.min(MAX_ELEMENTS, size - c * MAX_ELEMENTS)));
+			sb.append(')');
+		}
+		sb.append(')');
+		return close + 1;
+	}
+
+	private static SomethingJustWrong tooLong(String name, int size)
+	{
+		return new SomethingJustWrong("List :" + name + " has " + size + " elements; more than " + MAX_ELEMENTS + " need the form expression In (:" + name + ")!");
+	}
+
+	private static int skipSpace(char[] sql, int i)
+	{
+		while (i < sql.length && Character.isWhitespace(sql[i]))
+			i++;
+		return i;
+	}
+
+	private static int skipSpaceBack(char[] sql, int i)
+	{
+		while (i >= 0 && Character.isWhitespace(sql[i]))
+			i--;
+		return i;
+	}
+
+	/**
+	 * @param end index after the word
+	 * @return start of the word before end
+	 */
+	private static int wordStart(char[] sql, int end)
+	{
+		int i = end;
+		while (i > 0 && Character.isJavaIdentifierPart(sql[i - 1]))
+			i--;
+		return i;
+	}
+
+	/**
+	 * Column (qualified, quoted), function call or parenthesized expression ending at end,
+	 * after a keyword, ( or , (not an operator: <code>a + b In (...)</code> cannot be split).
+	 * @return start of the expression; -1 when there is none
+	 */
+	private static int expressionStart(char[] sql, int end)
+	{
+		int i = end;
+		if (i > 0 && sql[i - 1] == ')')
+		{
+			int depth = 0;
+			while (i > 0)
+			{
+				char c = sql[--i];
+				if (c == ')')
+					depth++;
+				else if (c == '(' && --depth == 0)
+					break;
+			}
+			if (depth != 0)
+				return -1;
+			int name = nameStart(sql, i);
+			if (name >= 0 && !KEYWORDS.contains(new String(sql, name, i - name).toLowerCase()))
+				i = name;
+		}
+		else
+		{
+			i = nameStart(sql, i);
+			if (i >= 0 && KEYWORDS.contains(new String(sql, i, end - i).toLowerCase()))
+				return -1;
+		}
+		if (i < 0 || i == end)
+			return -1;
+
+		int before = skipSpaceBack(sql, i - 1);
+		if (before < 0 || sql[before] == '(' || sql[before] == ',')
+			return i;
+		if (!isNamePart(sql[before]))
+			return -1;
+		int word = wordStart(sql, before + 1);
+		return before < i - 1 || KEYWORDS.contains(new String(sql, word, before + 1 - word).toLowerCase()) ? i : -1;
+	}
+
+	/**
+	 * Qualified name ending at end, a quoted part ("My Col") is one unit.
+	 * @return start of the name; end when there is no name; -1 when a quote is not closed
+	 */
+	private static int nameStart(char[] sql, int end)
+	{
+		int i = end;
+		while (i > 0)
+		{
+			int part = i;
+			if (sql[i - 1] == '"')
+			{
+				part = i - 1;
+				while (part > 0 && sql[part - 1] != '"')
+					part--;
+				if (part == 0)
+					return -1;
+				part--;
+			}
+			else
+			{
+				while (part > 0 && isNamePart(sql[part - 1]))
+					part--;
+			}
+			if (part == i)
+				break;
+			i = part;
+			if (i > 1 && sql[i - 1] == '.' && (sql[i - 2] == '"' || isNamePart(sql[i - 2])))
+				i--;
+			else
+				break;
+		}
+		return i;
+	}
+
+	private static boolean isNamePart(char c)
+	{
+		return Character.isJavaIdentifierPart(c) || c == '#';
+	}
+
+}
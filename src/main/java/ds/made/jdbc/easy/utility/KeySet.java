@@ -0,0 +1,102 @@
+package ds.made.jdbc.easy.utility;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+Parameter value for very large IN filters: the keys are staged in a temporary table and
+<code>ID In (:ids)</code> becomes <code>ID In (Select KEY_NUM From EASY_KEY_SET Where SET_ID = :ids)</code>, see {@link KeySets}.<br/>
+Keys are written with the registered {@link TypeConverter}s; numbers go to KEY_NUM, everything else (as text) to KEY_STR.
+Null and duplicate keys are dropped.
+@author ds
+ */
+public final class KeySet
+{
+
+	private final List<Object> keys;
+	private final boolean numeric;
+
+	private KeySet(List<Object> keys, boolean numeric)
+	{
+		this.keys = keys;
+		this.numeric = numeric;
+	}
+
+	/**
+	 * @param keys key values
+	 * @return key set (a copy of the keys)
+	 * @throws IllegalArgumentException when a key cannot be written
+	 */
+	public static KeySet of(Collection<?> keys)
+	{
+		Set<Object> distinct = new LinkedHashSet<Object>();
+		boolean numeric = true;
+		if (keys != null)
+		{
+			for (Object k : keys)
+			{
+				Object v;
+				try
+				{
+					v = TypeConverters.toDatabase(k);
+				}
+				catch (SQLException e)
+				{
+					throw new IllegalArgumentException("Key " + k + " cannot be written!", e);
+				}
+				if (v == null)
+					continue;
+				distinct.add(v);
+				numeric &= v instanceof Number;
+			}
+		}
+
+		List<Object> list = new ArrayList<Object>(distinct.size());
+		for (Object v : distinct)
+			list.add(numeric ? v : v.toString());
+		return new KeySet(Collections.unmodifiableList(list), numeric);
+	}
+
+	/**
+	 * @param keys key values
+	 * @return key set
+	 */
+	public static KeySet of(Object... keys)
+	{
+		return of(keys == null ? null : Arrays.asList(keys));
+	}
+
+	/**
+	 * @return database values of the keys (unmodifiable)
+	 */
+	public List<Object> getKeys()
+	{
+		return keys;
+	}
+
+	public int size()
+	{
+		return keys.size();
+	}
+
+	/**
+	 * @return true when all keys are numbers (staged in KEY_NUM)
+	 */
+	public boolean isNumeric()
+	{
+		return numeric;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "KeySet [size=" + keys.size() + ", numeric=" + numeric + "]";
+	}
+
+}
@@ -0,0 +1,275 @@
+package ds.made.jdbc.easy.utility;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+Staging of {@link KeySet} parameters in a session private table: the keys are batch inserted under a new SET_ID,
+<code>expression [Not] In (:name)</code> becomes <code>expression [Not] In (Select KEY_NUM From EASY_KEY_SET Where SET_ID = :name)</code>
+and {@link Staged#release()} deletes the rows after the query.<br/>
+Oracle needs the global temporary table of OracleDatabase.sql (On Commit Preserve Rows); on other databases
+(H2, PostgreSQL ...) a local temporary table is created on first use.
+The insert and delete statements are closed after use; with a {@link StatementCache} connection they are reused.
+@author ds
+ */
+public final class KeySets
+{
+
+	private static final Logger MYLOGGER = Logger.getLogger(KeySets.class.getName());
+
+	public static final String DEFAULT_TABLE = "EASY_KEY_SET";
+
+	/** Keys per executeBatch */
+	private static final int BATCH_SIZE = 1000;
+
+	private static volatile String table = DEFAULT_TABLE;
+
+	/** Unique in the JVM, so unique in every session */
+	private static final AtomicLong SET_IDS = new AtomicLong();
+
+	/** Staging table created on each connection (not Oracle); no strong reference to the connection */
+	private static final Map<Connection, String> CREATED = Collections.synchronizedMap(new WeakHashMap<Connection, String>());
+
+	private KeySets()
+	{
+	}
+
+	/**
+	 * @param name staging table (columns SET_ID, KEY_NUM, KEY_STR); null = {@link #DEFAULT_TABLE}
+	 */
+	public static void setTable(String name)
+	{
+		table = name == null ? DEFAULT_TABLE : name;
+	}
+
+	public static String getTable()
+	{
+		return table;
+	}
+
+	/**
+	 * Command and parameters with the key sets staged; release after the statement is closed.
+	 */
+	public static final class Staged
+	{
+		public final String command;
+		public final Parameter[] parameters;
+		private final Connection connection;
+		private long[] setIds;
+
+		Staged(String command, Parameter[] parameters, Connection connection, long[] setIds)
+		{
+			this.command = command;
+			this.parameters = parameters;
+			this.connection = connection;
+			this.setIds = setIds;
+		}
+
+		/**
+		 * Deletes the staged keys (once); errors are logged.
+		 */
+		public void release()
+		{
+			if (setIds == null || setIds.length == 0)
+				return;
+			long[] ids = setIds;
+			setIds = null;
+			try
+			{
+				delete(connection, ids);
+			}
+			catch (SQLException e)
+			{
+				MYLOGGER.log(Level.WARNING, "Error deleting staged keys!", e);
+			}
+		}
+	}
+
+	/**
+	 * @param connection connection of the query
+	 * @param command SQL with named parameters
+	 * @param parameters parameters (may be null)
+	 * @return staged command and parameters; the same command and parameters when there is no {@link KeySet} parameter
+	 * @throws SomethingJustWrong when a key set is not used as <code>expression In (:name)</code> or staging fails
+	 */
+	public static Staged stage(Connection connection, String command, Parameter[] parameters) throws SomethingJustWrong
+	{
+		Map<String, KeySet> sets = null;
+		if (parameters != null)
+		{
+			for (Parameter p : parameters)
+			{
+				if (p.getValue() instanceof KeySet)
+				{
+					if (sets == null)
+						sets = new HashMap<String, KeySet>();
+					sets.put(p.name, (KeySet) p.getValue());
+				}
+			}
+		}
+		if (sets == null)
+			return new Staged(command, parameters, connection, null);
+
+		String sql = rewrite(command, sets);
+		long[] ids = new long[sets.size()];
+		Map<String, Long> idOf = new HashMap<String, Long>();
+		int n = 0;
+		PreparedStatement ps = null;
+		try
+		{
+			create(connection);
+			ps = connection.prepareStatement("Insert Into " + table + " (SET_ID, KEY_NUM, KEY_STR) Values (?, ?, ?)");
+			for (Map.Entry<String, KeySet> e : sets.entrySet())
+			{
+				long id = SET_IDS.incrementAndGet();
+				ids[n++] = id;
+				idOf.put(e.getKey(), id);
+				insert(ps, id, e.getValue());
+			}
+		}
+		catch (SQLException se)
+		{
+			MYLOGGER.log(Level.SEVERE, "Critical error staging keys!", se);
+			DBClosingManager.closeAndContinue(ps);
+			ps = null;
+			new Staged(sql, parameters, connection, Arrays.copyOf(ids, n)).release();
+			throw new SomethingJustWrong(se);
+		}
+		finally
+		{
+			DBClosingManager.closeAndContinue(ps);
+		}
+
+		List<Parameter> staged = new ArrayList<Parameter>(parameters.length);
+		for (Parameter p : parameters)
+		{
+			Long id = idOf.get(p.name);
+			staged.add(id == null ? p : new Parameter(p.name, Types.NUMERIC, p.getDirection(), id));
+		}
+		return new Staged(sql, staged.toArray(new Parameter[staged.size()]), connection, ids);
+	}
+
+	/**
+	 * <code>(:name)</code> to <code>(Select KEY_x From table Where SET_ID = :name)</code>.
+	 */
+	private static String rewrite(String command, Map<String, KeySet> sets) throws SomethingJustWrong
+	{
+		char[] sql = command.toCharArray();
+		StringBuilder sb = new StringBuilder(sql.length + 64);
+		int copied = 0;
+		int[] end = new int[1];
+		int i = NamedParameterUtils.nextBind(sql, 0, end);
+		while (i >= 0)
+		{
+			String name = new String(sql, i + 1, end[0] - i - 1);
+			KeySet set = sets.get(name);
+			if (set != null)
+			{
+				int open = i - 1;
+				while (open >= 0 && Character.isWhitespace(sql[open]))
+					open--;
+				int close = end[0];
+				while (close < sql.length && Character.isWhitespace(sql[close]))
+					close++;
+				if (open < 0 || sql[open] != '(' || close >= sql.length || sql[close] != ')')
+					throw new SomethingJustWrong("Key set :" + name + " needs the form expression In (:" + name + ")!");
+
+				sb.append(sql, copied, i - copied)
+					.append("Select ").append(set.isNumeric() ? "KEY_NUM" : "KEY_STR")
+					.append(" From ").append(table).append(" Where SET_ID = :").append(name);
+				copied = end[0];
+			}
+			i = NamedParameterUtils.nextBind(sql, end[0], end);
+		}
+		sb.append(sql, copied, sql.length - copied);
+		return sb.toString();
+	}
+
+	private static void insert(PreparedStatement ps, long id, KeySet set) throws SQLException
+	{
+		int pending = 0;
+		for (Object key : set.getKeys())
+		{
+			ps.setLong(1, id);
+			if (set.isNumeric())
+			{
+				ps.setObject(2, key);
+				ps.setNull(3, Types.VARCHAR);
+			}
+			else
+			{
+				ps.setNull(2, Types.NUMERIC);
+				ps.setString(3, (String) key);
+			}
+			ps.addBatch();
+			if (++pending >= BATCH_SIZE)
+			{
+				ps.executeBatch();
+				pending = 0;
+			}
+		}
+		if (pending > 0)
+			ps.executeBatch();
+	}
+
+	private static void delete(Connection connection, long[] ids) throws SQLException
+	{
+		PreparedStatement ps = connection.prepareStatement("Delete From " + table + " Where SET_ID = ?");
+		try
+		{
+			for (long id : ids)
+			{
+				ps.setLong(1, id);
+				ps.executeUpdate();
+			}
+		}
+		finally
+		{
+			DBClosingManager.closeAndContinue(ps);
+		}
+	}
+
+	/**
+	 * Local temporary table outside Oracle (the Oracle global temporary table is created once by the DBA).
+	 */
+	private static void create(Connection connection) throws SQLException
+	{
+		String name = table;
+		if (name.equals(CREATED.get(connection)))
+			return;
+		String product = connection.getMetaData().getDatabaseProductName();
+		product = product == null ? "" : product.toLowerCase();
+		if (!product.contains("oracle"))
+		{
+			String ddl = product.contains("h2")
+					? "Create Local Temporary Table If Not Exists " + name + " (SET_ID Bigint, KEY_NUM Numeric, KEY_STR Varchar(4000)) Transactional"
+					: "Create Temporary Table If Not Exists " + name + " (SET_ID Bigint, KEY_NUM Numeric, KEY_STR Varchar(4000))";
+			Statement st = connection.createStatement();
+			try
+			{
+				st.execute(ddl);
+			}
+			finally
+			{
+				DBClosingManager.closeAndContinue(st);
+			}
+		}
+		CREATED.put(connection, name);
+	}
+
+}
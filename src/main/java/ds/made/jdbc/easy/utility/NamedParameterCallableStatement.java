@@ -13,9 +13,7 @@ import java.sql.Types;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  This class wraps around a {@link CallableStatement} and allows the programmer
@@ -30,7 +28,6 @@ Made from the NamedParameterPreparedStatement template.
  * @author ds
  */
 
-@SuppressWarnings("rawtypes")
 public class NamedParameterCallableStatement
 {
 
@@ -42,9 +39,9 @@ public class NamedParameterCallableStatement
     private final Connection connection;
     
     /**
-     * Maps parameter names to arrays of ints which are the parameter indices.
+     * Parsed SQL: maps parameter names to arrays of ints which are the parameter indices.
      */
-    private final Map indexMap;
+    private final ParsedSql parsed;
 
     private List<java.sql.Clob> clobs;
     private List<java.sql.Blob> blobs;
@@ -62,9 +59,8 @@ public class NamedParameterCallableStatement
     {
     	this.connection = connection;
     	
-        indexMap = new HashMap();
-        String parsedQuery = NamedParameterUtils.parse(command, indexMap);
-        statement = connection.prepareCall(parsedQuery);
+        parsed = NamedParameterUtils.parse(command);
+        statement = connection.prepareCall(parsed.getSql());
     }
 
     /**
@@ -76,7 +72,7 @@ public class NamedParameterCallableStatement
      */
     private int[] getIndexes(String name)
     {
-        int[] indexes = (int[]) indexMap.get(name);
+        int[] indexes = parsed.indexes(name);
         if (indexes == null)
         {
             throw new IllegalArgumentException("Parameter not found: " + name);
@@ -102,6 +98,25 @@ public class NamedParameterCallableStatement
         }
     }
 
+    /**
+     * Sets a parameter with a typed binder.
+     *
+     * @param name parameter name
+     * @param binder binder of the parameter type
+     * @param value parameter value
+     * @throws SQLException if an error occurred
+     * @throws IllegalArgumentException if the parameter does not exist
+     * @see ParameterBinder
+     */
+    public void bind(String name, ParameterBinder binder, Object value) throws SQLException
+    {
+        int[] indexes = getIndexes(name);
+        for (int i = 0; i < indexes.length; i++)
+        {
+            binder.bind(statement, indexes[i], value);
+        }
+    }
+
     /**
      * Sets a parameter.
      *
@@ -9,8 +9,6 @@ import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * This class wraps around a {@link PreparedStatement} and allows the programmer
@@ -36,7 +34,6 @@ import java.util.Map;
  *
  * @author adam_crume
  */
-@SuppressWarnings("rawtypes")
 public class NamedParameterPreparedStatement
 {
 
@@ -46,9 +43,9 @@ public class NamedParameterPreparedStatement
     private final PreparedStatement statement;
 
     /**
-     * Maps parameter names to arrays of ints which are the parameter indices.
+     * Parsed SQL: maps parameter names to arrays of ints which are the parameter indices.
      */
-	private final Map indexMap;
+	private final ParsedSql parsed;
 
     /**
      * Creates a NamedParameterStatement. Wraps a call to
@@ -61,9 +58,8 @@ public class NamedParameterPreparedStatement
     public NamedParameterPreparedStatement(Connection connection, String query) throws
             SQLException
     {
-        indexMap = new HashMap();
-        String parsedQuery = NamedParameterUtils.parse(query, indexMap);
-        statement = connection.prepareStatement(parsedQuery);
+        parsed = NamedParameterUtils.parse(query);
+        statement = connection.prepareStatement(parsed.getSql());
     }
 
     /**
@@ -75,7 +71,7 @@ public class NamedParameterPreparedStatement
      */
     private int[] getIndexes(String name)
     {
-        int[] indexes = (int[]) indexMap.get(name);
+        int[] indexes = parsed.indexes(name);
         if (indexes == null)
         {
             throw new IllegalArgumentException("Parameter not found: " + name);
@@ -101,6 +97,25 @@ public class NamedParameterPreparedStatement
         }
     }
 
+    /**
+     * Sets a parameter with a typed binder.
+     *
+     * @param name parameter name
+     * @param binder binder of the parameter type
+     * @param value parameter value
+     * @throws SQLException if an error occurred
+     * @throws IllegalArgumentException if the parameter does not exist
+     * @see ParameterBinder
+     */
+    public void bind(String name, ParameterBinder binder, Object value) throws SQLException
+    {
+        int[] indexes = getIndexes(name);
+        for (int i = 0; i < indexes.length; i++)
+        {
+            binder.bind(statement, indexes[i], value);
+        }
+    }
+
     /**
      * Sets a parameter.
      *
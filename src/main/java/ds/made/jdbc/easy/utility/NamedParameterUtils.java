@@ -1,13 +1,39 @@
 package ds.made.jdbc.easy.utility;
 
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Named parameter (:name) parsing for {@link NamedParameterPreparedStatement} and {@link NamedParameterCallableStatement}.
+ * Results are cached by SQL text in a size bounded LRU cache.
+ * @author ds
+ */
 public class NamedParameterUtils
 {
 
+    public static final int DEFAULT_MAX_SIZE = 512;
+
+    private static final BoundedCache<String, ParsedSql> CACHE = new BoundedCache<String, ParsedSql>(DEFAULT_MAX_SIZE);
+
+    /**
+     * Parses a query with named parameters (cached).
+     *
+     * @param query query to parse
+     * @return parsed query and parameter-index mappings
+     */
+    public static ParsedSql parse(String query)
+    {
+        ParsedSql parsed = CACHE.get(query);
+        if (parsed == null)
+        {
+            parsed = parseNoCache(query);
+            CACHE.put(query, parsed);
+        }
+        return parsed;
+    }
+
     /**
      * Parses a query with named parameters. The parameter-index mappings are
      * put into the map, and the parsed query is returned. DO NOT CALL FROM CLIENT CODE.
@@ -15,83 +41,266 @@ public class NamedParameterUtils
      * @param query query to parse
      * @param paramMap map to hold parameter-index mappings
      * @return the parsed query
+     * @deprecated use {@link #parse(String)}
      */
+    @Deprecated
     @SuppressWarnings({ "rawtypes", "unchecked" })
 	public static String parse(String query, Map paramMap)
     {
-        // I was originally using regular expressions, but they didn't work well for ignoring
-        // parameter-like strings inside quotes.
-        int length = query.length();
-        StringBuilder parsedQuery = new StringBuilder(length);
-        boolean inSingleQuote = false;
-        boolean inDoubleQuote = false;
-        int index = 1;
+        ParsedSql parsed = parse(query);
+        for (String name : parsed.getParameterNames())
+            paramMap.put(name, parsed.getIndexes(name));
+        return parsed.getSql();
+    }
+
+    /**
+     * Maximum number of cached queries.
+     * @param maxSize at least 1
+     */
+    public static void setMaxSize(int maxSize)
+    {
+        CACHE.setMaxSize(maxSize);
+    }
+
+    public static int getMaxSize()
+    {
+        return CACHE.getMaxSize();
+    }
+
+    public static int size()
+    {
+        return CACHE.size();
+    }
+
+    public static long getHits()
+    {
+        return CACHE.getHits();
+    }
+
+    public static long getMisses()
+    {
+        return CACHE.getMisses();
+    }
+
+    public static long getEvictions()
+    {
+        return CACHE.getEvictions();
+    }
+
+    public static double getHitRatio()
+    {
+        return CACHE.getHitRatio();
+    }
+
+    public static void clear()
+    {
+        CACHE.clear();
+    }
+
+    public static String stats()
+    {
+        return CACHE.toString();
+    }
+
+    /**
+     * Parses a query with named parameters, without the cache (tools, benchmarks).<br/>
+     * One pass over the characters: string literals ('...', Oracle q'[...]'), quoted identifiers,
+     * -- and /* *&#47; comments, :: casts and the trigger pseudo records :new. / :old. are not parameters.
+     *
+     * @param query query to parse
+     * @return parsed query and parameter-index mappings
+     */
+    public static ParsedSql parseNoCache(String query)
+    {
+        char[] sql = query.toCharArray();
+        int length = sql.length;
+        StringBuilder parsedQuery = null;
+        Map<String, Positions> positions = null;
+        String[] order = null;
+        int count = 0;
+        int copied = 0;
 
-        for (int i = 0; i < length; i++)
+        int[] end = new int[1];
+        int i = nextBind(sql, 0, end);
+        while (i >= 0)
         {
-            char c = query.charAt(i);
-            if (inSingleQuote)
+            int j = end[0];
+            if (parsedQuery == null)
             {
-                if (c == '\'')
-                {
-                    inSingleQuote = false;
-                }
-            } else if (inDoubleQuote)
+                parsedQuery = new StringBuilder(length);
+                positions = new HashMap<String, Positions>();
+                order = new String[8];
+            }
+            parsedQuery.append(sql, copied, i - copied).append('?');
+            copied = j;
+
+            String name = new String(sql, i + 1, j - i - 1);
+            Positions p = positions.get(name);
+            if (p == null)
             {
-                if (c == '"')
-                {
-                    inDoubleQuote = false;
-                }
-            } else
+                p = new Positions();
+                positions.put(name, p);
+            }
+            if (count == order.length)
+                order = Arrays.copyOf(order, count * 2);
+            order[count++] = name;
+            p.add(count);
+            i = nextBind(sql, j, end);
+        }
+
+        if (parsedQuery == null)
+            return new ParsedSql(query, Collections.<String, int[]>emptyMap(), new String[0]);
+
+        parsedQuery.append(sql, copied, length - copied);
+        Map<String, int[]> indexes = new HashMap<String, int[]>(positions.size() * 2);
+        for (Map.Entry<String, Positions> entry : positions.entrySet())
+            indexes.put(entry.getKey(), entry.getValue().toArray());
+
+        return new ParsedSql(parsedQuery.toString(), indexes, Arrays.copyOf(order, count));
+    }
+
+    /**
+     * Finds the next named parameter.
+     *
+     * @param sql query characters
+     * @param from index to start at (outside of literals and comments)
+     * @param end receives the index after the parameter name
+     * @return index of the colon; -1 when there are no more parameters
+     */
+    static int nextBind(char[] sql, int from, int[] end)
+    {
+        int length = sql.length;
+        int i = from;
+        while (i < length)
+        {
+            char c = sql[i];
+            if (c == '\'' || c == '"')
+                i = skipTo(sql, i + 1, c);
+            else if (c == '-' && i + 1 < length && sql[i + 1] == '-')
+                i = skipLine(sql, i + 2);
+            else if (c == '/' && i + 1 < length && sql[i + 1] == '*')
+                i = skipComment(sql, i + 2);
+            else if ((c == 'q' || c == 'Q') && isQQuote(sql, i))
+                i = skipQQuote(sql, i + 2);
+            else if (c == ':' && i + 1 < length && sql[i + 1] == ':')
+                i += 2;
+            else if (c == ':' && i + 1 < length && Character.isJavaIdentifierStart(sql[i + 1]))
             {
-                if (c == '\'')
-                {
-                    inSingleQuote = true;
-                } else if (c == '"')
-                {
-                    inDoubleQuote = true;
-                } else if (c == ':' && i + 1 < length
-                        && Character.isJavaIdentifierStart(query.charAt(i + 1)))
+                int j = i + 2;
+                while (j < length && Character.isJavaIdentifierPart(sql[j]))
+                    j++;
+                if (!isPseudoRecord(sql, i + 1, j))
                 {
-                    int j = i + 2;
-                    while (j < length && Character.isJavaIdentifierPart(query.charAt(j)))
-                    {
-                        j++;
-                    }
-                    String name = query.substring(i + 1, j);
-                    c = '?'; // replace the parameter with a question mark
-                    i += name.length(); // skip past the end if the parameter
-
-                    List indexList = (List) paramMap.get(name);
-                    if (indexList == null)
-                    {
-                        indexList = new LinkedList();
-                        paramMap.put(name, indexList);
-                    }
-                    indexList.add(index);
-
-                    index++;
+                    end[0] = j;
+                    return i;
                 }
+                i = j;
             }
-            parsedQuery.append(c);
+            else
+                i++;
+        }
+        return -1;
+    }
+
+    /**
+     * @return index after the closing quote (a doubled quote just reopens the literal)
+     */
+    private static int skipTo(char[] sql, int from, char quote)
+    {
+        for (int i = from; i < sql.length; i++)
+        {
+            if (sql[i] == quote)
+                return i + 1;
         }
+        return sql.length;
+    }
 
-        // replace the lists of Integer objects with arrays of ints
-        for (Iterator itr = paramMap.entrySet().iterator(); itr.hasNext();)
+    private static int skipLine(char[] sql, int from)
+    {
+        for (int i = from; i < sql.length; i++)
         {
-            Map.Entry entry = (Map.Entry) itr.next();
-            List list = (List) entry.getValue();
-            int[] indexes = new int[list.size()];
-            int i = 0;
-            for (Iterator itr2 = list.iterator(); itr2.hasNext();)
-            {
-                Integer x = (Integer) itr2.next();
-                indexes[i++] = x;
-            }
-            entry.setValue(indexes);
+            if (sql[i] == '\n' || sql[i] == '\r')
+                return i + 1;
+        }
+        return sql.length;
+    }
+
+    private static int skipComment(char[] sql, int from)
+    {
+        for (int i = from; i + 1 < sql.length; i++)
+        {
+            if (sql[i] == '*' && sql[i + 1] == '/')
+                return i + 2;
+        }
+        return sql.length;
+    }
+
+    /**
+     * q'X...X' or nq'X...X' (not the end of an identifier)
+     */
+    private static boolean isQQuote(char[] sql, int i)
+    {
+        if (i + 2 >= sql.length || sql[i + 1] != '\'')
+            return false;
+        if (i == 0 || !Character.isJavaIdentifierPart(sql[i - 1]))
+            return true;
+        return (sql[i - 1] == 'n' || sql[i - 1] == 'N') && (i == 1 || !Character.isJavaIdentifierPart(sql[i - 2]));
+    }
+
+    /**
+     * @param from index of the delimiter
+     * @return index after the closing delimiter and quote
+     */
+    private static int skipQQuote(char[] sql, int from)
+    {
+        char open = sql[from];
+        char close;
+        switch (open)
+        {
+            case '[': close = ']'; break;
+            case '{': close = '}'; break;
+            case '(': close = ')'; break;
+            case '<': close = '>'; break;
+            default: close = open; break;
+        }
+        for (int i = from + 1; i + 1 < sql.length; i++)
+        {
+            if (sql[i] == close && sql[i + 1] == '\'')
+                return i + 2;
+        }
+        return sql.length;
+    }
+
+    /**
+     * :new.COLUMN / :old.COLUMN in trigger bodies
+     */
+    private static boolean isPseudoRecord(char[] sql, int start, int end)
+    {
+        if (end - start != 3 || end >= sql.length || sql[end] != '.')
+            return false;
+        String name = new String(sql, start, 3);
+        return name.equalsIgnoreCase("new") || name.equalsIgnoreCase("old");
+    }
+
+    /**
+     * Growing int array of the indexes of one parameter.
+     */
+    private static final class Positions
+    {
+        private int[] indexes = new int[2];
+        private int size = 0;
+
+        void add(int index)
+        {
+            if (size == indexes.length)
+                indexes = Arrays.copyOf(indexes, size * 2);
+            indexes[size++] = index;
         }
 
-        return parsedQuery.toString();
+        int[] toArray()
+        {
+            return size == indexes.length ? indexes : Arrays.copyOf(indexes, size);
+        }
     }
 
 }
@@ -3,6 +3,7 @@ package ds.made.jdbc.easy.utility;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Date;
 
 import ds.made.jdbc.easy.model.Enums;
@@ -476,4 +477,15 @@ public class OracleParameterFactory
 		return new Parameter(name,CURSOR,Enums.PARAMETER_DIRECTION.RETURN);		
 	}
 	
+	/**
+	 * Creates a key set parameter for very large IN filters: <code>Where ID In (:ids)</code>, see {@link KeySets}.
+	 * @param name parameter name
+	 * @param keys key values
+	 * @return Parameter
+	 */
+	public static Parameter keySetParameter(String name, Collection<?> keys)
+	{
+		return new Parameter(name,NUMERIC,KeySet.of(keys));
+	}
+	
 }
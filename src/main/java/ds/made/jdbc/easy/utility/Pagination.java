@@ -0,0 +1,218 @@
+package ds.made.jdbc.easy.utility;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+import java.util.logging.Logger;
+
+import ds.made.jdbc.easy.model.Enums;
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+Database side pagination: the query is rewritten so the database returns only the requested page.
+<ul>
+<li>ORACLE (12c+) - OFFSET ... ROWS FETCH NEXT ... ROWS ONLY,</li>
+<li>ORACLE_LEGACY - ROWNUM wrapper (adds the {@link #ROW_NUMBER_COLUMN} column; the column names of the query must be unique,
+a join selecting a.ID and b.ID needs aliases, otherwise ORA-00918),</li>
+<li>LIMIT_OFFSET - LIMIT ... OFFSET ... (H2, PostgreSQL, MySQL ...),</li>
+<li>NONE - query is not changed; {@link java.sql.Statement#setMaxRows(int)} caps the rows and preceding rows are skipped on the client.</li>
+</ul>
+Offset and limit are bind variables, so every page shares the same statement.
+Only a page with an offset is rewritten; the first page and a row limit (see setRowLimit, limit + 1 rows: one row more is
+enough to detect too many rows) use {@link java.sql.Statement#setMaxRows(int)} and the query is not changed.
+A FOR UPDATE query cannot be paged in the database.
+@author ds
+ */
+public final class Pagination
+{
+
+	private static final Logger MYLOGGER = Logger.getLogger(Pagination.class.getName());
+
+	public static final String OFFSET_PARAMETER = "easyPageOffset";
+	public static final String LIMIT_PARAMETER = "easyPageLimit";
+	/** Technical column of the ORACLE_LEGACY wrapper (last column) */
+	public static final String ROW_NUMBER_COLUMN = "EASY_RN";
+
+	/** Trailing FOR UPDATE clause (no parenthesis after it) */
+	private static final Pattern FOR_UPDATE = Pattern.compile("(?is).*\\bfor\\s+update\\b[^)]*");
+
+	/** Detected dialect of each connection */
+	private static final Map<Connection, Enums.SQL_DIALECT> DETECTED = Collections.synchronizedMap(new WeakHashMap<Connection, Enums.SQL_DIALECT>());
+
+	private final Enums.SQL_DIALECT dialect;
+	private final long offset;
+	/** Rows to fetch; null = no limit */
+	private final Long limit;
+
+	/**
+	 * @param dialect SQL dialect
+	 * @param offset zero based index of the first row; null = 0
+	 * @param count rows on the page; null = all
+	 * @param rowLimit maximum rows allowed (one more row is fetched to detect too many rows); null = no limit
+	 */
+	public Pagination(Enums.SQL_DIALECT dialect, Integer offset, Integer count, Integer rowLimit)
+	{
+		this.dialect = dialect;
+		this.offset = offset == null || offset < 0 ? 0 : offset;
+		Long l = count == null ? null : Long.valueOf(Math.max(count, 0));
+		if (rowLimit != null && (l == null || l > rowLimit + 1L))
+			l = rowLimit + 1L;
+		this.limit = l;
+	}
+
+	/**
+	 * @param connection database connection
+	 * @return dialect from the database meta data (read once per connection); NONE when unknown
+	 */
+	public static Enums.SQL_DIALECT detect(Connection connection)
+	{
+		Enums.SQL_DIALECT d = DETECTED.get(connection);
+		if (d == null)
+		{
+			d = detectNow(connection);
+			DETECTED.put(connection, d);
+		}
+		return d;
+	}
+
+	private static Enums.SQL_DIALECT detectNow(Connection connection)
+	{
+		try
+		{
+			DatabaseMetaData md = connection.getMetaData();
+			String product = md.getDatabaseProductName();
+			if (product == null)
+				return Enums.SQL_DIALECT.NONE;
+
+			product = product.toLowerCase();
+			if (product.contains("oracle"))
+				return md.getDatabaseMajorVersion() >= 12 ? Enums.SQL_DIALECT.ORACLE : Enums.SQL_DIALECT.ORACLE_LEGACY;
+			if (product.contains("h2") || product.contains("postgres") || product.contains("mysql") || product.contains("mariadb")
+					|| product.contains("hsql") || product.contains("sqlite"))
+				return Enums.SQL_DIALECT.LIMIT_OFFSET;
+			return Enums.SQL_DIALECT.NONE;
+		}
+		catch (SQLException | RuntimeException e)
+		{
+			MYLOGGER.log(Level.WARNING, "SQL dialect not detected, pagination on the client!", e);
+			return Enums.SQL_DIALECT.NONE;
+		}
+	}
+
+	/**
+	 * @return true when nothing is limited
+	 */
+	public boolean isEmpty()
+	{
+		return limit == null && offset == 0;
+	}
+
+	/**
+	 * @return true when the query is rewritten
+	 */
+	public boolean isPushedDown()
+	{
+		return offset > 0 && dialect != Enums.SQL_DIALECT.NONE;
+	}
+
+	/**
+	 * @return true when the result set has the {@link #ROW_NUMBER_COLUMN} column
+	 */
+	public boolean hasRowNumberColumn()
+	{
+		return isPushedDown() && dialect == Enums.SQL_DIALECT.ORACLE_LEGACY;
+	}
+
+	/**
+	 * @return rows to skip on the client (pagination not pushed down)
+	 */
+	public int getClientOffset()
+	{
+		return isPushedDown() ? 0 : (int) offset;
+	}
+
+	/**
+	 * @return most rows the statement can return; null when not limited
+	 */
+	public Integer getMaxRows()
+	{
+		if (limit == null)
+			return null;
+		long max = isPushedDown() ? limit : offset + limit;
+		return max > Integer.MAX_VALUE ? null : Integer.valueOf((int) max);
+	}
+
+	/**
+	 * @param query named parameter query
+	 * @return paginated query
+	 * @throws SomethingJustWrong for a FOR UPDATE query
+	 */
+	public String rewrite(String query) throws SomethingJustWrong
+	{
+		if (!isPushedDown())
+			return query;
+
+		String q = trim(query);
+		if (FOR_UPDATE.matcher(q).matches())
+			throw new SomethingJustWrong("FOR UPDATE query cannot be paged (offset " + offset + ")!");
+		String o = ":" + OFFSET_PARAMETER;
+		String l = ":" + LIMIT_PARAMETER;
+		switch (dialect)
+		{
+			case ORACLE:
+				return q + "\nOFFSET " + o + " ROWS" + (limit == null ? "" : " FETCH NEXT " + l + " ROWS ONLY");
+
+			case ORACLE_LEGACY:
+				return "SELECT * FROM (SELECT easy_q.*, ROWNUM " + ROW_NUMBER_COLUMN + " FROM (\n" + q + "\n) easy_q"
+						+ (limit == null ? "" : " WHERE ROWNUM <= " + o + " + " + l) + ") WHERE " + ROW_NUMBER_COLUMN + " > " + o;
+
+			case LIMIT_OFFSET:
+				return q + "\nLIMIT " + l + " OFFSET " + o;
+
+			default:
+				return query;
+		}
+	}
+
+	/**
+	 * Binds offset / limit (pushed down) or caps the statement rows (not pushed down).
+	 * @param statement statement prepared with {@link #rewrite(String)}
+	 * @throws SQLException
+	 */
+	public void bind(NamedParameterPreparedStatement statement) throws SQLException
+	{
+		if (isEmpty())
+			return;
+
+		if (!isPushedDown())
+		{
+			if (limit != null && offset + limit <= Integer.MAX_VALUE)
+				statement.getStatement().setMaxRows((int) (offset + limit));
+			return;
+		}
+
+		statement.setLong(OFFSET_PARAMETER, offset);
+		if (limit != null)
+			statement.setLong(LIMIT_PARAMETER, limit);
+		else if (dialect == Enums.SQL_DIALECT.LIMIT_OFFSET)
+			// LIMIT ALL is not portable; the biggest long means no limit
+			statement.setLong(LIMIT_PARAMETER, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Trailing white space and ';' are removed, so the query can be extended.
+	 */
+	private static String trim(String query)
+	{
+		int end = query.length();
+		while (end > 0 && (Character.isWhitespace(query.charAt(end - 1)) || query.charAt(end - 1) == ';'))
+			end--;
+		return query.substring(0, end);
+	}
+
+}
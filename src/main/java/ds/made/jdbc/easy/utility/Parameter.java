@@ -1,6 +1,7 @@
 package ds.made.jdbc.easy.utility;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -21,6 +22,9 @@ public class Parameter
 	private Enums.PARAMETER_DIRECTION direction;
 	private Enums.PARAMETER_DATE_TYPE dateType = null;
 	private Object value;
+	@SuppressWarnings("rawtypes")
+	private TypeConverter converter = null;
+	private ParameterBinder binder = null;
 
 	public Parameter(String name, int type)
 	{
@@ -79,6 +83,20 @@ public class Parameter
 		return value;
 	}
 
+	/**
+	 * {@link #getValueForExecute()} with type converters.
+	 * @return value to bind: written by the converter of this parameter or the registered converter of the value class
+	 * @throws SQLException when a converter fails
+	 */
+	@SuppressWarnings("unchecked")
+	public Object getValueForBind() throws SQLException
+	{
+		if (value != null && converter != null)
+			return converter.write(value);
+		Object v = getValueForExecute();
+		return v == value ? TypeConverters.toDatabase(v) : v;
+	}
+
 	public void setValueOutDirection(Object value)
 	{
 		this.value = value;
@@ -267,6 +285,50 @@ public class Parameter
 		return  this;
 	}
 
+	/**
+	 * @param converter writes the value (wins over the registered converter of the value class)
+	 * @return this
+	 */
+	public Parameter setConverter(TypeConverter<?> converter)
+	{
+		this.converter = converter;
+		return this;
+	}
+
+	/**
+	 * @return binder of the value: set by {@link #setBinder(ParameterBinder)} or selected once by type ({@link ParameterBinders#forType(int)})
+	 */
+	public ParameterBinder getBinder()
+	{
+		if (binder == null)
+			binder = ParameterBinders.forType(type);
+		return binder;
+	}
+
+	/**
+	 * @param binder binds the execute value (null = by type)
+	 * @return this
+	 */
+	public Parameter setBinder(ParameterBinder binder)
+	{
+		this.binder = binder;
+		return this;
+	}
+
+	/**
+	 * @param name name of the copy
+	 * @param value value of the copy
+	 * @return parameter with the type, direction, date type, converter and binder of this one
+	 */
+	public Parameter copy(String name, Object value)
+	{
+		Parameter p = new Parameter(name, type, direction, value);
+		p.dateType = dateType;
+		p.converter = converter;
+		p.binder = binder;
+		return p;
+	}
+
 	@Override
 	public String toString()
 	{
@@ -0,0 +1,25 @@
+package ds.made.jdbc.easy.utility;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+Binds the value of a {@link Parameter} with the setter of its SQL type (setLong, setTimestamp, setNull(index, type) ...),
+so the driver does not guess the type of each value.<br/>
+Selected once per parameter by {@link ParameterBinders#forType(int)}; a parameter may have its own ({@link Parameter#setBinder(ParameterBinder)}).
+Implementations must be thread safe.
+@author ds
+ */
+@FunctionalInterface
+public interface ParameterBinder
+{
+
+	/**
+	 * @param statement statement to bind on
+	 * @param index parameter index (one based)
+	 * @param value value to bind ({@link Parameter#getValueForBind()}); may be null
+	 * @throws SQLException
+	 */
+	void bind(PreparedStatement statement, int index, Object value) throws SQLException;
+
+}
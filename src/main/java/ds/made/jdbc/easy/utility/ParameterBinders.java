@@ -0,0 +1,166 @@
+package ds.made.jdbc.easy.utility;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Types;
+
+/**
+Typed {@link ParameterBinder}s by SQL type ({@link OracleParameterFactory} constants are java.sql.Types values).<br/>
+NULL is bound with setNull(index, type). A value of an unexpected class (e.g. written by a {@link TypeConverter})
+falls back to setObject, as before.
+@author ds
+ */
+public final class ParameterBinders
+{
+
+	private ParameterBinders()
+	{
+	}
+
+	private static final ParameterBinder STRING = (statement, index, value) ->
+	{
+		if (value == null)
+			statement.setNull(index, Types.VARCHAR);
+		else if (value instanceof String)
+			statement.setString(index, (String) value);
+		else
+			statement.setObject(index, value);
+	};
+
+	private static ParameterBinder number(final int type)
+	{
+		return (statement, index, value) ->
+		{
+			if (value == null)
+				statement.setNull(index, type);
+			else if (value instanceof Long)
+				statement.setLong(index, (Long) value);
+			else if (value instanceof Integer)
+				statement.setInt(index, (Integer) value);
+			else if (value instanceof BigDecimal)
+				statement.setBigDecimal(index, (BigDecimal) value);
+			else if (value instanceof Short)
+				statement.setShort(index, (Short) value);
+			else if (value instanceof Double)
+				statement.setDouble(index, (Double) value);
+			else if (value instanceof Float)
+				statement.setFloat(index, (Float) value);
+			else if (value instanceof BigInteger)
+				statement.setBigDecimal(index, new BigDecimal((BigInteger) value));
+			else
+				statement.setObject(index, value);
+		};
+	}
+
+	private static final ParameterBinder INTEGER = number(Types.INTEGER);
+	private static final ParameterBinder NUMERIC = number(Types.NUMERIC);
+	private static final ParameterBinder DECIMAL = number(Types.DECIMAL);
+
+	private static ParameterBinder dateTime(final int type)
+	{
+		return (statement, index, value) ->
+		{
+			if (value == null)
+				statement.setNull(index, type);
+			else if (value instanceof java.sql.Timestamp)
+				statement.setTimestamp(index, (java.sql.Timestamp) value);
+			else if (value instanceof java.sql.Date)
+				statement.setDate(index, (java.sql.Date) value);
+			else if (value instanceof java.sql.Time)
+				statement.setTime(index, (java.sql.Time) value);
+			else if (value instanceof java.util.Date)
+				statement.setTimestamp(index, new java.sql.Timestamp(((java.util.Date) value).getTime()));
+			else
+				statement.setObject(index, value);
+		};
+	}
+
+	private static final ParameterBinder DATE = dateTime(Types.DATE);
+	private static final ParameterBinder TIME = dateTime(Types.TIME);
+	private static final ParameterBinder TIMESTAMP = dateTime(Types.TIMESTAMP);
+
+	/** Streams, no temporary LOB to free */
+	private static final ParameterBinder BLOB = (statement, index, value) ->
+	{
+		if (value == null)
+			statement.setNull(index, Types.BLOB);
+		else if (value instanceof byte[])
+			statement.setBinaryStream(index, new ByteArrayInputStream((byte[]) value), ((byte[]) value).length);
+		else if (value instanceof java.sql.Blob)
+			statement.setBlob(index, (java.sql.Blob) value);
+		else if (value instanceof InputStream)
+			statement.setBinaryStream(index, (InputStream) value);
+		else
+			statement.setObject(index, value);
+	};
+
+	private static final ParameterBinder CLOB = (statement, index, value) ->
+	{
+		if (value == null)
+			statement.setNull(index, Types.CLOB);
+		else if (value instanceof String)
+			statement.setCharacterStream(index, new StringReader((String) value), ((String) value).length());
+		else if (value instanceof java.sql.Clob)
+			statement.setClob(index, (java.sql.Clob) value);
+		else if (value instanceof Reader)
+			statement.setCharacterStream(index, (Reader) value);
+		else
+			statement.setObject(index, value);
+	};
+
+	/** Type unknown ({@link OracleParameterFactory#NULL}): the driver decides */
+	private static final ParameterBinder OBJECT = (statement, index, value) -> statement.setObject(index, value);
+
+	/**
+	 * @param sqlType {@link Parameter#type}
+	 * @return binder of the type (shared)
+	 */
+	public static ParameterBinder forType(final int sqlType)
+	{
+		switch (sqlType)
+		{
+			case Types.VARCHAR:
+			case Types.CHAR:
+			case Types.NVARCHAR:
+			case Types.NCHAR:
+			case Types.LONGVARCHAR:
+				return STRING;
+			case Types.INTEGER:
+			case Types.BIGINT:
+			case Types.SMALLINT:
+				return INTEGER;
+			case Types.NUMERIC:
+				return NUMERIC;
+			case Types.DECIMAL:
+			case Types.DOUBLE:
+			case Types.FLOAT:
+				return DECIMAL;
+			case Types.DATE:
+				return DATE;
+			case Types.TIME:
+				return TIME;
+			case Types.TIMESTAMP:
+				return TIMESTAMP;
+			case Types.BLOB:
+				return BLOB;
+			case Types.CLOB:
+			case Types.NCLOB:
+				return CLOB;
+			case Types.NULL:
+				return OBJECT;
+			default:
+				return (statement, index, value) ->
+				{
+					if (value == null)
+						statement.setNull(index, sqlType);
+					else
+						statement.setObject(index, value);
+				};
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+package ds.made.jdbc.easy.utility;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+Result of {@link NamedParameterUtils#parse(String)}: the JDBC SQL (named parameters replaced with ?)
+and the parameter indexes by name. Immutable, shared by all statements of the same SQL.
+@author ds
+ */
+public final class ParsedSql
+{
+
+	private final String sql;
+	private final Map<String, int[]> indexes;
+	/** Parameter name of each ? (position - 1) */
+	private final String[] order;
+
+	ParsedSql(String sql, Map<String, int[]> indexes, String[] order)
+	{
+		this.sql = sql;
+		this.indexes = Collections.unmodifiableMap(indexes);
+		this.order = order;
+	}
+
+	/**
+	 * @return SQL with ? placeholders
+	 */
+	public String getSql()
+	{
+		return sql;
+	}
+
+	public Set<String> getParameterNames()
+	{
+		return indexes.keySet();
+	}
+
+	/**
+	 * @return number of ? placeholders
+	 */
+	public int getParameterCount()
+	{
+		return order.length;
+	}
+
+	/**
+	 * @param position one based ? position
+	 * @return parameter name bound at the position
+	 */
+	public String getParameterName(int position)
+	{
+		return order[position - 1];
+	}
+
+	/**
+	 * @return parameter names in ? order (names used more than once appear more than once)
+	 */
+	public String[] getParameterOrder()
+	{
+		return order.clone();
+	}
+
+	/**
+	 * @param name parameter name
+	 * @return copy of the (one based) indexes or null when the parameter does not exist
+	 */
+	public int[] getIndexes(String name)
+	{
+		int[] idx = indexes.get(name);
+		return idx == null ? null : idx.clone();
+	}
+
+	/**
+	 * @return shared indexes (must not be changed) or null
+	 */
+	int[] indexes(String name)
+	{
+		return indexes.get(name);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ParsedSql [sql=" + sql + ", parameters=" + indexes.keySet() + "]";
+	}
+
+}
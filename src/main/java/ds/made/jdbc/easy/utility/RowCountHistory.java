@@ -0,0 +1,81 @@
+package ds.made.jdbc.easy.utility;
+
+/**
+Row counts of the last executions of each SQL text (process wide, size bounded).<br/>
+Used to presize result lists / {@link ds.made.jdbc.easy.model.EasyDataTable} rows and by the ADAPTIVE {@link FetchSizePolicy}.
+@author ds
+ */
+public final class RowCountHistory
+{
+
+	public static final int DEFAULT_MAX_SIZE = 512;
+	/** Executions remembered per SQL */
+	public static final int DEPTH = 8;
+
+	private static final BoundedCache<String, Counts> CACHE = new BoundedCache<String, Counts>(DEFAULT_MAX_SIZE);
+
+	private RowCountHistory()
+	{
+	}
+
+	/**
+	 * @param sql executed SQL text
+	 * @param rows rows read by the execution
+	 */
+	public static void record(String sql, int rows)
+	{
+		if (sql == null || rows < 0)
+			return;
+
+		CACHE.putIfAbsent(sql, new Counts()).add(rows);
+	}
+
+	/**
+	 * @param sql SQL text
+	 * @return largest row count of the remembered executions; 0 when the SQL was not executed yet
+	 */
+	public static int expectedRows(String sql)
+	{
+		if (sql == null)
+			return 0;
+		Counts c = CACHE.get(sql);
+		return c == null ? 0 : c.max();
+	}
+
+	public static void clear()
+	{
+		CACHE.clear();
+	}
+
+	public static String stats()
+	{
+		return CACHE.toString();
+	}
+
+	/**
+	 * Ring of the last {@link RowCountHistory#DEPTH} row counts.
+	 */
+	private static final class Counts
+	{
+		private final int[] counts = new int[DEPTH];
+		private int size = 0;
+		private int next = 0;
+
+		synchronized void add(int rows)
+		{
+			counts[next] = rows;
+			next = (next + 1) % DEPTH;
+			if (size < DEPTH)
+				size++;
+		}
+
+		synchronized int max()
+		{
+			int m = 0;
+			for (int i = 0; i < size; i++)
+				m = Math.max(m, counts[i]);
+			return m;
+		}
+	}
+
+}
@@ -0,0 +1,395 @@
+package ds.made.jdbc.easy.utility;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+Driver independent statement cache of one {@link Connection}.<br/>
+{@link #wrap(Connection, int)} returns a Connection whose prepareStatement(sql) / prepareCall(sql) reuse idle statements
+of the same SQL. Each prepare returns a new handle; closing it closes its result sets, clears the parameters and batch and returns
+the statement to the cache (closing it again is a no-op, using it again fails).
+the least recently used idle statements are really closed when more than maxStatements are idle.
+maxStatements bounds only the idle statements: the statements in use are open on top of them, so keep
+maxStatements plus the statements used at the same time below the database OPEN_CURSORS.
+Closing the connection closes all cached statements. Other prepare methods are not cached.
+A connection (and so its cache) is used by one thread at a time; the cache is synchronized anyway.
+<pre>
+	Connection connection = StatementCache.wrap(dataSource.getConnection(), 50);
+	...
+	StatementCache.of(connection).getHitRatio();
+</pre>
+@author ds
+ */
+public final class StatementCache implements InvocationHandler
+{
+
+	private static final Logger MYLOGGER = Logger.getLogger(StatementCache.class.getName());
+
+	public static final int DEFAULT_MAX_STATEMENTS = 50;
+
+	private static final int PREPARED = 0;
+	private static final int CALLABLE = 1;
+
+	private final Connection connection;
+	private final Connection proxy;
+	private final LinkedHashMap<Key, Cached> idle;
+	private int maxStatements;
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	private StatementCache(Connection connection, int maxStatements)
+	{
+		this.connection = connection;
+		this.maxStatements = maxStatements;
+		this.idle = new LinkedHashMap<Key, Cached>(16, 0.75f, true);
+		this.proxy = (Connection) Proxy.newProxyInstance(StatementCache.class.getClassLoader(), new Class<?>[] { Connection.class }, this);
+	}
+
+	/**
+	 * @param connection connection to wrap
+	 * @param maxStatements maximum number of idle (open) statements, at least 1
+	 * @return caching connection; the connection itself when it is already wrapped
+	 */
+	public static Connection wrap(Connection connection, int maxStatements)
+	{
+		if (maxStatements < 1)
+			throw new IllegalArgumentException("Cache size must be at least 1!");
+		if (of(connection) != null)
+			return connection;
+		return new StatementCache(connection, maxStatements).proxy;
+	}
+
+	public static Connection wrap(Connection connection)
+	{
+		return wrap(connection, DEFAULT_MAX_STATEMENTS);
+	}
+
+	/**
+	 * @param connection
+	 * @return cache of a wrapped connection; null otherwise
+	 */
+	public static StatementCache of(Connection connection)
+	{
+		if (connection != null && Proxy.isProxyClass(connection.getClass()))
+		{
+			InvocationHandler h = Proxy.getInvocationHandler(connection);
+			if (h instanceof StatementCache)
+				return (StatementCache) h;
+		}
+		return null;
+	}
+
+	@Override
+	public Object invoke(Object p, Method method, Object[] args) throws Throwable
+	{
+		String name = method.getName();
+		if (args != null && args.length == 1 && args[0] instanceof String)
+		{
+			if (name.equals("prepareStatement"))
+				return checkOut(new Key(PREPARED, (String) args[0]));
+			if (name.equals("prepareCall"))
+				return checkOut(new Key(CALLABLE, (String) args[0]));
+		}
+		if (args == null)
+		{
+			if (name.equals("close"))
+			{
+				clear();
+				connection.close();
+				return null;
+			}
+			if (name.equals("hashCode"))
+				return System.identityHashCode(p);
+			if (name.equals("toString"))
+				return "StatementCache [" + connection + "]";
+		}
+		else if (name.equals("equals") && args.length == 1)
+			return p == args[0];
+		else if (name.equals("unwrap") && args[0] == Connection.class)
+			return connection;
+
+		return forward(connection, method, args);
+	}
+
+	private Object checkOut(Key key) throws SQLException
+	{
+		Cached c;
+		synchronized (this)
+		{
+			c = idle.remove(key);
+			if (c != null)
+				hits++;
+			else
+				misses++;
+		}
+		if (c == null)
+		{
+			PreparedStatement s = key.kind == CALLABLE ? connection.prepareCall(key.sql) : connection.prepareStatement(key.sql);
+			c = new Cached(key, s);
+		}
+		return new Lease(c).proxy;
+	}
+
+	/**
+	 * Statement closed by the user: reset and keep it (or really close it when it cannot be reused).
+	 */
+	private void checkIn(Cached c)
+	{
+		Cached replaced = null;
+		try
+		{
+			if (c.statement.isClosed())
+				return;
+			c.statement.clearBatch();
+			c.statement.clearParameters();
+			c.statement.clearWarnings();
+			c.reset();
+		}
+		catch (SQLException e)
+		{
+			MYLOGGER.log(Level.WARNING, "Statement not reusable, closed!", e);
+			DBClosingManager.closeAndContinue(c.statement);
+			return;
+		}
+
+		synchronized (this)
+		{
+			replaced = idle.put(c.key, c);
+			if (idle.size() > maxStatements)
+				evictEldest();
+		}
+		if (replaced != null)
+			DBClosingManager.closeAndContinue(replaced.statement);
+	}
+
+	private void evictEldest()
+	{
+		Iterator<Cached> itr = idle.values().iterator();
+		while (idle.size() > maxStatements && itr.hasNext())
+		{
+			Cached eldest = itr.next();
+			itr.remove();
+			evictions++;
+			DBClosingManager.closeAndContinue(eldest.statement);
+		}
+	}
+
+	/**
+	 * Closes all idle statements. Counters are left as they are.
+	 */
+	public synchronized void clear()
+	{
+		for (Cached c : idle.values())
+			DBClosingManager.closeAndContinue(c.statement);
+		idle.clear();
+	}
+
+	/**
+	 * Changes the bound; the least recently used statements are closed when shrinking.
+	 * @param maxStatements at least 1
+	 */
+	public synchronized void setMaxStatements(int maxStatements)
+	{
+		if (maxStatements < 1)
+			throw new IllegalArgumentException("Cache size must be at least 1!");
+		this.maxStatements = maxStatements;
+		evictEldest();
+	}
+
+	public synchronized int getMaxStatements()
+	{
+		return maxStatements;
+	}
+
+	/**
+	 * @return number of idle statements
+	 */
+	public synchronized int size()
+	{
+		return idle.size();
+	}
+
+	public synchronized long getHits()
+	{
+		return hits;
+	}
+
+	public synchronized long getMisses()
+	{
+		return misses;
+	}
+
+	public synchronized long getEvictions()
+	{
+		return evictions;
+	}
+
+	/**
+	 * @return hits / (hits + misses) or 0 when there were no lookups
+	 */
+	public synchronized double getHitRatio()
+	{
+		long all = hits + misses;
+		return all == 0 ? 0d : (double)hits / all;
+	}
+
+	public synchronized void resetStatistics()
+	{
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+
+	@Override
+	public synchronized String toString()
+	{
+		return "StatementCache [size=" + idle.size() + ", maxStatements=" + maxStatements + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+	}
+
+	private static Object forward(Object target, Method method, Object[] args) throws Throwable
+	{
+		try
+		{
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException e)
+		{
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Statement kind and SQL.
+	 */
+	private static final class Key
+	{
+		final int kind;
+		final String sql;
+
+		Key(int kind, String sql)
+		{
+			this.kind = kind;
+			this.sql = sql;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * sql.hashCode() + kind;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return kind == other.kind && sql.equals(other.sql);
+		}
+	}
+
+	/**
+	 * Cached statement.
+	 */
+	private static final class Cached
+	{
+		final Key key;
+		final PreparedStatement statement;
+		/** Settings at prepare time, restored on return */
+		final int fetchSize;
+		final int maxRows;
+		final int queryTimeout;
+
+		Cached(Key key, PreparedStatement statement) throws SQLException
+		{
+			this.key = key;
+			this.statement = statement;
+			this.fetchSize = statement.getFetchSize();
+			this.maxRows = statement.getMaxRows();
+			this.queryTimeout = statement.getQueryTimeout();
+		}
+
+		void reset() throws SQLException
+		{
+			if (statement.getFetchSize() != fetchSize)
+				statement.setFetchSize(fetchSize);
+			if (statement.getMaxRows() != maxRows)
+				statement.setMaxRows(maxRows);
+			if (statement.getQueryTimeout() != queryTimeout)
+				statement.setQueryTimeout(queryTimeout);
+		}
+	}
+
+	/**
+	 * One check out of a cached statement: the proxy handed out (close returns the statement to the cache once).
+	 */
+	private final class Lease implements InvocationHandler
+	{
+		final Cached cached;
+		final Object proxy;
+		boolean closed = false;
+		/** Result sets opened through this proxy */
+		final List<ResultSet> results = new ArrayList<ResultSet>(1);
+
+		Lease(Cached cached)
+		{
+			this.cached = cached;
+			Class<?> type = cached.key.kind == CALLABLE ? CallableStatement.class : PreparedStatement.class;
+			this.proxy = Proxy.newProxyInstance(StatementCache.class.getClassLoader(), new Class<?>[] { type }, this);
+		}
+
+		@Override
+		public Object invoke(Object p, Method method, Object[] args) throws Throwable
+		{
+			String name = method.getName();
+			if (args == null)
+			{
+				if (name.equals("close"))
+				{
+					if (!closed)
+					{
+						closed = true;
+						for (ResultSet rs : results)
+							DBClosingManager.closeAndContinue(rs);
+						results.clear();
+						checkIn(cached);
+					}
+					return null;
+				}
+				if (name.equals("isClosed"))
+					return closed || cached.statement.isClosed();
+				if (name.equals("getConnection"))
+					return StatementCache.this.proxy;
+				if (name.equals("hashCode"))
+					return System.identityHashCode(p);
+				if (name.equals("toString"))
+					return "Cached " + cached.statement;
+			}
+			else if (name.equals("equals") && args.length == 1)
+				return p == args[0];
+
+			if (closed)
+				throw new SQLException("Statement is closed!");
+			Object result = forward(cached.statement, method, args);
+			if (result instanceof ResultSet)
+				results.add((ResultSet) result);
+			return result;
+		}
+	}
+
+}
@@ -0,0 +1,39 @@
+package ds.made.jdbc.easy.utility;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+Conversion between a Java type and its database value, for types the library does not know
+(UUID, OffsetDateTime, JSON ...) or a different representation of a known one (Boolean stored as 'D' / 'N').<br/>
+Used for reading columns (resolved once per column when the mapping plan is built) and for binding {@link Parameter} values.
+Register with {@link TypeConverters#register(TypeConverter)} or as a {@link java.util.ServiceLoader} service
+(META-INF/services/ds.made.jdbc.easy.utility.TypeConverter). Implementations must be thread safe.
+@author ds
+
+@param <J> Java type
+ */
+public interface TypeConverter<J>
+{
+
+	/**
+	 * @return Java type this converter reads and writes
+	 */
+	Class<J> javaType();
+
+	/**
+	 * @param rs result set positioned on a row
+	 * @param index column (one based)
+	 * @return Java value; null for SQL NULL
+	 * @throws SQLException
+	 */
+	J read(ResultSet rs, int index) throws SQLException;
+
+	/**
+	 * @param value Java value (not null)
+	 * @return value for {@link java.sql.PreparedStatement#setObject(int, Object)}
+	 * @throws SQLException
+	 */
+	Object write(J value) throws SQLException;
+
+}
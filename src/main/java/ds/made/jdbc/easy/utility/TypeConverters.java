@@ -0,0 +1,125 @@
+package ds.made.jdbc.easy.utility;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ds.made.jdbc.easy.annotations.MappingPlanCache;
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+
+/**
+Registry of {@link TypeConverter}s by Java type.<br/>
+Filled once from {@link ServiceLoader} and by {@link #register(TypeConverter)}. A registered converter wins over the
+built-in conversion of its type. Lookups happen when a mapping plan is built, so converters cost nothing per cell.
+@author ds
+ */
+public final class TypeConverters
+{
+
+	private static final Logger MYLOGGER = Logger.getLogger(TypeConverters.class.getName());
+
+	private static final Map<Class<?>, TypeConverter<?>> REGISTERED = new ConcurrentHashMap<Class<?>, TypeConverter<?>>();
+
+	/** Converters named in {@link ds.made.jdbc.easy.annotations.EasyColumn#converter()}, one instance per class */
+	private static final ClassValue<TypeConverter<?>> INSTANCES = new ClassValue<TypeConverter<?>>()
+	{
+		@Override
+		protected TypeConverter<?> computeValue(Class<?> type)
+		{
+			try
+			{
+				return (TypeConverter<?>) type.getDeclaredConstructor().newInstance();
+			}
+			catch (ReflectiveOperationException | RuntimeException e)
+			{
+				MYLOGGER.log(Level.SEVERE, "Type converter " + type.getName() + " needs a public no argument constructor!", e);
+				return null;
+			}
+		}
+	};
+
+	static
+	{
+		try
+		{
+			for (TypeConverter<?> c : ServiceLoader.load(TypeConverter.class, TypeConverters.class.getClassLoader()))
+				REGISTERED.put(c.javaType(), c);
+		}
+		catch (ServiceConfigurationError e)
+		{
+			MYLOGGER.log(Level.SEVERE, "Type converters not loaded!", e);
+		}
+	}
+
+	private TypeConverters()
+	{
+	}
+
+	/**
+	 * Registers (or replaces) the converter of its Java type. Cached plans are dropped.
+	 * @param converter
+	 */
+	public static void register(TypeConverter<?> converter)
+	{
+		if (converter == null || converter.javaType() == null)
+			throw new IllegalArgumentException("Converter and its Java type must not be null!");
+		REGISTERED.put(converter.javaType(), converter);
+		MappingPlanCache.clear();
+	}
+
+	/**
+	 * Removes the converter of a Java type. Cached plans are dropped.
+	 * @param javaType
+	 */
+	public static void unregister(Class<?> javaType)
+	{
+		if (REGISTERED.remove(javaType) != null)
+			MappingPlanCache.clear();
+	}
+
+	/**
+	 * @param javaType
+	 * @return registered converter or null
+	 */
+	@SuppressWarnings("unchecked")
+	public static <J> TypeConverter<J> find(Class<J> javaType)
+	{
+		if (javaType == null || REGISTERED.isEmpty())
+			return null;
+		return (TypeConverter<J>) REGISTERED.get(javaType);
+	}
+
+	/**
+	 * @param converterClass converter with a public no argument constructor
+	 * @return shared instance
+	 * @throws SomethingJustWrong when the converter cannot be created
+	 */
+	public static TypeConverter<?> instance(Class<?> converterClass) throws SomethingJustWrong
+	{
+		if (!TypeConverter.class.isAssignableFrom(converterClass))
+			throw new SomethingJustWrong("Class " + converterClass.getName() + " is not a TypeConverter!");
+		TypeConverter<?> c = INSTANCES.get(converterClass);
+		if (c == null)
+			throw new SomethingJustWrong("Type converter " + converterClass.getName() + " not created!");
+		return c;
+	}
+
+	/**
+	 * Database value of a parameter: written by the registered converter of the value class, otherwise unchanged.
+	 * @param value Java value
+	 * @return value for setObject
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static Object toDatabase(Object value) throws SQLException
+	{
+		if (value == null || REGISTERED.isEmpty())
+			return value;
+		TypeConverter c = REGISTERED.get(value.getClass());
+		return c == null ? value : c.write(value);
+	}
+
+}
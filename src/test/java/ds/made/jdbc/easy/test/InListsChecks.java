@@ -0,0 +1,218 @@
+package ds.made.jdbc.easy.test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import ds.made.jdbc.easy.model.SomethingJustWrong;
+import ds.made.jdbc.easy.utility.InLists;
+import ds.made.jdbc.easy.utility.Parameter;
+import ds.made.jdbc.easy.utility.TypeConverter;
+
+/**
+IN list expansion checks (no database): rewritten SQL and expanded parameters of {@link InLists#expand(String, Parameter[])}
+for bucket padding, parameter settings of the elements, empty lists, lists over 1000 elements, Not In and unsupported forms.<br/>
+Plain main; throws on the first mismatch.
+@author ds
+ */
+public class InListsChecks
+{
+
+	public static void main(String[] args) throws SomethingJustWrong
+	{
+		System.out.println("BEGIN");
+
+		checkBucket(0, 1);
+		checkBucket(1, 1);
+		checkBucket(2, 2);
+		checkBucket(3, 4);
+		checkBucket(5, 8);
+		checkBucket(512, 512);
+		checkBucket(513, 1000);
+		checkBucket(1000, 1000);
+
+		Parameter n = new Parameter("n", Types.NUMERIC, 7);
+		InLists.Expanded e = InLists.expand("select * from t where n = :n", new Parameter[] { n });
+		same("no list", "select * from t where n = :n", e.command);
+		if (e.parameters.length != 1 || e.parameters[0] != n)
+			throw new IllegalStateException("no list: parameters changed");
+		System.out.println("OK no list");
+
+		e = InLists.expand("select * from t where id In (:ids) and n = :n",
+				new Parameter[] { new Parameter("ids", Types.NUMERIC, Arrays.asList(10)), n });
+		same("one element", "select * from t where id In (:ids__0) and n = :n", e.command);
+		values("one element", e.parameters, 10, 7);
+
+		e = InLists.expand("select * from t where id In (:ids)",
+				new Parameter[] { new Parameter("ids", Types.NUMERIC, new int[] { 1, 2, 3 }) });
+		same("padded", "select * from t where id In (:ids__0, :ids__1, :ids__2, :ids__3)", e.command);
+		values("padded", e.parameters, 1, 2, 3, 3);
+		names("padded", e.parameters, "ids__0", "ids__1", "ids__2", "ids__3");
+
+		TypeConverter<String> upper = new TypeConverter<String>()
+		{
+			@Override
+			public Object write(String value)
+			{
+				return value.toUpperCase();
+			}
+
+			@Override
+			public Class<String> javaType()
+			{
+				return String.class;
+			}
+
+			@Override
+			public String read(ResultSet rs, int index) throws SQLException
+			{
+				return rs.getString(index);
+			}
+		};
+		e = InLists.expand("select * from t where code In (:codes)",
+				new Parameter[] { new Parameter("codes", Types.VARCHAR, Arrays.asList("a", "b")).setConverter(upper) });
+		bound("converter", e.parameters, "A", "B");
+
+		e = InLists.expand("select * from t where id In (:ids)",
+				new Parameter[] { new Parameter("ids", Types.NUMERIC, Collections.emptyList()) });
+		same("empty", "select * from t where id In (:ids__0)", e.command);
+		values("empty", e.parameters, (Object) null);
+
+		e = InLists.expand("select * from t where id In (:ids) or code In (:ids)",
+				new Parameter[] { new Parameter("ids", Types.NUMERIC, Arrays.asList(1, 2)) });
+		same("used twice", "select * from t where id In (:ids__0, :ids__1) or code In (:ids__0, :ids__1)", e.command);
+		values("used twice", e.parameters, 1, 2);
+
+		List<Integer> many = new ArrayList<Integer>();
+		for (int i = 0; i < 2500; i++)
+			many.add(i);
+		e = InLists.expand("select * from t where t.id In ( :ids ) and n = :n",
+				new Parameter[] { new Parameter("ids", Types.NUMERIC, many), n });
+		String expected = "select * from t where (t.id In (" + placeholders(0, 1000) + ") Or t.id In (" + placeholders(1000, 1000)
+				+ ") Or t.id In (" + placeholders(2000, 512) + ")) and n = :n";
+		same("2500 elements", expected, e.command);
+		if (e.parameters.length != 1000 + 1000 + 512 + 1)
+			throw new IllegalStateException("2500 elements: " + e.parameters.length + " parameters");
+		same("2500 elements", "ids__2000", e.parameters[2000].name);
+		same("2500 elements", "ids__2511", e.parameters[2511].name);
+		if (!Integer.valueOf(2499).equals(e.parameters[2511].getValue()) || !Integer.valueOf(1999).equals(e.parameters[1999].getValue()))
+			throw new IllegalStateException("2500 elements: wrong values");
+		System.out.println("OK 2500 elements");
+
+		many = many.subList(0, 1001);
+		e = InLists.expand("select * from t where upper(code) Not In (:ids)",
+				new Parameter[] { new Parameter("ids", Types.NUMERIC, many) });
+		expected = "select * from t where (upper(code) Not In (" + placeholders(0, 1000) + ") And upper(code) Not In (:ids__1000))";
+		same("Not In", expected, e.command);
+		if (e.parameters.length != 1001)
+			throw new IllegalStateException("Not In: " + e.parameters.length + " parameters");
+		System.out.println("OK Not In");
+
+		e = InLists.expand("select * from t where (a + b) In (:ids)",
+				new Parameter[] { new Parameter("ids", Types.NUMERIC, many) });
+		expected = "select * from t where ((a + b) In (" + placeholders(0, 1000) + ") Or (a + b) In (:ids__1000))";
+		same("parenthesized expression", expected, e.command);
+		System.out.println("OK parenthesized expression");
+
+		e = InLists.expand("select * from t where t.\"My Col\" In (:ids)",
+				new Parameter[] { new Parameter("ids", Types.NUMERIC, many) });
+		expected = "select * from t where (t.\"My Col\" In (" + placeholders(0, 1000) + ") Or t.\"My Col\" In (:ids__1000))";
+		same("quoted identifier", expected, e.command);
+		System.out.println("OK quoted identifier");
+
+		e = InLists.expand("select * from t where x = 1 and(a) In (:ids)",
+				new Parameter[] { new Parameter("ids", Types.NUMERIC, many) });
+		expected = "select * from t where x = 1 and((a) In (" + placeholders(0, 1000) + ") Or (a) In (:ids__1000))";
+		same("keyword before parentheses", expected, e.command);
+		System.out.println("OK keyword before parentheses");
+
+		notSupported("select * from t where a + b In (:ids)", many);
+		notSupported("select * from t where a+b In (:ids)", many);
+		notSupported("select * from t where a || b Not In (:ids)", many);
+		notSupported("select * from t where id = Any (:ids)", many);
+		notSupported("select * from t where id In (:ids, 0)", many);
+		notSupported("select * from t where id In :ids", many);
+
+		System.out.println("END");
+	}
+
+	private static void checkBucket(int n, int expected)
+	{
+		if (InLists.bucket(n) != expected)
+			throw new IllegalStateException("bucket(" + n + ") " + InLists.bucket(n) + ", expected " + expected);
+		System.out.println("OK bucket(" + n + ") " + expected);
+	}
+
+	private static void same(String what, String expected, String actual)
+	{
+		if (!expected.equals(actual))
+			throw new IllegalStateException(what + ": [" + actual + "], expected [" + expected + "]");
+	}
+
+	private static void values(String what, Parameter[] parameters, Object... expected)
+	{
+		Object[] actual = new Object[parameters.length];
+		for (int i = 0; i < parameters.length; i++)
+			actual[i] = parameters[i].getValue();
+		if (!Arrays.equals(expected, actual))
+			throw new IllegalStateException(what + ": values " + Arrays.toString(actual) + ", expected " + Arrays.toString(expected));
+		System.out.println("OK " + what);
+	}
+
+	private static void bound(String what, Parameter[] parameters, Object... expected)
+	{
+		Object[] actual = new Object[parameters.length];
+		try
+		{
+			for (int i = 0; i < parameters.length; i++)
+				actual[i] = parameters[i].getValueForBind();
+		}
+		catch (SQLException e)
+		{
+			throw new IllegalStateException(what + ": " + e.getMessage(), e);
+		}
+		if (!Arrays.equals(expected, actual))
+			throw new IllegalStateException(what + ": bound " + Arrays.toString(actual) + ", expected " + Arrays.toString(expected));
+		System.out.println("OK " + what);
+	}
+
+	private static void names(String what, Parameter[] parameters, String... expected)
+	{
+		String[] actual = new String[parameters.length];
+		for (int i = 0; i < parameters.length; i++)
+			actual[i] = parameters[i].name;
+		if (!Arrays.equals(expected, actual))
+			throw new IllegalStateException(what + ": names " + Arrays.toString(actual) + ", expected " + Arrays.toString(expected));
+	}
+
+	private static String placeholders(int first, int count)
+	{
+		StringBuilder sb = new StringBuilder();
+		for (int k = 0; k < count; k++)
+		{
+			if (k > 0)
+				sb.append(", ");
+			sb.append(":ids__").append(first + k);
+		}
+		return sb.toString();
+	}
+
+	private static void notSupported(String command, List<Integer> list)
+	{
+		try
+		{
+			InLists.expand(command, new Parameter[] { new Parameter("ids", Types.NUMERIC, list) });
+		}
+		catch (SomethingJustWrong e)
+		{
+			System.out.println("OK not supported: " + e.getMessage());
+			return;
+		}
+		throw new IllegalStateException("not supported: no error for " + command);
+	}
+
+}
@@ -0,0 +1,153 @@
+package ds.made.jdbc.easy.test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import ds.made.jdbc.easy.utility.NamedParameterUtils;
+import ds.made.jdbc.easy.utility.ParsedSql;
+
+/**
+Named parameter parser: the single pass char[] parser against the former parser (LinkedList of boxed indexes),
+on the PL/SQL blocks of OracleDatabase.sql with binds added.<br/>
+Plain main (no JMH in the build): warm up, then the best of several timed rounds.
+Arguments: [path to OracleDatabase.sql] [iterations per round]
+@author ds
+ */
+public class NamedParameterParserBenchmark
+{
+
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) throws IOException
+	{
+		String path = args.length > 0 ? args[0] : "OracleDatabase.sql";
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+		// the script has no binds: every "inX" argument becomes :inX
+		String script = new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+		String sql = script.replaceAll("\\b(in(Number|Text|Date))\\b(?=\\s*[+|;,)])", ":$1")
+				+ "\n-- :notBind in a comment\n/* :notBind */ select q'[:notBind]', x::int from dual where a = :inNumber";
+
+		ParsedSql parsed = NamedParameterUtils.parseNoCache(sql);
+		System.out.println("SQL length " + sql.length() + ", binds " + parsed.getParameterCount() + " " + parsed.getParameterNames());
+		Map<String, Object> legacy = new HashMap<String, Object>();
+		legacyParse(sql, legacy);
+		int legacyBinds = 0;
+		for (Object indexes : legacy.values())
+			legacyBinds += ((int[]) indexes).length;
+		System.out.println("Former parser binds " + legacyBinds + " " + legacy.keySet());
+
+		for (int r = 0; r < 2; r++)
+		{
+			runNew(sql, iterations);
+			runLegacy(sql, iterations);
+		}
+
+		long bestNew = Long.MAX_VALUE;
+		long bestLegacy = Long.MAX_VALUE;
+		for (int r = 0; r < ROUNDS; r++)
+		{
+			bestNew = Math.min(bestNew, runNew(sql, iterations));
+			bestLegacy = Math.min(bestLegacy, runLegacy(sql, iterations));
+		}
+		System.out.println("char[] parser: " + (bestNew / iterations) + " ns/op");
+		System.out.println("former parser: " + (bestLegacy / iterations) + " ns/op");
+	}
+
+	private static long runNew(String sql, int iterations)
+	{
+		long sink = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++)
+			sink += NamedParameterUtils.parseNoCache(sql).getParameterCount();
+		long t = System.nanoTime() - start;
+		if (sink == -1)
+			System.out.println(sink);
+		return t;
+	}
+
+	private static long runLegacy(String sql, int iterations)
+	{
+		long sink = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++)
+			sink += legacyParse(sql, new HashMap<String, Object>()).length();
+		long t = System.nanoTime() - start;
+		if (sink == -1)
+			System.out.println(sink);
+		return t;
+	}
+
+	/**
+	 * Former NamedParameterUtils.parse (quotes only, LinkedList of Integer, then int[]).
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static String legacyParse(String query, Map paramMap)
+	{
+		int length = query.length();
+		StringBuilder parsedQuery = new StringBuilder(length);
+		boolean inSingleQuote = false;
+		boolean inDoubleQuote = false;
+		int index = 1;
+
+		for (int i = 0; i < length; i++)
+		{
+			char c = query.charAt(i);
+			if (inSingleQuote)
+			{
+				if (c == '\'')
+					inSingleQuote = false;
+			}
+			else if (inDoubleQuote)
+			{
+				if (c == '"')
+					inDoubleQuote = false;
+			}
+			else
+			{
+				if (c == '\'')
+					inSingleQuote = true;
+				else if (c == '"')
+					inDoubleQuote = true;
+				else if (c == ':' && i + 1 < length && Character.isJavaIdentifierStart(query.charAt(i + 1)))
+				{
+					int j = i + 2;
+					while (j < length && Character.isJavaIdentifierPart(query.charAt(j)))
+						j++;
+					String name = query.substring(i + 1, j);
+					c = '?';
+					i += name.length();
+
+					List indexList = (List) paramMap.get(name);
+					if (indexList == null)
+					{
+						indexList = new LinkedList();
+						paramMap.put(name, indexList);
+					}
+					indexList.add(index);
+					index++;
+				}
+			}
+			parsedQuery.append(c);
+		}
+
+		for (Object o : paramMap.entrySet())
+		{
+			Map.Entry entry = (Map.Entry) o;
+			List list = (List) entry.getValue();
+			int[] indexes = new int[list.size()];
+			int i = 0;
+			for (Object x : list)
+				indexes[i++] = (Integer) x;
+			entry.setValue(indexes);
+		}
+		return parsedQuery.toString();
+	}
+
+}
@@ -0,0 +1,113 @@
+package ds.made.jdbc.easy.test;
+
+import java.util.Arrays;
+
+import ds.made.jdbc.easy.utility.NamedParameterUtils;
+import ds.made.jdbc.easy.utility.ParsedSql;
+
+/**
+Named parameter parser checks (no database): rewritten SQL, parameter order and index tables
+for comments, literals, q-quotes, :: casts, trigger pseudo records and repeated names.<br/>
+Plain main; throws on the first mismatch.
+@author ds
+ */
+public class NamedParameterParserChecks
+{
+
+	public static void main(String[] args)
+	{
+		System.out.println("BEGIN");
+
+		check("no binds",
+				"select 1 from dual",
+				"select 1 from dual");
+		check("simple",
+				"select * from t where a = :a and b = :b",
+				"select * from t where a = ? and b = ?", "a", "b");
+		check("repeated name",
+				"select * from t where a = :x or b = :y or c = :x",
+				"select * from t where a = ? or b = ? or c = ?", "x", "y", "x");
+		checkIndexes("select * from t where a = :x or b = :y or c = :x", "x", 1, 3);
+		checkIndexes("select * from t where a = :x or b = :y or c = :x", "y", 2);
+		checkIndexes("select * from t where a = :x", "z");
+		check("line comment",
+				"select a -- :notBind\nfrom t where a = :a",
+				"select a -- :notBind\nfrom t where a = ?", "a");
+		check("line comment at the end",
+				"select a from t where a = :a -- :notBind",
+				"select a from t where a = ? -- :notBind", "a");
+		check("block comment",
+				"select /* :notBind\n:alsoNot */ a from t where a = :a",
+				"select /* :notBind\n:alsoNot */ a from t where a = ?", "a");
+		check("unterminated block comment",
+				"select a from t where a = :a /* :notBind",
+				"select a from t where a = ? /* :notBind", "a");
+		check("string literal",
+				"select ':notBind', 'it''s :notBind' from t where a = :a",
+				"select ':notBind', 'it''s :notBind' from t where a = ?", "a");
+		check("quoted identifier",
+				"select \":notBind\" from t where a = :a",
+				"select \":notBind\" from t where a = ?", "a");
+		check("q-quote brackets",
+				"select q'[it's :notBind]' from t where a = :a",
+				"select q'[it's :notBind]' from t where a = ?", "a");
+		check("q-quote same delimiter",
+				"select Q'!it's :notBind!' from t where a = :a",
+				"select Q'!it's :notBind!' from t where a = ?", "a");
+		check("nq-quote",
+				"select nq'{:notBind}' from t where a = :a",
+				"select nq'{:notBind}' from t where a = ?", "a");
+		check("identifier ending in q",
+				"select seq':notBind' from t where a = :a",
+				"select seq':notBind' from t where a = ?", "a");
+		check(":: cast",
+				"select x::int, y :: text from t where a = :a::int",
+				"select x::int, y :: text from t where a = ?::int", "a");
+		check(":new. and :old.",
+				"begin :new.ID := :id; :OLD.X := :old; end;",
+				"begin :new.ID := ?; :OLD.X := ?; end;", "id", "old");
+		check("colon not followed by a name",
+				"select a from t where b = ': ' and c = :c and d := 1",
+				"select a from t where b = ': ' and c = ? and d := 1", "c");
+		check("name with digits and underscores",
+				"call p(:in_1, :out$2)",
+				"call p(?, ?)", "in_1", "out$2");
+
+		ParsedSql cached = NamedParameterUtils.parse("select * from t where a = :a");
+		if (cached != NamedParameterUtils.parse("select * from t where a = :a"))
+			throw new IllegalStateException("parse: cached instance expected");
+		System.out.println("OK cache");
+
+		System.out.println("END");
+	}
+
+	private static void check(String what, String query, String sql, String... order)
+	{
+		ParsedSql parsed = NamedParameterUtils.parseNoCache(query);
+		if (!sql.equals(parsed.getSql()))
+			throw new IllegalStateException(what + ": SQL [" + parsed.getSql() + "], expected [" + sql + "]");
+		if (!Arrays.equals(order, parsed.getParameterOrder()))
+			throw new IllegalStateException(what + ": order " + Arrays.toString(parsed.getParameterOrder()) + ", expected " + Arrays.toString(order));
+		if (parsed.getParameterCount() != order.length)
+			throw new IllegalStateException(what + ": count " + parsed.getParameterCount() + ", expected " + order.length);
+		for (int i = 0; i < order.length; i++)
+		{
+			if (!order[i].equals(parsed.getParameterName(i + 1)))
+				throw new IllegalStateException(what + ": name at " + (i + 1) + " " + parsed.getParameterName(i + 1) + ", expected " + order[i]);
+		}
+		System.out.println("OK " + what);
+	}
+
+	/**
+	 * @param indexes expected one based indexes; none = the parameter does not exist
+	 */
+	private static void checkIndexes(String query, String name, int... indexes)
+	{
+		int[] actual = NamedParameterUtils.parseNoCache(query).getIndexes(name);
+		int[] expected = indexes.length == 0 ? null : indexes;
+		if (!Arrays.equals(expected, actual))
+			throw new IllegalStateException("indexes of " + name + ": " + Arrays.toString(actual) + ", expected " + Arrays.toString(expected));
+		System.out.println("OK indexes of " + name + " " + Arrays.toString(actual));
+	}
+
+}